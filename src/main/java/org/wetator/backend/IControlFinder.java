@@ -45,4 +45,19 @@ public interface IControlFinder {
    * @return a {@link WeightedControlList}
    */
   WeightedControlList findControls(ControlFeature aFeature, WPath aWPath);
+
+  /**
+   * Works like {@link #findControls(ControlFeature, WPath)} but the search may stop as soon as a control was found that
+   * can't be outranked by any other control (e.g. found by id without any deviation). In this case the result contains
+   * this best control but not necessarily all the other matching controls.<br>
+   * Use this if only the best control is of interest.<br>
+   * The default implementation returns all controls.
+   *
+   * @param aFeature the {@link ControlFeature} that needs to be supported
+   * @param aWPath the {@link WPath} describing the controls
+   * @return a {@link WeightedControlList} containing at least the best control
+   */
+  default WeightedControlList findBestControls(final ControlFeature aFeature, final WPath aWPath) {
+    return findControls(aFeature, aWPath);
+  }
 }
\ No newline at end of file
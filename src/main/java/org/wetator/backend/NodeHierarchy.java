@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The hierarchy of a node; this is the path of the node indexes from the root to the node.<br>
+ * Every hierarchy points to the hierarchy of the parent node, so the hierarchies of all nodes
+ * of a page share the path of their common ancestors. The string representation (e.g. '0&gt;1&gt;3') is
+ * only built on demand.
+ *
+ * @author rbri
+ */
+public final class NodeHierarchy {
+  private static final String DELIMITER = ">";
+
+  private final NodeHierarchy parent;
+  private final int index;
+  private final int depth;
+
+  /**
+   * The constructor.
+   *
+   * @param aParent the hierarchy of the parent node; null for the root
+   * @param anIndex the index of the node
+   */
+  public NodeHierarchy(final NodeHierarchy aParent, final int anIndex) {
+    parent = aParent;
+    index = anIndex;
+    if (null == aParent) {
+      depth = 0;
+    } else {
+      depth = aParent.depth + 1;
+    }
+  }
+
+  /**
+   * Constructs the hierarchy from the string representation (e.g. '0&gt;1&gt;3').
+   *
+   * @param aHierarchy the string representation
+   * @return the new {@link NodeHierarchy} or null if the given string is empty
+   */
+  public static NodeHierarchy parse(final String aHierarchy) {
+    NodeHierarchy tmpResult = null;
+    if (StringUtils.isEmpty(aHierarchy)) {
+      return tmpResult;
+    }
+
+    for (final String tmpIndex : aHierarchy.split(DELIMITER)) {
+      tmpResult = new NodeHierarchy(tmpResult, Integer.parseInt(tmpIndex));
+    }
+    return tmpResult;
+  }
+
+  /**
+   * @return the hierarchy of the parent node; null for the root
+   */
+  public NodeHierarchy getParent() {
+    return parent;
+  }
+
+  /**
+   * @return the index of the node
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @param anOther the hierarchy to compare with
+   * @return true if the node of this hierarchy is the same node or a descendant of the node of the given hierarchy
+   */
+  public boolean isSelfOrDescendantOf(final NodeHierarchy anOther) {
+    if (depth < anOther.depth) {
+      return false;
+    }
+
+    NodeHierarchy tmpHierarchy = this;
+    while (tmpHierarchy.depth > anOther.depth) {
+      tmpHierarchy = tmpHierarchy.parent;
+    }
+
+    // both are on the same level now; the paths have to be the same up to the root
+    NodeHierarchy tmpOther = anOther;
+    while (tmpHierarchy != tmpOther) {
+      if (tmpHierarchy.index != tmpOther.index) {
+        return false;
+      }
+      tmpHierarchy = tmpHierarchy.parent;
+      tmpOther = tmpOther.parent;
+      if (null == tmpHierarchy) {
+        return true;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    if (null == parent) {
+      return Integer.toString(index);
+    }
+    return parent.toString() + DELIMITER + index;
+  }
+}
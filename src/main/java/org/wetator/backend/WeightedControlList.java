@@ -17,10 +17,12 @@
 package org.wetator.backend;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import org.wetator.backend.control.IControl;
 
@@ -57,7 +59,7 @@ public final class WeightedControlList {
    * @param anIndex the index
    */
   public void add(final IControl aControl, final FoundType aFoundType, final int aDeviation, final int aDistance,
-      final int aStart, final String aHierarchy, final int anIndex) {
+      final int aStart, final NodeHierarchy aHierarchy, final int anIndex) {
     final Entry tmpEntry = new Entry();
     tmpEntry.control = aControl;
     tmpEntry.foundType = aFoundType;
@@ -70,32 +72,91 @@ public final class WeightedControlList {
     entries.add(tmpEntry);
   }
 
+  /**
+   * Creates a new entry and adds the entry to the list.
+   *
+   * @param aControl the control
+   * @param aFoundType the found type
+   * @param aDeviation the deviation
+   * @param aDistance the distance
+   * @param aStart the start
+   * @param aHierarchy the string representation of the hierarchy (e.g. '0&gt;1&gt;3')
+   * @param anIndex the index
+   */
+  public void add(final IControl aControl, final FoundType aFoundType, final int aDeviation, final int aDistance,
+      final int aStart, final String aHierarchy, final int anIndex) {
+    add(aControl, aFoundType, aDeviation, aDistance, aStart, NodeHierarchy.parse(aHierarchy), anIndex);
+  }
+
   /**
    * @return a new list of Entries sorted by weight
    */
   public List<Entry> getEntriesSorted() {
-    entries.sort(new EntryComperator());
-
-    final List<Entry> tmpResult = new LinkedList<>();
-    for (final Entry tmpEntry : entries) {
-      final IControl tmpControl = tmpEntry.getControl();
-
-      boolean tmpNotPresent = true;
-      for (final Entry tmpResultEntry : tmpResult) {
-        final IControl tmpResultControl = tmpResultEntry.getControl();
-        if (tmpResultControl.hasSameBackendControl(tmpControl)) {
-          tmpNotPresent = false;
-          break;
+    return getEntriesSorted(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the best entries sorted by weight. Only the first (best) entry for every control is part of the result.
+   * <br>
+   * For a small number of requested entries the list is not sorted completely; the best entries are collected using a
+   * bounded heap.
+   *
+   * @param aMaxEntries the maximum number of entries to return
+   * @return a new list of the best Entries sorted by weight
+   */
+  public List<Entry> getEntriesSorted(final int aMaxEntries) {
+    if (aMaxEntries < 1) {
+      return new ArrayList<>();
+    }
+
+    // take a snapshot; the list may still be filled by other threads
+    final List<Entry> tmpEntries = new ArrayList<>(entries);
+    final Comparator<Entry> tmpComparator = new EntryComperator();
+    if (aMaxEntries < tmpEntries.size()) {
+      // the worst of the best entries is on top of the heap
+      final PriorityQueue<Entry> tmpHeap = new PriorityQueue<>(aMaxEntries + 1, tmpComparator.reversed());
+      for (final Entry tmpEntry : tmpEntries) {
+        if (tmpHeap.size() < aMaxEntries) {
+          tmpHeap.add(tmpEntry);
+        } else if (tmpComparator.compare(tmpEntry, tmpHeap.peek()) < 0) {
+          tmpHeap.poll();
+          tmpHeap.add(tmpEntry);
         }
       }
-      if (tmpNotPresent) {
-        tmpResult.add(tmpEntry);
+
+      final List<Entry> tmpResult = sortByControl(new ArrayList<>(tmpHeap), tmpComparator, aMaxEntries);
+      if (tmpResult.size() == aMaxEntries) {
+        return tmpResult;
       }
+      // some controls are part of the best entries more than once; we have to look at all entries
     }
+    return sortByControl(tmpEntries, tmpComparator, aMaxEntries);
+  }
+
+  private static List<Entry> sortByControl(final List<Entry> anEntries, final Comparator<Entry> aComparator,
+      final int aMaxEntries) {
+    anEntries.sort(aComparator);
 
+    final List<Entry> tmpResult = new ArrayList<>();
+    for (final Entry tmpEntry : anEntries) {
+      addIfNewControl(tmpResult, tmpEntry);
+      if (tmpResult.size() == aMaxEntries) {
+        break;
+      }
+    }
     return tmpResult;
   }
 
+  private static void addIfNewControl(final List<Entry> anEntries, final Entry anEntry) {
+    final IControl tmpControl = anEntry.getControl();
+    for (final Entry tmpEntry : anEntries) {
+      if (tmpEntry.getControl().hasSameBackendControl(tmpControl)) {
+        return;
+      }
+    }
+    anEntries.add(anEntry);
+  }
+
   /**
    * Adds all entries from the given {@link WeightedControlList} to this list.
    *
@@ -226,7 +287,7 @@ public final class WeightedControlList {
     private int deviation;
     private int distance;
     private int start;
-    private String hierarchy;
+    private NodeHierarchy hierarchy;
     private int index;
 
     /**
@@ -236,6 +297,20 @@ public final class WeightedControlList {
       return control;
     }
 
+    /**
+     * @return the found type
+     */
+    public FoundType getFoundType() {
+      return foundType;
+    }
+
+    /**
+     * @return the deviation
+     */
+    public int getDeviation() {
+      return deviation;
+    }
+
     @Override
     public String toString() {
       // @formatter:off
@@ -278,10 +353,10 @@ public final class WeightedControlList {
             final int tmpStartComp = anEntry1.start - anEntry2.start;
 
             if (0 == tmpStartComp) {
-              if (anEntry1.hierarchy.startsWith(anEntry2.hierarchy)) {
+              if (isSelfOrDescendantOf(anEntry1.hierarchy, anEntry2.hierarchy)) {
                 return -1;
               }
-              if (anEntry2.hierarchy.startsWith(anEntry1.hierarchy)) {
+              if (isSelfOrDescendantOf(anEntry2.hierarchy, anEntry1.hierarchy)) {
                 return 1;
               }
 
@@ -299,5 +374,16 @@ public final class WeightedControlList {
 
       return tmpWeightComp;
     }
+
+    private static boolean isSelfOrDescendantOf(final NodeHierarchy aHierarchy, final NodeHierarchy anOther) {
+      // no hierarchy is the parent of all
+      if (null == anOther) {
+        return true;
+      }
+      if (null == aHierarchy) {
+        return false;
+      }
+      return aHierarchy.isSelfOrDescendantOf(anOther);
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wetator.exception.ImplementationException;
+
+/**
+ * Content addressed store for the resources (css, js, images...) of the {@link ResponseStore}s.<br>
+ * Every content is written only once to the blob directory; the name of the blob is the SHA-256 hash of the content.
+ * The resource files inside the response stores are hard links to the blob. If the file system does not support hard
+ * links, the blob is copied.<br>
+ * This store is thread safe; it can be shared by all response stores of all browsers. Use
+ * {@link #acquire(File, boolean)} to get the store for an output dir; the blob dir is cleaned only if the store is
+ * created and the store is shared until the last user has released it.
+ *
+ * @author rbri
+ */
+public final class ContentAddressedStore {
+  private static final Logger LOG = LogManager.getLogger(ContentAddressedStore.class);
+
+  private static final String BLOB_DIR = "resources_blobs";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  // guarded by STORES
+  private static final Map<File, ContentAddressedStore> STORES = new HashMap<>();
+
+  private final File blobDir;
+  // guarded by STORES
+  private int users;
+  private volatile boolean hardLinksSupported;
+
+  private final AtomicLong blobsWritten = new AtomicLong();
+  private final AtomicLong blobsReused = new AtomicLong();
+
+  /**
+   * The constructor.
+   *
+   * @param anOutputDir the output dir; the blobs are stored in a subdir
+   * @param aCleanDirFlag if true clear the blob directory
+   */
+  public ContentAddressedStore(final File anOutputDir, final boolean aCleanDirFlag) {
+    super();
+    blobDir = new File(anOutputDir, BLOB_DIR);
+    hardLinksSupported = true;
+
+    try {
+      if (aCleanDirFlag) {
+        FileUtils.deleteDirectory(blobDir);
+      }
+      FileUtils.forceMkdir(blobDir);
+    } catch (final IOException e) {
+      LOG.error("IO exception for dir: " + FilenameUtils.normalize(blobDir.getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * Returns the store for the given output dir. The store is created (and the blob dir cleaned) only if there is
+   * no store for this dir in use; otherwise the existing store is shared.
+   *
+   * @param anOutputDir the output dir; the blobs are stored in a subdir
+   * @param aCleanDirFlag if true clear the blob directory when the store is created
+   * @return the store
+   */
+  public static ContentAddressedStore acquire(final File anOutputDir, final boolean aCleanDirFlag) {
+    File tmpKey;
+    try {
+      tmpKey = anOutputDir.getCanonicalFile();
+    } catch (final IOException e) {
+      tmpKey = anOutputDir.getAbsoluteFile();
+    }
+
+    synchronized (STORES) {
+      ContentAddressedStore tmpStore = STORES.get(tmpKey);
+      if (null == tmpStore) {
+        tmpStore = new ContentAddressedStore(tmpKey, aCleanDirFlag);
+        STORES.put(tmpKey, tmpStore);
+      }
+      tmpStore.users++;
+      return tmpStore;
+    }
+  }
+
+  /**
+   * Releases a store returned by {@link #acquire(File, boolean)}; the store is dropped if there are no more users.
+   *
+   * @param aStore the store to release
+   */
+  public static void release(final ContentAddressedStore aStore) {
+    synchronized (STORES) {
+      aStore.users--;
+      if (aStore.users <= 0) {
+        STORES.values().remove(aStore);
+      }
+    }
+  }
+
+  /**
+   * Stores the given content in the target file. If the same content was already stored
+   * before, the target is only linked to the existing blob.
+   *
+   * @param aTargetFile the file to create
+   * @param aContent the content
+   * @throws IOException in case of error
+   */
+  public void store(final File aTargetFile, final byte[] aContent) throws IOException {
+    final Path tmpBlob = new File(blobDir, hash(aContent)).toPath();
+
+    if (Files.exists(tmpBlob)) {
+      blobsReused.incrementAndGet();
+    } else {
+      // write to a temp file first; another thread may write the same blob
+      final Path tmpTempFile = Files.createTempFile(blobDir.toPath(), "blob", ".tmp");
+      try {
+        Files.write(tmpTempFile, aContent);
+        Files.move(tmpTempFile, tmpBlob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmpTempFile);
+      }
+      blobsWritten.incrementAndGet();
+    }
+
+    final Path tmpTarget = aTargetFile.toPath();
+    FileUtils.forceMkdir(aTargetFile.getParentFile());
+    Files.deleteIfExists(tmpTarget);
+
+    if (hardLinksSupported && createLink(tmpTarget, tmpBlob)) {
+      return;
+    }
+    Files.copy(tmpBlob, tmpTarget, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Creates the hard link; hard links are disabled for all following calls only if the file system does not
+   * support them.
+   *
+   * @return <code>true</code> if the link was created, <code>false</code> if the blob has to be copied
+   */
+  private boolean createLink(final Path aTarget, final Path aBlob) {
+    try {
+      try {
+        Files.createLink(aTarget, aBlob);
+      } catch (final FileAlreadyExistsException e) {
+        // another thread stored the same resource in the meantime; replace it with our link
+        Files.deleteIfExists(aTarget);
+        Files.createLink(aTarget, aBlob);
+      }
+      return true;
+    } catch (final FileAlreadyExistsException e) {
+      // stored again by another thread; this one is as good as ours
+      return true;
+    } catch (final UnsupportedOperationException e) {
+      disableHardLinks();
+    } catch (final FileSystemException e) {
+      if (isLinkNotSupported(e)) {
+        disableHardLinks();
+      } else {
+        // e.g. too many links for this blob
+        LOG.debug("Could not link '" + aTarget + "' to '" + aBlob + "'; the resource is copied.", e);
+      }
+    } catch (final IOException e) {
+      LOG.debug("Could not link '" + aTarget + "' to '" + aBlob + "'; the resource is copied.", e);
+    }
+    return false;
+  }
+
+  private void disableHardLinks() {
+    if (hardLinksSupported) {
+      hardLinksSupported = false;
+      LOG.info("Hard links are not supported for '" + FilenameUtils.normalize(blobDir.getAbsolutePath())
+          + "'; the resources are copied.");
+    }
+  }
+
+  /**
+   * @param anException the exception thrown when creating a link
+   * @return <code>true</code> if the exception reports that links are not supported by the file system (or not
+   *         between the blob dir and the target)
+   */
+  static boolean isLinkNotSupported(final FileSystemException anException) {
+    final String tmpReason = anException.getReason();
+    if (null == tmpReason) {
+      return false;
+    }
+    final String tmpLowerReason = tmpReason.toLowerCase(Locale.ROOT);
+    // the messages of EPERM, EXDEV, EOPNOTSUPP, ERROR_INVALID_FUNCTION, ERROR_NOT_SUPPORTED, ERROR_NOT_SAME_DEVICE
+    return tmpLowerReason.contains("not supported") || tmpLowerReason.contains("operation not permitted")
+        || tmpLowerReason.contains("cross-device") || tmpLowerReason.contains("incorrect function")
+        || tmpLowerReason.contains("different disk drive");
+  }
+
+  /**
+   * @return <code>true</code> if hard links are used
+   */
+  boolean isHardLinksSupported() {
+    return hardLinksSupported;
+  }
+
+  /**
+   * @return the number of blobs written
+   */
+  public long getBlobsWritten() {
+    return blobsWritten.get();
+  }
+
+  /**
+   * @return the number of resources stored without writing a new blob
+   */
+  public long getBlobsReused() {
+    return blobsReused.get();
+  }
+
+  /**
+   * @return the statistics as string
+   */
+  public String getStatistics() {
+    // @formatter:off
+    final StringBuilder tmpResult = new StringBuilder(80) // NOPMD
+      .append("ContentAddressedStore statistics:\n")
+      .append("      Written: ").append(blobsWritten.get()).append('\n')
+      .append("      Reused:  ").append(blobsReused.get());
+    // @formatter:on
+
+    return tmpResult.toString();
+  }
+
+  private static String hash(final byte[] aContent) {
+    final MessageDigest tmpDigest;
+    try {
+      tmpDigest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new ImplementationException("SHA-256 is not supported.", e);
+    }
+
+    final byte[] tmpHash = tmpDigest.digest(aContent);
+    final char[] tmpResult = new char[tmpHash.length * 2];
+    for (int i = 0; i < tmpHash.length; i++) {
+      tmpResult[i * 2] = HEX_DIGITS[(tmpHash[i] >> 4) & 0x0f];
+      tmpResult[i * 2 + 1] = HEX_DIGITS[tmpHash[i] & 0x0f];
+    }
+    return new String(tmpResult);
+  }
+}
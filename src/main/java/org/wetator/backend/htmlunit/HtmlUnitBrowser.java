@@ -88,6 +88,7 @@ import org.wetator.backend.htmlunit.control.HtmlUnitOptionGroup;
 import org.wetator.backend.htmlunit.control.HtmlUnitSelect;
 import org.wetator.backend.htmlunit.control.HtmlUnitTextArea;
 import org.wetator.backend.htmlunit.util.ContentTypeUtil;
+import org.wetator.backend.htmlunit.util.DomChangeTracker;
 import org.wetator.backend.htmlunit.util.ExceptionUtil;
 import org.wetator.backend.htmlunit.util.HtmlPageIndex;
 import org.wetator.core.WetatorConfiguration;
@@ -114,6 +115,8 @@ public final class HtmlUnitBrowser implements IBrowser {
   private static final Logger LOG = LogManager.getLogger(HtmlUnitBrowser.class);
 
   private static final int MAX_LENGTH = 4000;
+  // the duration of one frame at 60 frames per second
+  private static final long ANIMATION_FRAME_MILLIS = 16;
 
   /** Htmlunit WebClient. */
   private WebClient webClient;
@@ -121,6 +124,10 @@ public final class HtmlUnitBrowser implements IBrowser {
   private JavaScriptJobFilter jobFilter;
   /** ResponseStore. */
   private final Map<BrowserVersion, ResponseStore> responseStores;
+  /** The writer used by all response stores. */
+  private final ResponseStoreWriter responseStoreWriter;
+  /** The resources of all response stores are stored only once. */
+  private ContentAddressedStore contentAddressedStore;
   /** WetatorEngine. */
   private final WetatorEngine wetatorEngine;
   /** The list of failures ({@link AssertionException}s). */
@@ -158,6 +165,8 @@ public final class HtmlUnitBrowser implements IBrowser {
     final WetatorConfiguration tmpConfiguration = wetatorEngine.getConfiguration();
     jsTimeoutInMillis = tmpConfiguration.getJsTimeoutInSeconds() * 1000L;
     responseStores = new HashMap<>();
+    responseStoreWriter = new ResponseStoreWriter(tmpConfiguration.getResponseStoreQueueSize(),
+        tmpConfiguration.getResponseStoreQueueBytes());
     for (final BrowserType tmpBrowserType : tmpConfiguration.getBrowserTypes()) {
       final BrowserVersion tmpBrowserVersion = determineBrowserVersionFor(tmpBrowserType);
       // manipulate the browser version before using it as key for a map
@@ -167,7 +176,7 @@ public final class HtmlUnitBrowser implements IBrowser {
       }
 
       final ResponseStore tmpStore = new ResponseStore(tmpConfiguration.getOutputDir(), tmpBrowserType.getLabel(),
-          !tmpConfiguration.isAppendResultsEnabled());
+          !tmpConfiguration.isAppendResultsEnabled(), responseStoreWriter);
       responseStores.put(tmpBrowserVersion, tmpStore);
     }
 
@@ -203,11 +212,29 @@ public final class HtmlUnitBrowser implements IBrowser {
 
   @Override
   public void close() {
+    try {
+      responseStoreWriter.close();
+    } catch (final ResourceException e) {
+      LOG.error("Saving the responses failed.", e);
+    }
+
     try {
       HtmlUnitFinderDelegator.shutdownThreadPool();
     } catch (final InterruptedException e) {
       LOG.warn("Could not shutdown the Thread Pool.", e);
     }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(HtmlPageIndex.getStatistics());
+    }
+
+    if (null != contentAddressedStore) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(contentAddressedStore.getStatistics());
+      }
+      ContentAddressedStore.release(contentAddressedStore);
+      contentAddressedStore = null;
+    }
   }
 
   @Override
@@ -217,6 +244,15 @@ public final class HtmlUnitBrowser implements IBrowser {
 
     final WetatorConfiguration tmpConfiguration = wetatorEngine.getConfiguration();
 
+    if (null == contentAddressedStore) {
+      // the store is created (and cleaned) once per output dir and shared by all browsers of the run
+      contentAddressedStore = ContentAddressedStore.acquire(tmpConfiguration.getOutputDir(),
+          !tmpConfiguration.isAppendResultsEnabled());
+      for (final ResponseStore tmpStore : responseStores.values()) {
+        tmpStore.setContentAddressedStore(contentAddressedStore);
+      }
+    }
+
     // reset the bookmarks
     bookmarks = new HashMap<>();
 
@@ -296,10 +332,10 @@ public final class HtmlUnitBrowser implements IBrowser {
     // setup our listener
     webClient.addWebWindowListener(new WebWindowListener(this));
     webClient.setAttachmentHandler(new AttachmentHandler());
-    webClient.setAlertHandler(new AlertHandler(wetatorEngine));
-    webClient.getWebConsole().setLogger(new WebConsoleLogger(wetatorEngine));
-    webClient.setIncorrectnessListener(new IncorrectnessListener(wetatorEngine));
-    webClient.setConfirmHandler(new ConfirmHandler(wetatorEngine));
+    webClient.setAlertHandler(new AlertHandler(wetatorEngine, this));
+    webClient.getWebConsole().setLogger(new WebConsoleLogger(wetatorEngine, this));
+    webClient.setIncorrectnessListener(new IncorrectnessListener(wetatorEngine, this));
+    webClient.setConfirmHandler(new ConfirmHandler(wetatorEngine, this));
 
     // refresh handler - behave like the browser does
     webClient.setRefreshHandler(new WaitingRefreshHandler());
@@ -371,6 +407,14 @@ public final class HtmlUnitBrowser implements IBrowser {
 
   @Override
   public void endSession() {
+    // all responses of the session have to be written before the results are processed
+    try {
+      responseStoreWriter.flush();
+    } catch (final ResourceException e) {
+      // the background writer reports the failure of a file written during this session
+      wetatorEngine.informListenersWarn("saveResponseFailed", new String[] { e.getMessage() }, e);
+    }
+
     if (null != webClient) {
       try {
         // unset the onbeforeunload handler to avoid it interfering
@@ -423,17 +467,26 @@ public final class HtmlUnitBrowser implements IBrowser {
     /** the {@link WetatorEngine} */
     private final WetatorEngine wetatorEngine;
 
+    /** the {@link HtmlUnitBrowser} this handler belongs to */
+    private final HtmlUnitBrowser htmlUnitBrowser;
+
     /**
      * Constructor.
      *
      * @param aWetatorEngine the engine to inform about the alert texts.
+     * @param aHtmlUnitBrowser the browser this handler belongs to
      */
-    public AlertHandler(final WetatorEngine aWetatorEngine) {
+    public AlertHandler(final WetatorEngine aWetatorEngine, final HtmlUnitBrowser aHtmlUnitBrowser) {
       wetatorEngine = aWetatorEngine;
+      htmlUnitBrowser = aHtmlUnitBrowser;
     }
 
     @Override
     public void handleAlert(final Page aPage, final String aMessage) {
+      wetatorEngine.runInContextOf(htmlUnitBrowser, () -> alert(aPage, aMessage));
+    }
+
+    private void alert(final Page aPage, final String aMessage) {
       if (LOG.isDebugEnabled()) {
         LOG.debug("handleAlert " + aMessage);
       }
@@ -474,6 +527,9 @@ public final class HtmlUnitBrowser implements IBrowser {
     /** the {@link WetatorEngine} */
     private final WetatorEngine wetatorEngine;
 
+    /** the {@link HtmlUnitBrowser} this handler belongs to */
+    private final HtmlUnitBrowser htmlUnitBrowser;
+
     /** the message */
     private ContentPattern message;
 
@@ -484,14 +540,22 @@ public final class HtmlUnitBrowser implements IBrowser {
      * Constructor.
      *
      * @param aWetatorEngine the engine to inform about the alert texts.
+     * @param aHtmlUnitBrowser the browser to add the failures to
      */
-    public ConfirmHandler(final WetatorEngine aWetatorEngine) {
+    public ConfirmHandler(final WetatorEngine aWetatorEngine, final HtmlUnitBrowser aHtmlUnitBrowser) {
       wetatorEngine = aWetatorEngine;
+      htmlUnitBrowser = aHtmlUnitBrowser;
       chooseOkOnNextConfirmFor(null);
     }
 
     @Override
     public boolean handleConfirm(final Page aPage, final String aConfirmationMessage) {
+      final boolean[] tmpResult = new boolean[1];
+      wetatorEngine.runInContextOf(htmlUnitBrowser, () -> tmpResult[0] = confirm(aPage, aConfirmationMessage));
+      return tmpResult[0];
+    }
+
+    private boolean confirm(final Page aPage, final String aConfirmationMessage) {
       if (LOG.isDebugEnabled()) {
         LOG.debug("handleConfirm " + aConfirmationMessage);
       }
@@ -520,7 +584,7 @@ public final class HtmlUnitBrowser implements IBrowser {
         return result;
       } catch (final AssertionException e) {
         final String tmpMessage = Messages.getMessage("confirmationMessageDoesNotMatch", e.getMessage());
-        wetatorEngine.getBrowser().addFailure(new AssertionException(tmpMessage, e));
+        htmlUnitBrowser.addFailure(new AssertionException(tmpMessage, e));
 
         wetatorEngine.informListenersInfo("javascriptConfirmOk", tmpConfirmationMessage);
         return false;
@@ -556,14 +620,17 @@ public final class HtmlUnitBrowser implements IBrowser {
    */
   public static class WebConsoleLogger implements org.htmlunit.WebConsole.Logger {
     private final WetatorEngine wetatorEngine;
+    private final HtmlUnitBrowser htmlUnitBrowser;
 
     /**
      * Constructor.
      *
      * @param aWetatorEngine the engine to inform about the alert texts.
+     * @param aHtmlUnitBrowser the browser this logger belongs to
      */
-    public WebConsoleLogger(final WetatorEngine aWetatorEngine) {
+    public WebConsoleLogger(final WetatorEngine aWetatorEngine, final HtmlUnitBrowser aHtmlUnitBrowser) {
       wetatorEngine = aWetatorEngine;
+      htmlUnitBrowser = aHtmlUnitBrowser;
     }
 
     @Override
@@ -572,7 +639,8 @@ public final class HtmlUnitBrowser implements IBrowser {
         LOG.debug("Console [trace]: " + aMessage);
       }
 
-      wetatorEngine.informListenersInfo("ConsoleTrace", aMessage);
+      wetatorEngine.runInContextOf(htmlUnitBrowser,
+          () -> wetatorEngine.informListenersInfo("ConsoleTrace", aMessage));
     }
 
     @Override
@@ -581,7 +649,8 @@ public final class HtmlUnitBrowser implements IBrowser {
         LOG.debug("Console [debug]: " + aMessage);
       }
 
-      wetatorEngine.informListenersInfo("ConsoleDebug", aMessage);
+      wetatorEngine.runInContextOf(htmlUnitBrowser,
+          () -> wetatorEngine.informListenersInfo("ConsoleDebug", aMessage));
     }
 
     @Override
@@ -590,7 +659,8 @@ public final class HtmlUnitBrowser implements IBrowser {
         LOG.debug("Console [info]: " + aMessage);
       }
 
-      wetatorEngine.informListenersInfo("ConsoleInfo", aMessage);
+      wetatorEngine.runInContextOf(htmlUnitBrowser,
+          () -> wetatorEngine.informListenersInfo("ConsoleInfo", aMessage));
     }
 
     @Override
@@ -599,7 +669,8 @@ public final class HtmlUnitBrowser implements IBrowser {
         LOG.debug("Console [warn]: " + aMessage);
       }
 
-      wetatorEngine.informListenersInfo("ConsoleWarn", aMessage);
+      wetatorEngine.runInContextOf(htmlUnitBrowser,
+          () -> wetatorEngine.informListenersInfo("ConsoleWarn", aMessage));
     }
 
     @Override
@@ -608,7 +679,8 @@ public final class HtmlUnitBrowser implements IBrowser {
         LOG.debug("Console [error]: " + aMessage);
       }
 
-      wetatorEngine.informListenersInfo("ConsoleError", aMessage);
+      wetatorEngine.runInContextOf(htmlUnitBrowser,
+          () -> wetatorEngine.informListenersInfo("ConsoleError", aMessage));
     }
 
     @Override
@@ -642,21 +714,25 @@ public final class HtmlUnitBrowser implements IBrowser {
    */
   public static class IncorrectnessListener implements org.htmlunit.IncorrectnessListener {
     private final WetatorEngine wetatorEngine;
+    private final HtmlUnitBrowser htmlUnitBrowser;
 
     /**
      * Constructor.
      *
      * @param aWetatorEngine the engine to inform about the alert texts.
+     * @param aHtmlUnitBrowser the browser this listener belongs to
      */
-    public IncorrectnessListener(final WetatorEngine aWetatorEngine) {
+    public IncorrectnessListener(final WetatorEngine aWetatorEngine, final HtmlUnitBrowser aHtmlUnitBrowser) {
       wetatorEngine = aWetatorEngine;
+      htmlUnitBrowser = aHtmlUnitBrowser;
     }
 
     @Override
     public void notify(final String aMessage, final Object anOrigin) {
       LOG.warn("Incorrectness: " + aMessage + " (detected by: " + anOrigin + ")");
 
-      wetatorEngine.informListenersWarn("Incorrectness", new Object[] { aMessage, anOrigin }, (String) null);
+      wetatorEngine.runInContextOf(htmlUnitBrowser, () -> wetatorEngine.informListenersWarn("Incorrectness",
+          new Object[] { aMessage, anOrigin }, (String) null));
     }
   }
 
@@ -1059,9 +1135,9 @@ public final class HtmlUnitBrowser implements IBrowser {
     // TODO replace the hard coded second
     final long tmpTimeout = Math.max(1000, tmpEndTime - System.currentTimeMillis());
     tmpEndTime = System.currentTimeMillis() + tmpTimeout;
-    int tmpPendingAnimationFrames = tmpWin.animateAnimationsFrames();
+    int tmpPendingAnimationFrames = animateAnimationFrame(tmpWin, tmpPage);
     while (tmpPendingAnimationFrames > 0 && System.currentTimeMillis() < tmpEndTime) {
-      tmpPendingAnimationFrames = tmpWin.animateAnimationsFrames();
+      tmpPendingAnimationFrames = animateAnimationFrame(tmpWin, tmpPage);
     }
 
     if (tmpPendingAnimationFrames > 0) {
@@ -1077,23 +1153,94 @@ public final class HtmlUnitBrowser implements IBrowser {
     return false;
   }
 
+  /**
+   * Runs the requested animation frames once. If the frame callbacks did not change the page (e.g. an idle animation
+   * loop) we park for the duration of a frame before the next run instead of spinning.
+   */
+  private static int animateAnimationFrame(final Window aWindow, final Page aPage) {
+    if (!aPage.isHtmlPage()) {
+      return aWindow.animateAnimationsFrames();
+    }
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor((HtmlPage) aPage);
+    final long tmpModificationCount = tmpTracker.getModificationCount();
+    final int tmpPendingAnimationFrames = aWindow.animateAnimationsFrames();
+    if (tmpPendingAnimationFrames > 0 && tmpModificationCount == tmpTracker.getModificationCount()) {
+      try {
+        Thread.sleep(ANIMATION_FRAME_MILLIS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return tmpPendingAnimationFrames;
+  }
+
   private boolean areJobsPendig(final HtmlPage aHtmlPage, final long anDuration) {
+    return areJobsPendingUntil(aHtmlPage, System.currentTimeMillis() + anDuration);
+  }
+
+  private boolean areJobsPendingUntil(final HtmlPage aHtmlPage, final long anEndTime) {
     final JavaScriptJobManager tmpJobManager = aHtmlPage.getEnclosingWindow().getJobManager();
 
-    final int tmpJobCount = tmpJobManager.waitForJobsStartingBefore(anDuration, jobFilter);
+    // all frames share the same end time; otherwise every frame would wait the whole duration again
+    final long tmpDuration = Math.max(1, anEndTime - System.currentTimeMillis());
+    final int tmpJobCount = tmpJobManager.waitForJobsStartingBefore(tmpDuration, jobFilter);
     if (tmpJobCount > 0) {
       return true;
     }
 
     for (final FrameWindow tmpFrameWindow : aHtmlPage.getFrames()) {
       final Page tmpPage = tmpFrameWindow.getEnclosedPage();
-      if (tmpPage.isHtmlPage() && areJobsPendig((HtmlPage) tmpPage, anDuration)) {
+      if (tmpPage.isHtmlPage() && areJobsPendingUntil((HtmlPage) tmpPage, anEndTime)) {
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * Blocks until the earliest pending job of the page (or one of its frames) was executed, but not longer than the
+   * given time. The job manager notifies the waiting thread when the job is done; so we do not have to poll for a
+   * change of the page in the meantime.
+   *
+   * @param aHtmlPage the page
+   * @param aMaxWaitTime the max time to wait in millis
+   */
+  private void waitForNextJob(final HtmlPage aHtmlPage, final long aMaxWaitTime) {
+    if (aMaxWaitTime <= 0) {
+      return;
+    }
+
+    final List<JavaScriptJobManager> tmpJobManagers = new ArrayList<>();
+    collectJobManagers(aHtmlPage, tmpJobManagers);
+
+    JavaScriptJobManager tmpEarliestJobManager = null;
+    long tmpEarliestTime = Long.MAX_VALUE;
+    for (final JavaScriptJobManager tmpJobManager : tmpJobManagers) {
+      final JavaScriptJob tmpJob = tmpJobManager.getEarliestJob(jobFilter);
+      if (null != tmpJob && tmpJob.getTargetExecutionTime() < tmpEarliestTime) {
+        tmpEarliestTime = tmpJob.getTargetExecutionTime();
+        tmpEarliestJobManager = tmpJobManager;
+      }
+    }
+
+    if (null != tmpEarliestJobManager) {
+      final long tmpDelay = Math.min(aMaxWaitTime, Math.max(1, tmpEarliestTime - System.currentTimeMillis() + 1));
+      tmpEarliestJobManager.waitForJobsStartingBefore(tmpDelay, jobFilter);
+    }
+  }
+
+  private static void collectJobManagers(final HtmlPage aHtmlPage, final List<JavaScriptJobManager> aJobManagers) {
+    aJobManagers.add(aHtmlPage.getEnclosingWindow().getJobManager());
+
+    for (final FrameWindow tmpFrameWindow : aHtmlPage.getFrames()) {
+      final Page tmpPage = tmpFrameWindow.getEnclosedPage();
+      if (tmpPage.isHtmlPage()) {
+        collectJobManagers((HtmlPage) tmpPage, aJobManagers);
+      }
+    }
+  }
+
   private int areJobsActive(final HtmlPage aHtmlPage) {
     final JavaScriptJobManager tmpJobManager = aHtmlPage.getEnclosingWindow().getJobManager();
 
@@ -1159,6 +1306,9 @@ public final class HtmlUnitBrowser implements IBrowser {
           // at least a timeout of jsTimeout
           if (tmpPage != getCurrentPage()) {
             tmpEndTime = Math.max(tmpEndTime, System.currentTimeMillis() + jsTimeoutInMillis);
+          } else {
+            // nothing can change before the next job is done
+            waitForNextJob(tmpHtmlPage, tmpEndTime - System.currentTimeMillis());
           }
           continue;
         }
@@ -1235,7 +1385,7 @@ public final class HtmlUnitBrowser implements IBrowser {
         final HtmlPage tmpHtmlPage = (HtmlPage) tmpPage;
 
         try {
-          final String tmpNormalizedContent = new HtmlPageIndex(tmpHtmlPage).getText();
+          final String tmpNormalizedContent = HtmlPageIndex.getFor(tmpHtmlPage).getText();
           try {
             aContentToWaitFor.matches(tmpNormalizedContent, MAX_LENGTH);
 
@@ -1269,6 +1419,9 @@ public final class HtmlUnitBrowser implements IBrowser {
           // at least a timeout of jsTimeout
           if (tmpPage != getCurrentPage()) {
             tmpEndTime = Math.max(tmpEndTime, System.currentTimeMillis() + jsTimeoutInMillis);
+          } else {
+            // nothing can change before the next job is done
+            waitForNextJob(tmpHtmlPage, tmpEndTime - System.currentTimeMillis());
           }
           continue;
         }
@@ -1295,7 +1448,7 @@ public final class HtmlUnitBrowser implements IBrowser {
               tmpPage.getEnclosingWindow().getJobManager().jobStatusDump(jobFilter));
         }
 
-        final String tmpNormalizedContent = new HtmlPageIndex(tmpHtmlPage).getText();
+        final String tmpNormalizedContent = HtmlPageIndex.getFor(tmpHtmlPage).getText();
         matchesWithLog(aContentToWaitFor, tmpNormalizedContent);
         return tmpPageChanged;
       }
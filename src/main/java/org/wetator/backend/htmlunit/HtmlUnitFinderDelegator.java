@@ -18,9 +18,9 @@ package org.wetator.backend.htmlunit;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
 
 import org.htmlunit.html.HtmlPage;
@@ -47,37 +47,31 @@ public class HtmlUnitFinderDelegator implements IControlFinder {
    */
   protected HtmlPageIndex htmlPageIndex;
 
-  private static ThreadPoolExecutor threadPool;
+  private static ForkJoinPool threadPool;
 
   private final Map<ControlFeature, AbstractHtmlUnitControlsFinder> finders = new HashMap<>();
 
   /**
-   * Our simple impl of a ThreadFactory (decorator) to be able to name
+   * Our simple impl of a ForkJoinWorkerThreadFactory (decorator) to be able to name
    * our threads.
    */
-  private static final class ThreadNamingFactory implements ThreadFactory {
+  private static final class ThreadNamingFactory implements ForkJoinWorkerThreadFactory {
     private static int id = 1;
-    private final ThreadFactory baseFactory;
-
-    private ThreadNamingFactory(final ThreadFactory aBaseFactory) {
-      baseFactory = aBaseFactory;
-    }
 
     @Override
-    public Thread newThread(final Runnable aRunnable) {
-      final Thread tmpThread = baseFactory.newThread(aRunnable);
-      tmpThread.setName("Wetator FinderThread " + id++);
+    public ForkJoinWorkerThread newThread(final ForkJoinPool aPool) {
+      final ForkJoinWorkerThread tmpThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(aPool);
+      synchronized (ThreadNamingFactory.class) {
+        tmpThread.setName("Wetator FinderThread " + id++);
+      }
       return tmpThread;
     }
   }
 
-  private static synchronized ThreadPoolExecutor getThreadPool() {
+  private static synchronized ForkJoinPool getThreadPool() {
     if (threadPool == null) {
-      final ThreadPoolExecutor tmpThreadPool = (ThreadPoolExecutor) Executors
-          .newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-      tmpThreadPool.setThreadFactory(new ThreadNamingFactory(tmpThreadPool.getThreadFactory()));
-      tmpThreadPool.prestartAllCoreThreads();
-      threadPool = tmpThreadPool;
+      threadPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), new ThreadNamingFactory(), null,
+          false);
     }
     return threadPool;
   }
@@ -114,9 +108,9 @@ public class HtmlUnitFinderDelegator implements IControlFinder {
     if (null == anHtmlPage) {
       throw new IllegalArgumentException("HtmlPage can't be null");
     }
-    htmlPageIndex = new HtmlPageIndex(anHtmlPage);
+    htmlPageIndex = HtmlPageIndex.getFor(anHtmlPage);
 
-    final ThreadPoolExecutor tmpThreadPool = getThreadPool();
+    final ForkJoinPool tmpThreadPool = getThreadPool();
 
     finders.put(ControlFeature.CLICK, new MouseActionListeningHtmlUnitControlsFinder(htmlPageIndex, tmpThreadPool,
         MouseAction.CLICK, aControlRepository));
@@ -143,4 +137,9 @@ public class HtmlUnitFinderDelegator implements IControlFinder {
   public WeightedControlList findControls(final ControlFeature aFeature, final WPath aWPath) {
     return finders.get(aFeature).find(aWPath);
   }
+
+  @Override
+  public WeightedControlList findBestControls(final ControlFeature aFeature, final WPath aWPath) {
+    return finders.get(aFeature).findBest(aWPath);
+  }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
@@ -69,12 +70,14 @@ public final class ResponseStore {
   private final Map<String, String> fileNames;
 
   private final File outputDir;
+  private final ResponseStoreWriter writer;
+  private ContentAddressedStore contentAddressedStore;
   private WebClient webClient;
 
   private File storeDir;
   private String relStoreDir;
 
-  private static long getUniqueId() {
+  private static synchronized long getUniqueId() {
     return ++counter;
   }
 
@@ -84,7 +87,7 @@ public final class ResponseStore {
    *
    * @param anOutputDir the directory to check
    */
-  public static void updateCounter(final File anOutputDir) {
+  public static synchronized void updateCounter(final File anOutputDir) {
     final File[] tmpFiles = anOutputDir.listFiles();
     if (tmpFiles != null) {
       for (final File tmpFile : tmpFiles) {
@@ -111,8 +114,22 @@ public final class ResponseStore {
    * @param aCleanDirFlag if true clear the output directory
    */
   public ResponseStore(final File anOutputDir, final String aBrowserSubdir, final boolean aCleanDirFlag) {
+    this(anOutputDir, aBrowserSubdir, aCleanDirFlag, new ResponseStoreWriter(0));
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param anOutputDir the outputDir to set
+   * @param aBrowserSubdir the subdir for the specific browser this store is for
+   * @param aCleanDirFlag if true clear the output directory
+   * @param aWriter the writer used to write the files (maybe in the background)
+   */
+  public ResponseStore(final File anOutputDir, final String aBrowserSubdir, final boolean aCleanDirFlag,
+      final ResponseStoreWriter aWriter) {
     super();
     outputDir = anOutputDir;
+    writer = aWriter;
 
     initOutputDir(aBrowserSubdir, aCleanDirFlag);
     fileNames = new HashMap<>();
@@ -165,17 +182,11 @@ public final class ResponseStore {
    * @return the file name used for this page
    */
   public String storeTextContent(final String aContent) {
-    File tmpFile = null;
-    try {
-      final StringBuilder tmpFileName = new StringBuilder("content_").append(getUniqueId()).append(".txt");
-      tmpFile = new File(storeDir, tmpFileName.toString());
+    final StringBuilder tmpFileName = new StringBuilder("content_").append(getUniqueId()).append(".txt");
+    final File tmpFile = new File(storeDir, tmpFileName.toString());
 
-      FileUtils.write(tmpFile, aContent, StandardCharsets.UTF_8);
-      return relStoreDir + "/" + tmpFileName;
-    } catch (final IOException e) {
-      throw new ResourceException("Could not write file '" + FilenameUtils.normalize(tmpFile.getAbsolutePath()) + "'.",
-          e);
-    }
+    writer.write(tmpFile, aContent, StandardCharsets.UTF_8);
+    return relStoreDir + "/" + tmpFileName;
   }
 
   /**
@@ -205,7 +216,20 @@ public final class ResponseStore {
           .append(tmpSuffix);
       tmpFile = new File(storeDir, tmpFileName.toString());
 
-      if (aPage instanceof HtmlPage) {
+      if (writer.isAsync()) {
+        // take a snapshot of the page; the dom is not thread safe and the resources have to be
+        // downloaded by the web client - only writing the files is done in the background
+        if (aPage instanceof HtmlPage) {
+          final HtmlPage tmpHtmlPage = (HtmlPage) aPage;
+          final StringWriter tmpSnapshot = new StringWriter();
+          new XHtmlOutputter(tmpHtmlPage, this).writeTo(tmpSnapshot);
+          writer.write(tmpFile, tmpSnapshot.toString(), tmpHtmlPage.getCharset());
+        } else {
+          try (InputStream tmpIn = aPage.getWebResponse().getContentAsStream()) {
+            writer.write(tmpFile, IOUtils.toByteArray(tmpIn));
+          }
+        }
+      } else if (aPage instanceof HtmlPage) {
         final XHtmlOutputter tmpHtmlOutputter = new XHtmlOutputter((HtmlPage) aPage, this);
         tmpHtmlOutputter.writeTo(tmpFile);
       } else {
@@ -344,32 +368,25 @@ public final class ResponseStore {
         fileNames.put(aFullContentUrl.toExternalForm(), tmpFileName);
 
         if (!tmpResourceFile.exists()) {
-          String tmpProcessed = null;
-
-          if (null != anImage) {
-            FileUtils.forceMkdir(tmpResourceFile.getParentFile());
-            anImage.saveAs(tmpResourceFile);
-          }
+          byte[] tmpContent = null;
 
           final String tmpContentType = tmpWebResponse.getContentType();
           if ("text/css".equalsIgnoreCase(tmpContentType)) {
             final String tmpResponse = getContentAsStringWithoutBOM(tmpWebResponse);
             if (null != tmpResponse) {
-              FileUtils.forceMkdir(tmpResourceFile.getParentFile());
-
               // process all url(....) inside
-              tmpProcessed = processCSS(aFullContentUrl, tmpResponse, StringUtils.countMatches(tmpFileName, "/"));
-              FileUtils.writeStringToFile(tmpResourceFile, tmpProcessed, StandardCharsets.UTF_8);
+              final String tmpProcessed = processCSS(aFullContentUrl, tmpResponse,
+                  StringUtils.countMatches(tmpFileName, "/"));
+              tmpContent = tmpProcessed.getBytes(StandardCharsets.UTF_8);
             }
           }
 
-          if (tmpProcessed == null) {
-            FileUtils.forceMkdir(tmpResourceFile.getParentFile());
-            try (InputStream tmpInStream = tmpWebResponse.getContentAsStream();
-                OutputStream tmpOutStream = Files.newOutputStream(tmpResourceFile.toPath())) {
-              IOUtils.copy(tmpInStream, tmpOutStream);
+          if (tmpContent == null) {
+            try (InputStream tmpInStream = tmpWebResponse.getContentAsStream()) {
+              tmpContent = IOUtils.toByteArray(tmpInStream);
             }
           }
+          storeResource(tmpResourceFile, tmpContent);
         }
       }
 
@@ -385,12 +402,28 @@ public final class ResponseStore {
       tmpResult.append(tmpFileName);
 
       return tmpResult.toString();
-    } catch (final IOException e) {
+    } catch (final IOException | ResourceException e) {
       LOG.error(e.getMessage(), e);
     }
     return null;
   }
 
+  private void storeResource(final File aResourceFile, final byte[] aContent) {
+    final ContentAddressedStore tmpContentAddressedStore = contentAddressedStore;
+    if (null == tmpContentAddressedStore) {
+      writer.write(aResourceFile, aContent);
+      return;
+    }
+    writer.write(aResourceFile, aContent.length, () -> tmpContentAddressedStore.store(aResourceFile, aContent));
+  }
+
+  /**
+   * @param aContentAddressedStore if not null, the resources are stored (only once) in this store
+   */
+  public void setContentAddressedStore(final ContentAddressedStore aContentAddressedStore) {
+    contentAddressedStore = aContentAddressedStore;
+  }
+
   /**
    * This method parses the given css content for url(...);
    * resolves the pictures and returns the content with
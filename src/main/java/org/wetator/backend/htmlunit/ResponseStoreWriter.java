@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wetator.exception.ResourceException;
+
+/**
+ * Writes the files of the {@link ResponseStore} to the file system.<br>
+ * In synchronous mode (queue size 0) every file is written immediately by the calling thread. Otherwise the content is
+ * handed over to a background thread using a queue bounded by the number of files and by the size of the pending
+ * content; if one of the limits is reached, the caller is blocked until the writer has caught up (back-pressure).
+ * This way the memory used by the pending files is limited.<br>
+ * Only the disk I/O is done by the background thread. The content passed to this writer has to be a snapshot
+ * (string or byte array) created by the calling thread - the DOM of the page must not be accessed from the background
+ * thread and the resources of the page are still downloaded by the calling thread.<br>
+ * The first failure of a background write is kept and thrown by the next {@link #flush()}.
+ *
+ * @author rbri
+ */
+public final class ResponseStoreWriter {
+  private static final Logger LOG = LogManager.getLogger(ResponseStoreWriter.class);
+
+  /** The default for the maximum size of the pending content (64 MB). */
+  public static final long DEFAULT_MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+  private final ThreadPoolExecutor executor;
+  private final long maxPendingBytes;
+  // guarded by this
+  private long pendingBytes;
+  private final AtomicReference<ResourceException> firstFailure = new AtomicReference<>();
+
+  /**
+   * The constructor.
+   *
+   * @param aQueueSize the maximum number of pending files; 0 means synchronous writing
+   */
+  public ResponseStoreWriter(final int aQueueSize) {
+    this(aQueueSize, DEFAULT_MAX_PENDING_BYTES);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param aQueueSize the maximum number of pending files; 0 means synchronous writing
+   * @param aMaxPendingBytes the maximum size of the pending content; a single larger file is accepted if nothing else
+   *        is pending
+   */
+  public ResponseStoreWriter(final int aQueueSize, final long aMaxPendingBytes) {
+    super();
+    maxPendingBytes = aMaxPendingBytes;
+
+    if (aQueueSize < 1) {
+      executor = null;
+      return;
+    }
+
+    final BlockingQueue<Runnable> tmpQueue = new ArrayBlockingQueue<>(aQueueSize);
+    executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, tmpQueue, aRunnable -> {
+      final Thread tmpThread = new Thread(aRunnable, "Wetator-ResponseStoreWriter");
+      tmpThread.setDaemon(true);
+      return tmpThread;
+    }, (aRunnable, anExecutor) -> {
+      // back-pressure: wait until there is some space in the queue
+      if (anExecutor.isShutdown()) {
+        throw new RejectedExecutionException("The response store writer is already closed.");
+      }
+      try {
+        anExecutor.getQueue().put(aRunnable);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException(e);
+      }
+    });
+  }
+
+  /**
+   * @return true if the files are written by a background thread
+   */
+  public boolean isAsync() {
+    return null != executor;
+  }
+
+  /**
+   * Writes the given text to the file.
+   *
+   * @param aFile the file to write to
+   * @param aContent the text
+   * @param aCharset the charset to use
+   */
+  public void write(final File aFile, final String aContent, final Charset aCharset) {
+    // two bytes per char in memory
+    write(aFile, 2L * aContent.length(), () -> FileUtils.writeStringToFile(aFile, aContent, aCharset));
+  }
+
+  /**
+   * Writes the given bytes to the file.
+   *
+   * @param aFile the file to write to
+   * @param aContent the bytes
+   */
+  public void write(final File aFile, final byte[] aContent) {
+    write(aFile, aContent.length, () -> FileUtils.writeByteArrayToFile(aFile, aContent));
+  }
+
+  /**
+   * Executes the given write operation.
+   *
+   * @param aFile the file written by the operation (used for error reporting)
+   * @param aSize the size of the content kept in memory by the operation until it is executed
+   * @param aWrite the write operation
+   */
+  public void write(final File aFile, final long aSize, final IFileWrite aWrite) {
+    if (null == executor) {
+      try {
+        aWrite.write();
+      } catch (final IOException e) {
+        throw new ResourceException(
+            "Could not write file '" + FilenameUtils.normalize(aFile.getAbsolutePath()) + "'.", e);
+      }
+      return;
+    }
+
+    reserve(aSize);
+    try {
+      executor.execute(() -> {
+        try {
+          aWrite.write();
+        } catch (final IOException | RuntimeException e) {
+          final String tmpMessage = "Could not write file '" + FilenameUtils.normalize(aFile.getAbsolutePath())
+              + "'.";
+          LOG.error(tmpMessage, e);
+          // reported by the next flush
+          firstFailure.compareAndSet(null, new ResourceException(tmpMessage, e));
+        } finally {
+          release(aSize);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      release(aSize);
+      throw e;
+    }
+  }
+
+  private synchronized void reserve(final long aSize) {
+    // back-pressure: wait until the writer has caught up
+    while (pendingBytes > 0 && pendingBytes + aSize > maxPendingBytes) {
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException(e);
+      }
+    }
+    pendingBytes += aSize;
+  }
+
+  private synchronized void release(final long aSize) {
+    pendingBytes -= aSize;
+    notifyAll();
+  }
+
+  /**
+   * @return the size of the content not written so far
+   */
+  synchronized long getPendingBytes() {
+    return pendingBytes;
+  }
+
+  /**
+   * Waits until all pending files are written.
+   *
+   * @throws ResourceException if writing one of the files in the background failed since the last flush; only the
+   *         first failure is reported
+   */
+  public void flush() {
+    if (null == executor) {
+      return;
+    }
+    if (!executor.isShutdown()) {
+      waitForPendingFiles();
+    }
+
+    final ResourceException tmpFailure = firstFailure.getAndSet(null);
+    if (null != tmpFailure) {
+      throw tmpFailure;
+    }
+  }
+
+  private void waitForPendingFiles() {
+    // the writer is single threaded; if our marker is done, all files
+    // queued before are done also
+    final Future<?> tmpMarker = executor.submit(() -> {
+      // nothing to do
+    });
+    try {
+      tmpMarker.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Interrupted while flushing the response store.", e);
+    } catch (final ExecutionException e) {
+      LOG.error("Flushing the response store failed.", e);
+    }
+  }
+
+  /**
+   * Writes all pending files and stops the background thread.
+   *
+   * @throws ResourceException if writing one of the files in the background failed since the last flush; only the
+   *         first failure is reported
+   */
+  public void close() {
+    if (null == executor) {
+      return;
+    }
+
+    try {
+      flush();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * A single write operation.
+   */
+  @FunctionalInterface
+  public interface IFileWrite {
+
+    /**
+     * Writes the file.
+     *
+     * @throws IOException in case of error
+     */
+    void write() throws IOException;
+  }
+}
@@ -21,13 +21,14 @@ import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.output.FileWriterWithEncoding;
 import org.apache.commons.lang3.StringUtils;
@@ -121,7 +122,6 @@ import org.htmlunit.svg.SvgPolyline;
 import org.htmlunit.svg.SvgRect;
 import org.wetator.backend.htmlunit.util.HtmlElementUtil;
 import org.wetator.util.Output;
-import org.wetator.util.XMLUtil;
 
 /**
  * Helper methods to write the HtmlUnit page as XHtml to a file.
@@ -140,12 +140,13 @@ public final class XHtmlOutputter {
   private static final Set<String> EMPTY_TAGS;
   private static final Set<String> SINGLE_LINE_TAGS;
   private static final Set<String> IGNORED_ATTRIBUTES;
-  private static final Map<Class<? extends Object>, String> TAG_NAMES = new HashMap<>(100);
+  // the outputter is used by the parallel workers
+  private static final Map<Class<? extends Object>, String> TAG_NAMES = new ConcurrentHashMap<>(100);
 
   private HtmlPage htmlPage;
   private ResponseStore responseStore;
   private Output output;
-  private XMLUtil xmlUtil;
+  private URL baseUrl;
 
   static {
     EMPTY_TAGS = new HashSet<>();
@@ -273,8 +274,9 @@ public final class XHtmlOutputter {
    */
   public void writeTo(final Writer aWriter) throws IOException {
     try { // NOPMD
-      xmlUtil = new XMLUtil();
       output = new Output(aWriter, "  ");
+      // parsing the url is expensive; do this only once
+      baseUrl = htmlPage.getWebResponse().getWebRequest().getUrl();
 
       output.println("<?xml version=\"1.0\" encoding=\"" + htmlPage.getCharset().name() + "\"?>");
       output.println(
@@ -379,15 +381,14 @@ public final class XHtmlOutputter {
           output.indent();
 
           // process all url(....) inside
-          final URL tmpBaseUrl = htmlPage.getWebResponse().getWebRequest().getUrl();
-          tmpText = responseStore.processCSS(tmpBaseUrl, tmpText, 0);
+          tmpText = responseStore.processCSS(baseUrl, tmpText, 0);
 
           output.println(tmpText);
           output.unindent();
         } else if (SINGLE_LINE_TAGS.contains(tmpParentNode.getClass().getName()) || aContext.insidePre > 0) {
-          output.print(xmlUtil.normalizeBodyValue(tmpText));
+          output.printBodyValue(tmpText);
         } else {
-          output.println(xmlUtil.normalizeBodyValue(tmpText));
+          output.printlnBodyValue(tmpText);
         }
       }
     } else {
@@ -465,9 +466,7 @@ public final class XHtmlOutputter {
           || tmpDomElement instanceof HtmlRadioButtonInput;
       final boolean tmpIsHtmlOption = tmpDomElement instanceof HtmlOption;
 
-      final URL tmpBaseUrl = htmlPage.getWebResponse().getWebRequest().getUrl();
-
-      final Map<String, DomAttr> tmpAttributes = new HashMap<>(tmpDomElement.getAttributesMap());
+      final Map<String, DomAttr> tmpAttributes = tmpDomElement.getAttributesMap();
 
       // some HtmlUnitControls are special
       if (tmpIsHtmlOption && ((HtmlOption) tmpDomElement).isSelected()) {
@@ -480,8 +479,11 @@ public final class XHtmlOutputter {
       }
 
       // fixed order for readability and testability
-      final List<String> tmpSortedAttributeNames = tmpAttributes.keySet().stream().map(k -> k.toLowerCase(Locale.ROOT))
-          .sorted().collect(Collectors.toList());
+      final List<String> tmpSortedAttributeNames = new ArrayList<>(tmpAttributes.size() + 1);
+      for (final String tmpName : tmpAttributes.keySet()) {
+        tmpSortedAttributeNames.add(tmpName.toLowerCase(Locale.ROOT));
+      }
+      Collections.sort(tmpSortedAttributeNames);
 
       if (tmpDomElement instanceof HtmlInput) {
         tmpSortedAttributeNames.remove("value");
@@ -525,7 +527,7 @@ public final class XHtmlOutputter {
 
             // process all url(....) inside
             if (responseStore != null) {
-              tmpAttributeValue = responseStore.processCSS(tmpBaseUrl, tmpAttributeValue, 0);
+              tmpAttributeValue = responseStore.processCSS(baseUrl, tmpAttributeValue, 0);
             }
 
             // ignore options for the moment, IE reports display style inline for options
@@ -546,7 +548,7 @@ public final class XHtmlOutputter {
 
           if (tmpIsCssLink && "href".equals(tmpAttributeName)) {
             final URL tmpUrl = tmpDomElement.getHtmlPageOrNull().getFullyQualifiedUrl(tmpAttributeValue);
-            final String tmpStoredFileName = responseStore.storeContentFromUrl(tmpBaseUrl, tmpUrl,
+            final String tmpStoredFileName = responseStore.storeContentFromUrl(baseUrl, tmpUrl,
                 (HtmlLink) tmpDomElement, null, 0, ".css");
             if (null != tmpStoredFileName) {
               tmpAttributeValue = tmpStoredFileName;
@@ -555,7 +557,7 @@ public final class XHtmlOutputter {
 
           if (tmpIsHtmlImage && "src".equals(tmpAttributeName)) {
             final URL tmpUrl = tmpDomElement.getHtmlPageOrNull().getFullyQualifiedUrl(tmpAttributeValue);
-            final String tmpStoredFileName = responseStore.storeContentFromUrl(tmpBaseUrl, tmpUrl, null,
+            final String tmpStoredFileName = responseStore.storeContentFromUrl(baseUrl, tmpUrl, null,
                 (HtmlImage) tmpDomElement, 0, null);
             if (null != tmpStoredFileName) {
               tmpAttributeValue = tmpStoredFileName;
@@ -564,7 +566,7 @@ public final class XHtmlOutputter {
 
           if ((tmpIsHtmlImageInput || tmpDomElement instanceof HtmlEmbed) && "src".equals(tmpAttributeName)) {
             final URL tmpUrl = tmpDomElement.getHtmlPageOrNull().getFullyQualifiedUrl(tmpAttributeValue);
-            final String tmpStoredFileName = responseStore.storeContentFromUrl(tmpBaseUrl, tmpUrl, null, null, 0, null);
+            final String tmpStoredFileName = responseStore.storeContentFromUrl(baseUrl, tmpUrl, null, null, 0, null);
             if (null != tmpStoredFileName) {
               tmpAttributeValue = tmpStoredFileName;
             }
@@ -594,7 +596,7 @@ public final class XHtmlOutputter {
               && (tmpDomElement instanceof HtmlTable || tmpDomElement instanceof HtmlTableHeader
                   || tmpDomElement instanceof HtmlTableRow || tmpDomElement instanceof HtmlTableDataCell)) {
             final URL tmpUrl = tmpDomElement.getHtmlPageOrNull().getFullyQualifiedUrl(tmpAttributeValue);
-            final String tmpStoredFileName = responseStore.storeContentFromUrl(tmpBaseUrl, tmpUrl, null, null, 0, null);
+            final String tmpStoredFileName = responseStore.storeContentFromUrl(baseUrl, tmpUrl, null, null, 0, null);
             if (null != tmpStoredFileName) {
               tmpAttributeValue = tmpStoredFileName;
             }
@@ -630,7 +632,7 @@ public final class XHtmlOutputter {
           output.print(' ');
           output.print(tmpAttributeName);
           output.print("=\"");
-          output.print(xmlUtil.normalizeAttributeValue(tmpAttributeValue));
+          output.printAttributeValue(tmpAttributeValue);
           output.print('"');
         }
       }
@@ -653,18 +655,19 @@ public final class XHtmlOutputter {
   }
 
   private String determineTag(final DomNode aDomNode) {
-    Class<? extends Object> tmpNodeClass = aDomNode.getClass();
-    // String tmpTag = null;
-    String tmpTag = TAG_NAMES.get(tmpNodeClass);
+    final Class<? extends Object> tmpDomNodeClass = aDomNode.getClass();
+    String tmpTag = TAG_NAMES.get(tmpDomNodeClass);
     if (null != tmpTag) {
       return tmpTag;
     }
 
+    Class<? extends Object> tmpNodeClass = tmpDomNodeClass;
     while (tmpNodeClass != HtmlElement.class) {
       try {
         final Field tmpField = tmpNodeClass.getDeclaredField("TAG_NAME");
         tmpTag = (String) tmpField.get(null);
-        TAG_NAMES.put(tmpNodeClass, tmpTag);
+        // cache using the class of the node; the field may be declared by a super class
+        TAG_NAMES.put(tmpDomNodeClass, tmpTag);
         return tmpTag;
       } catch (final NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) { // NOPMD
         // ignore
@@ -688,17 +691,17 @@ public final class XHtmlOutputter {
     final HTMLCanvasElement tmpCanvas = aCanvas.getScriptableObject();
     output.print("<img src='");
     output.print(tmpCanvas.toDataURL("png"));
-    output.print("' height='" + tmpCanvas.getHeight());
-    output.print("' width='" + tmpCanvas.getWidth());
+    output.print("' height='").print(Integer.toString(tmpCanvas.getHeight()));
+    output.print("' width='").print(Integer.toString(tmpCanvas.getWidth()));
 
     String tmpAttrib = aCanvas.getAttribute("style");
     if (DomElement.ATTRIBUTE_NOT_DEFINED != tmpAttrib) {
-      output.print("' style='" + aCanvas.getAttribute("style"));
+      output.print("' style='").print(tmpAttrib);
     }
 
     tmpAttrib = aCanvas.getAttribute("class");
     if (DomElement.ATTRIBUTE_NOT_DEFINED != tmpAttrib) {
-      output.print("' class='" + aCanvas.getAttribute("class"));
+      output.print("' class='").print(tmpAttrib);
     }
 
     output.print("'>");
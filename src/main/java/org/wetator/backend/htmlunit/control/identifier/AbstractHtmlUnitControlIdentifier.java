@@ -16,31 +16,28 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.List;
+
 import org.htmlunit.html.HtmlElement;
 import org.wetator.backend.WPath;
 import org.wetator.backend.WeightedControlList;
 import org.wetator.backend.htmlunit.util.HtmlPageIndex;
-import org.wetator.exception.ImplementationException;
 
 /**
  * The base class for all identifiers.<br>
  * An identifier can be used to identify a {@link HtmlElement} as a {@link org.wetator.backend.control.IControl}
  * matching a specific {@link WPath}. To check if a {@link HtmlElement} is supported by an identifier at all, use
- * {@link #isHtmlElementSupported(HtmlElement)}.
+ * {@link #isHtmlElementSupported(HtmlElement)}.<br>
+ * The finders create only one instance per identifier class and page; this instance is used by all worker threads.
+ * Therefore an identifier must not hold any state besides the {@link HtmlPageIndex} set by
+ * {@link #initialize(HtmlPageIndex)}.
  *
  * @author frank.danek
  */
-public abstract class AbstractHtmlUnitControlIdentifier implements Runnable {
+public abstract class AbstractHtmlUnitControlIdentifier {
 
   /** The {@link HtmlPageIndex} index of the page. */
   protected HtmlPageIndex htmlPageIndex;
-  /** The list the found controls should be added to. */
-  private WeightedControlList foundControls;
-
-  // for asynchronous use
-  private boolean initializedForAsynch;
-  private WPath wPath;
-  private HtmlElement htmlElement;
 
   /**
    * Initializes the identifier.
@@ -51,39 +48,21 @@ public abstract class AbstractHtmlUnitControlIdentifier implements Runnable {
     htmlPageIndex = aHtmlPageIndex;
   }
 
-  /**
-   * Initializes the identifier to work asynchronously.
-   *
-   * @param aHtmlPageIndex the {@link HtmlPageIndex} of the page
-   * @param aHtmlElement the {@link HtmlElement} to be identified
-   * @param aWPath the wpath used to identify the controls
-   * @param aFoundControls the list the found controls should be added to
-   */
-  public void initializeForAsynch(final HtmlPageIndex aHtmlPageIndex, final HtmlElement aHtmlElement,
-      final WPath aWPath, final WeightedControlList aFoundControls) {
-    initialize(aHtmlPageIndex);
-    htmlElement = aHtmlElement;
-    wPath = aWPath;
-    foundControls = aFoundControls;
-    initializedForAsynch = true;
-  }
-
   /**
    * @param aHtmlElement the {@link HtmlElement} to check
    * @return true if the given {@link HtmlElement} is supported
    */
   public abstract boolean isHtmlElementSupported(HtmlElement aHtmlElement);
 
-  @Override
-  public void run() {
-    if (!initializedForAsynch) {
-      throw new ImplementationException(
-          getClass().getName() + " is not initialized to work asynchronously. Use initializeForAsynch().");
-    }
-    final WeightedControlList tmpResult = identify(wPath, htmlElement);
-    if (tmpResult != null) {
-      foundControls.addAll(tmpResult);
-    }
+  /**
+   * Returns the types of all {@link HtmlElement}s that may be supported by this identifier. The finders use this to
+   * skip all elements of other types without calling {@link #isHtmlElementSupported(HtmlElement)}.<br>
+   * The default implementation returns <code>null</code>; in this case all elements are checked.
+   *
+   * @return the types of the {@link HtmlElement}s that may be supported or <code>null</code> if unknown
+   */
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return null; // NOPMD
   }
 
   /**
@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.html.HtmlAnchor;
@@ -59,6 +60,11 @@ public class HtmlUnitAnchorIdentifier extends AbstractMatcherBasedIdentifier {
     return aHtmlElement instanceof HtmlAnchor;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Collections.singletonList(HtmlAnchor.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
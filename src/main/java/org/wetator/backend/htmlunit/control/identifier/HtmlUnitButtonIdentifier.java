@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.html.HtmlButton;
@@ -59,6 +60,11 @@ public class HtmlUnitButtonIdentifier extends AbstractMatcherBasedIdentifier {
     return aHtmlElement instanceof HtmlButton;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Collections.singletonList(HtmlButton.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
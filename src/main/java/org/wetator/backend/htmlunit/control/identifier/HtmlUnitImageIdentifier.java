@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -61,6 +62,11 @@ public class HtmlUnitImageIdentifier extends AbstractMatcherBasedIdentifier {
     return aHtmlElement instanceof HtmlImage;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Collections.singletonList(HtmlImage.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
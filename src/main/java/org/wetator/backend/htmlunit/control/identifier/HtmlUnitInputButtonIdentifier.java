@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.html.HtmlButtonInput;
@@ -53,6 +54,11 @@ public class HtmlUnitInputButtonIdentifier extends AbstractMatcherBasedIdentifie
     return aHtmlElement instanceof HtmlButtonInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Collections.singletonList(HtmlButtonInput.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
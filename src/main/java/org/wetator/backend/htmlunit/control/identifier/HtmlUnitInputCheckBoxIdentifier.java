@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.htmlunit.html.HtmlCheckBoxInput;
@@ -62,6 +63,11 @@ public class HtmlUnitInputCheckBoxIdentifier extends AbstractMatcherBasedIdentif
         && ((HtmlLabel) aHtmlElement).getLabeledElement() instanceof HtmlCheckBoxInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Arrays.asList(HtmlCheckBoxInput.class, HtmlLabel.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
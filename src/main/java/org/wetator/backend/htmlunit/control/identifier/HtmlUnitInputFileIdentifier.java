@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -58,6 +59,11 @@ public class HtmlUnitInputFileIdentifier extends AbstractMatcherBasedIdentifier
         || aHtmlElement instanceof HtmlLabel && ((HtmlLabel) aHtmlElement).getLabeledElement() instanceof HtmlFileInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Arrays.asList(HtmlFileInput.class, HtmlLabel.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -57,6 +58,11 @@ public class HtmlUnitInputImageIdentifier extends AbstractMatcherBasedIdentifier
     return aHtmlElement instanceof HtmlImageInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Collections.singletonList(HtmlImageInput.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -60,6 +61,11 @@ public class HtmlUnitInputNumberIdentifier extends AbstractMatcherBasedIdentifie
         && ((HtmlLabel) aHtmlElement).getLabeledElement() instanceof HtmlNumberInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Arrays.asList(HtmlNumberInput.class, HtmlLabel.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
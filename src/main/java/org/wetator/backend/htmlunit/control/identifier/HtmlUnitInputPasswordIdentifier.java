@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -60,6 +61,11 @@ public class HtmlUnitInputPasswordIdentifier extends AbstractMatcherBasedIdentif
         && ((HtmlLabel) aHtmlElement).getLabeledElement() instanceof HtmlPasswordInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Arrays.asList(HtmlPasswordInput.class, HtmlLabel.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
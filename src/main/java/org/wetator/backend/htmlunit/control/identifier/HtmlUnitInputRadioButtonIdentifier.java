@@ -16,6 +16,7 @@
 
 package org.wetator.backend.htmlunit.control.identifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.htmlunit.html.HtmlElement;
@@ -58,6 +59,11 @@ public class HtmlUnitInputRadioButtonIdentifier extends AbstractMatcherBasedIden
         && ((HtmlLabel) aHtmlElement).getLabeledElement() instanceof HtmlRadioButtonInput;
   }
 
+  @Override
+  public List<Class<? extends HtmlElement>> getSupportedHtmlElementTypes() {
+    return Arrays.asList(HtmlRadioButtonInput.class, HtmlLabel.class);
+  }
+
   @Override
   protected void addMatchers(final WPath aWPath, final HtmlElement aHtmlElement,
       final List<AbstractHtmlUnitElementMatcher> aMatchers) {
@@ -48,4 +48,17 @@ public abstract class AbstractHtmlUnitControlsFinder {
    * @return the list of matching controls
    */
   public abstract WeightedControlList find(WPath aWPath);
+
+  /**
+   * Returns the best {@link org.wetator.backend.control.IControl} on the page matching the given {@link WPath}. The
+   * search may stop as soon as a control was found that can't be outranked; in this case the result does not contain
+   * all matching controls.<br>
+   * The default implementation returns all matching controls.
+   *
+   * @param aWPath the {@link WPath}
+   * @return the list of matching controls containing at least the best one
+   */
+  public WeightedControlList findBest(final WPath aWPath) {
+    return find(aWPath);
+  }
 }
\ No newline at end of file
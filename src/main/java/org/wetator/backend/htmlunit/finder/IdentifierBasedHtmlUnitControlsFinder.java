@@ -18,18 +18,25 @@ package org.wetator.backend.htmlunit.finder;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.htmlunit.html.HtmlElement;
 import org.wetator.backend.WPath;
 import org.wetator.backend.WeightedControlList;
+import org.wetator.backend.control.IControl;
+import org.wetator.backend.htmlunit.control.IHtmlUnitControl;
 import org.wetator.backend.htmlunit.control.identifier.AbstractHtmlUnitControlIdentifier;
 import org.wetator.backend.htmlunit.util.HtmlPageIndex;
+import org.wetator.core.searchpattern.SearchPattern;
+import org.wetator.core.searchpattern.TextOnlySearchPattern;
 import org.wetator.exception.ImplementationException;
 
 /**
@@ -38,18 +45,36 @@ import org.wetator.exception.ImplementationException;
  * The identifiers must be added by {@link #addIdentifier(Class)} or {@link #addIdentifiers(List)} before
  * executing {@link #find(WPath)}. For all visible {@link HtmlElement}s all added identifiers are executed, even if
  * a match is found before. So the returned {@link WeightedControlList} may contain multiple
- * {@link org.wetator.backend.control.IControl}s (multiple times).
+ * {@link org.wetator.backend.control.IControl}s (multiple times).<br>
+ * The visible elements are split into chunks processed by the (work stealing) fork join pool; every chunk collects
+ * its own results, the results are merged when joining the chunks. Every identifier class is instantiated only once
+ * per finder. Only the elements of the types supported by the identifiers (see
+ * {@link AbstractHtmlUnitControlIdentifier#getSupportedHtmlElementTypes()}) are checked.<br>
+ * If {@link #setStopOnPerfectMatch(boolean)} is enabled or {@link #findBest(WPath)} is used and the wpath is a plain
+ * id (a single node without wildcards, path nodes or table coordinates), the search stops as soon as a control was
+ * found by a unique id without any deviation (no other control can outrank this one); in this case the result
+ * contains only the controls found for the elements up to the one with the perfect match. The elements with a
+ * matching id are looked up in the index and checked first. If the id is not unique, all elements are checked to
+ * report the ambiguity. For all other wpaths several elements may match without deviation (wildcards) or the ranking
+ * depends on the distance to the path nodes, so all elements are checked.
  *
  * @author frank.danek
  */
 public class IdentifierBasedHtmlUnitControlsFinder extends AbstractHtmlUnitControlsFinder {
 
+  // chunks with at most this number of elements are not split any further
+  private static final int CHUNK_SIZE = 64;
+
   /** The thread pool to use for worker threads. */
-  protected ThreadPoolExecutor threadPool;
+  protected ForkJoinPool threadPool;
   /** The supported identifiers. */
   protected final List<Class<? extends AbstractHtmlUnitControlIdentifier>> identifiers = new ArrayList<>();
 
-  private final List<Future<?>> futures = new LinkedList<>();
+  // the identifiers are stateless, so one instance per class is shared by all worker threads
+  private final Map<Class<? extends AbstractHtmlUnitControlIdentifier>,
+      AbstractHtmlUnitControlIdentifier> identifierInstances = new ConcurrentHashMap<>();
+
+  private boolean stopOnPerfectMatch;
 
   /**
    * The constructor.
@@ -58,14 +83,13 @@ public class IdentifierBasedHtmlUnitControlsFinder extends AbstractHtmlUnitContr
    * @param aThreadPool the thread pool to use for worker threads; may be <code>null</code>
    */
   public IdentifierBasedHtmlUnitControlsFinder(final HtmlPageIndex aHtmlPageIndex,
-      final ThreadPoolExecutor aThreadPool) {
+      final ForkJoinPool aThreadPool) {
     super(aHtmlPageIndex);
 
     threadPool = aThreadPool;
     if (null == threadPool) {
-      // no executor was given, this mainly happens when called from unit tests
-      threadPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-      threadPool.prestartAllCoreThreads();
+      // no pool was given, this mainly happens when called from unit tests
+      threadPool = ForkJoinPool.commonPool();
     }
   }
 
@@ -83,19 +107,111 @@ public class IdentifierBasedHtmlUnitControlsFinder extends AbstractHtmlUnitContr
     identifiers.addAll(anIdentifierList);
   }
 
+  /**
+   * @param aStopOnPerfectMatch <code>true</code> if the search should stop as soon as a control was found by id without
+   *        any deviation
+   */
+  public void setStopOnPerfectMatch(final boolean aStopOnPerfectMatch) {
+    stopOnPerfectMatch = aStopOnPerfectMatch;
+  }
+
   @Override
   public WeightedControlList find(final WPath aWPath) {
+    return find(aWPath, stopOnPerfectMatch);
+  }
+
+  @Override
+  public WeightedControlList findBest(final WPath aWPath) {
+    return find(aWPath, true);
+  }
+
+  /**
+   * Returns all {@link org.wetator.backend.control.IControl}s on the page matching the given {@link WPath}.
+   *
+   * @param aWPath the {@link WPath}
+   * @param aStopOnPerfectMatch <code>true</code> if the search should stop as soon as a control was found by id
+   *        without any deviation
+   * @return the list of matching controls
+   */
+  protected WeightedControlList find(final WPath aWPath, final boolean aStopOnPerfectMatch) {
+    final String tmpId = getPlainId(aWPath);
+    final boolean tmpStopOnPerfectMatch = aStopOnPerfectMatch && null != tmpId;
+    if (tmpStopOnPerfectMatch) {
+      final WeightedControlList tmpFoundControls = new WeightedControlList();
+      for (final HtmlElement tmpHtmlElement : htmlPageIndex.getVisibleHtmlElementsByAttribute("id", tmpId)) {
+        identify(tmpHtmlElement, aWPath, tmpFoundControls);
+      }
+      if (isPerfectMatch(tmpFoundControls)) {
+        return tmpFoundControls;
+      }
+    }
+
+    final List<HtmlElement> tmpHtmlElements = new ArrayList<>(getCandidateHtmlElements());
+    if (tmpHtmlElements.isEmpty()) {
+      return new WeightedControlList();
+    }
+    if (!tmpStopOnPerfectMatch) {
+      return threadPool.invoke(new IdentifyTask(tmpHtmlElements, 0, tmpHtmlElements.size(), aWPath, null, null));
+    }
+
+    // the results are collected per element; only the results for the elements up to the first one with a
+    // perfect match are used to get the same result independent of the order the chunks are processed
+    final WeightedControlList[] tmpFoundControlsPerElement = new WeightedControlList[tmpHtmlElements.size()];
+    final AtomicInteger tmpPerfectMatchIndex = new AtomicInteger(Integer.MAX_VALUE);
+    threadPool.invoke(new IdentifyTask(tmpHtmlElements, 0, tmpHtmlElements.size(), aWPath, tmpPerfectMatchIndex,
+        tmpFoundControlsPerElement));
+
     final WeightedControlList tmpFoundControls = new WeightedControlList();
-    for (final HtmlElement tmpHtmlElement : htmlPageIndex.getAllVisibleHtmlElements()) {
-      identify(tmpHtmlElement, aWPath, tmpFoundControls);
+    final int tmpLast = Math.min(tmpPerfectMatchIndex.get(), tmpFoundControlsPerElement.length - 1);
+    for (int i = 0; i <= tmpLast; i++) {
+      if (null != tmpFoundControlsPerElement[i]) {
+        tmpFoundControls.addAll(tmpFoundControlsPerElement[i]);
+      }
     }
-    waitUntilExecuted();
     return tmpFoundControls;
   }
 
+  /**
+   * Returns the {@link HtmlElement}s to be checked by {@link #find(WPath)}. The default implementation returns all
+   * visible elements of the types supported by the identifiers.
+   *
+   * @return the candidates
+   */
+  protected Collection<HtmlElement> getCandidateHtmlElements() {
+    final Set<Class<? extends HtmlElement>> tmpTypes = new HashSet<>();
+    for (final Class<? extends AbstractHtmlUnitControlIdentifier> tmpIdentifierClass : identifiers) {
+      final List<Class<? extends HtmlElement>> tmpSupportedTypes = getIdentifier(tmpIdentifierClass)
+          .getSupportedHtmlElementTypes();
+      if (null == tmpSupportedTypes) {
+        return htmlPageIndex.getAllVisibleHtmlElements();
+      }
+      tmpTypes.addAll(tmpSupportedTypes);
+    }
+    return htmlPageIndex.getAllVisibleHtmlElements(tmpTypes);
+  }
+
+  /**
+   * A perfect match by id can only be outranked by another element with the same id, if the wpath is a single node
+   * without any wildcards. Otherwise several ids may match without deviation or the distance to the path nodes
+   * decides.
+   *
+   * @param aWPath the {@link WPath}
+   * @return the id the wpath consists of; <code>null</code> if the wpath is not a plain id
+   */
+  private static String getPlainId(final WPath aWPath) {
+    if (aWPath.getPathNodes().isEmpty() && aWPath.getTableCoordinates().isEmpty() && aWPath.getLastNode() != null) {
+      final SearchPattern tmpSearchPattern = aWPath.getLastNode().getSearchPattern();
+      if (tmpSearchPattern instanceof TextOnlySearchPattern) {
+        return ((TextOnlySearchPattern) tmpSearchPattern).getPatternString();
+      }
+    }
+    return null;
+  }
+
   /**
    * Tries to identify if the given {@link HtmlElement} matches the given {@link WPath} using all added
-   * {@link AbstractHtmlUnitControlIdentifier}s.
+   * {@link AbstractHtmlUnitControlIdentifier}s.<br>
+   * This is called from the worker threads.
    *
    * @param aHtmlElement the {@link HtmlElement} to check
    * @param aWPath the {@link WPath} that must be matched
@@ -125,46 +241,131 @@ public class IdentifierBasedHtmlUnitControlsFinder extends AbstractHtmlUnitContr
    */
   protected boolean identify(final Class<? extends AbstractHtmlUnitControlIdentifier> anIdentifierClass,
       final HtmlElement aHtmlElement, final WPath aWPath, final WeightedControlList aFoundControls) {
+    final AbstractHtmlUnitControlIdentifier tmpIdentifier = getIdentifier(anIdentifierClass);
+    if (tmpIdentifier.isHtmlElementSupported(aHtmlElement)) {
+      final WeightedControlList tmpResult = tmpIdentifier.identify(aWPath, aHtmlElement);
+      if (tmpResult != null) {
+        aFoundControls.addAll(tmpResult);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the (shared) instance of the given identifier class initialized for the page of this finder.
+   *
+   * @param anIdentifierClass the {@link AbstractHtmlUnitControlIdentifier} class
+   * @return the identifier
+   */
+  protected AbstractHtmlUnitControlIdentifier getIdentifier(
+      final Class<? extends AbstractHtmlUnitControlIdentifier> anIdentifierClass) {
+    return identifierInstances.computeIfAbsent(anIdentifierClass, this::createIdentifier);
+  }
+
+  private AbstractHtmlUnitControlIdentifier createIdentifier(
+      final Class<? extends AbstractHtmlUnitControlIdentifier> anIdentifierClass) {
     try {
       final AbstractHtmlUnitControlIdentifier tmpIdentifier = anIdentifierClass.getDeclaredConstructor().newInstance();
-      tmpIdentifier.initializeForAsynch(htmlPageIndex, aHtmlElement, aWPath, aFoundControls);
-      if (tmpIdentifier.isHtmlElementSupported(aHtmlElement)) {
-        execute(tmpIdentifier);
-        return true;
-      }
+      tmpIdentifier.initialize(htmlPageIndex);
+      return tmpIdentifier;
     } catch (final IllegalAccessException e) {
       throw new ImplementationException("Could not access identifier class '" + anIdentifierClass.getName() + "'.", e);
     } catch (final NoSuchMethodException | InstantiationException | InvocationTargetException e) {
       throw new ImplementationException(
           "Could not instantiate identifier for class '" + anIdentifierClass.getName() + "'.", e);
     }
-    return false;
   }
 
   /**
-   * Executes the given identifier asynchronously in the thread pool.
-   *
-   * @param anIdentifier the identifier
+   * @param aFoundControls the controls found so far
+   * @return <code>true</code> if the best of the given controls was found by id without any deviation
    */
-  protected void execute(final AbstractHtmlUnitControlIdentifier anIdentifier) {
-    futures.add(threadPool.submit(anIdentifier));
+  protected static boolean isPerfectMatch(final WeightedControlList aFoundControls) {
+    if (aFoundControls.isEmpty()) {
+      return false;
+    }
+    final WeightedControlList.Entry tmpEntry = aFoundControls.getEntriesSorted(1).get(0);
+    return WeightedControlList.FoundType.BY_ID == tmpEntry.getFoundType() && tmpEntry.getDeviation() == 0;
   }
 
   /**
-   * Waits until the execution of all identifiers in the thread pool finished.
+   * @param aFoundControls the controls found for one element
+   * @return <code>true</code> if the best of the given controls was found by id without any deviation and there is
+   *         no other visible element with this id
    */
-  protected void waitUntilExecuted() {
-    for (final Future<?> tmpFuture : futures) {
-      try {
-        tmpFuture.get();
-      } catch (final InterruptedException e) {
-        throw new RuntimeException("Exception waiting for executed threads.", e);
-      } catch (final ExecutionException e) {
-        if (e.getCause() instanceof ImplementationException) {
-          throw (ImplementationException) e.getCause();
+  private boolean isUniquePerfectMatch(final WeightedControlList aFoundControls) {
+    if (!isPerfectMatch(aFoundControls)) {
+      return false;
+    }
+    final IControl tmpControl = aFoundControls.getEntriesSorted(1).get(0).getControl();
+    if (!(tmpControl instanceof IHtmlUnitControl)) {
+      return false;
+    }
+    final String tmpId = ((IHtmlUnitControl<?>) tmpControl).getHtmlElement().getId();
+    return htmlPageIndex.getVisibleHtmlElementsByAttribute("id", tmpId).size() <= 1;
+  }
+
+  /**
+   * Identifies the controls of a chunk of the visible elements; large chunks are split and processed in parallel.
+   */
+  private final class IdentifyTask extends RecursiveTask<WeightedControlList> {
+
+    private static final long serialVersionUID = -3018395245712961442L;
+
+    private final transient List<HtmlElement> htmlElements;
+    private final int start;
+    private final int end;
+    private final transient WPath wPath;
+    // the lowest index of an element with a unique perfect match; null if the search should not stop on a
+    // perfect match
+    private final AtomicInteger perfectMatchIndex;
+    // the results per element if the search should stop on a perfect match
+    private final transient WeightedControlList[] foundControlsPerElement;
+
+    private IdentifyTask(final List<HtmlElement> aHtmlElements, final int aStart, final int anEnd, final WPath aWPath,
+        final AtomicInteger aPerfectMatchIndex, final WeightedControlList[] aFoundControlsPerElement) {
+      htmlElements = aHtmlElements;
+      start = aStart;
+      end = anEnd;
+      wPath = aWPath;
+      perfectMatchIndex = aPerfectMatchIndex;
+      foundControlsPerElement = aFoundControlsPerElement;
+    }
+
+    @Override
+    protected WeightedControlList compute() {
+      if (end - start > CHUNK_SIZE) {
+        final int tmpMiddle = (start + end) >>> 1;
+        final IdentifyTask tmpFirstHalf = new IdentifyTask(htmlElements, start, tmpMiddle, wPath, perfectMatchIndex,
+            foundControlsPerElement);
+        tmpFirstHalf.fork();
+        final WeightedControlList tmpFoundControls = new IdentifyTask(htmlElements, tmpMiddle, end, wPath,
+            perfectMatchIndex, foundControlsPerElement).compute();
+        tmpFoundControls.addAll(tmpFirstHalf.join());
+        return tmpFoundControls;
+      }
+
+      final WeightedControlList tmpFoundControls = new WeightedControlList();
+      if (null == perfectMatchIndex) {
+        for (int i = start; i < end; i++) {
+          identify(htmlElements.get(i), wPath, tmpFoundControls);
+        }
+        return tmpFoundControls;
+      }
+
+      // the elements after a perfect match are skipped; all elements before are processed in any case
+      for (int i = start; i < end && i < perfectMatchIndex.get(); i++) {
+        final WeightedControlList tmpElementControls = new WeightedControlList();
+        identify(htmlElements.get(i), wPath, tmpElementControls);
+        if (!tmpElementControls.isEmpty()) {
+          foundControlsPerElement[i] = tmpElementControls;
+          if (isUniquePerfectMatch(tmpElementControls)) {
+            perfectMatchIndex.accumulateAndGet(i, Math::min);
+          }
         }
-        throw new ImplementationException("Exception occured in executed thread.", e.getCause());
       }
+      return tmpFoundControls;
     }
   }
-}
\ No newline at end of file
+}
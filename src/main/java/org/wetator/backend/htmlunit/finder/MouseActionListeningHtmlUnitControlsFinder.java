@@ -16,8 +16,9 @@
 
 package org.wetator.backend.htmlunit.finder;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.htmlunit.html.HtmlBody;
 import org.htmlunit.html.HtmlElement;
@@ -70,7 +71,7 @@ public class MouseActionListeningHtmlUnitControlsFinder extends IdentifierBasedH
    * @param aControlRepository the {@link HtmlUnitControlRepository} to use; may be <code>null</code>
    */
   public MouseActionListeningHtmlUnitControlsFinder(final HtmlPageIndex aHtmlPageIndex,
-      final ThreadPoolExecutor aThreadPool, final MouseAction aMouseAction,
+      final ForkJoinPool aThreadPool, final MouseAction aMouseAction,
       final HtmlUnitControlRepository aControlRepository) {
     super(aHtmlPageIndex, aThreadPool);
 
@@ -79,7 +80,7 @@ public class MouseActionListeningHtmlUnitControlsFinder extends IdentifierBasedH
   }
 
   @Override
-  public WeightedControlList find(final WPath aWPath) {
+  protected WeightedControlList find(final WPath aWPath, final boolean aStopOnPerfectMatch) {
     // check for the $PAGE pseudo wpath for finding the body element
     if (aWPath.getPathNodes().isEmpty() && aWPath.getTableCoordinates().isEmpty() && aWPath.getLastNode() != null
         && PAGE_WPATH.equals(aWPath.getLastNode().getValue())) {
@@ -98,7 +99,11 @@ public class MouseActionListeningHtmlUnitControlsFinder extends IdentifierBasedH
     }
 
     // do the normal stuff
-    final WeightedControlList tmpFoundControls = super.find(aWPath);
+    final WeightedControlList tmpFoundControls = super.find(aWPath, aStopOnPerfectMatch);
+    if (aStopOnPerfectMatch && isPerfectMatch(tmpFoundControls)) {
+      // the controls found by text can't outrank this
+      return tmpFoundControls;
+    }
 
     // FIXME [UNKNOWN] search for controls with matching text for click and mouse over
     // see pretty complex UnknownHtmlUnitControlsFinder
@@ -204,6 +209,15 @@ public class MouseActionListeningHtmlUnitControlsFinder extends IdentifierBasedH
     return tmpFoundControls;
   }
 
+  @Override
+  protected Collection<HtmlElement> getCandidateHtmlElements() {
+    // the listeners are checked by the worker threads
+    htmlPageIndex.prepareMouseActionListeners();
+
+    // every element may have a mouse listener or may be identified by text
+    return htmlPageIndex.getAllVisibleHtmlElements();
+  }
+
   @Override
   protected boolean identify(final HtmlElement aHtmlElement, final WPath aWPath,
       final WeightedControlList aFoundControls) {
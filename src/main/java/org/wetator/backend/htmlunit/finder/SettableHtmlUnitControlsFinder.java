@@ -16,7 +16,7 @@
 
 package org.wetator.backend.htmlunit.finder;
 
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.htmlunit.html.HtmlElement;
 import org.htmlunit.html.HtmlFileInput;
@@ -52,12 +52,12 @@ public class SettableHtmlUnitControlsFinder extends IdentifierBasedHtmlUnitContr
    * @param aHtmlPageIndex the {@link HtmlPageIndex} index of the page
    * @param aThreadPool the thread pool to use for worker threads; may be null
    */
-  public SettableHtmlUnitControlsFinder(final HtmlPageIndex aHtmlPageIndex, final ThreadPoolExecutor aThreadPool) {
+  public SettableHtmlUnitControlsFinder(final HtmlPageIndex aHtmlPageIndex, final ForkJoinPool aThreadPool) {
     super(aHtmlPageIndex, aThreadPool);
   }
 
   @Override
-  public WeightedControlList find(final WPath aWPath) {
+  protected WeightedControlList find(final WPath aWPath, final boolean aStopOnPerfectMatch) {
     final WeightedControlList tmpFoundControls = new WeightedControlList();
 
     // special case to support some search engines
@@ -95,6 +95,6 @@ public class SettableHtmlUnitControlsFinder extends IdentifierBasedHtmlUnitContr
       return tmpFoundControls;
     }
 
-    return super.find(aWPath);
+    return super.find(aWPath, aStopOnPerfectMatch);
   }
 }
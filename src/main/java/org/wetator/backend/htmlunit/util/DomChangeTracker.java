@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.htmlunit.WebWindow;
+import org.htmlunit.css.ComputedCssStyleDeclaration;
+import org.htmlunit.css.ElementCssStyleDeclaration;
+import org.htmlunit.css.StyleAttributes.Definition;
+import org.htmlunit.html.CharacterDataChangeEvent;
+import org.htmlunit.html.CharacterDataChangeListener;
+import org.htmlunit.html.DomChangeEvent;
+import org.htmlunit.html.DomChangeListener;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomNode;
+import org.htmlunit.html.HtmlAttributeChangeEvent;
+import org.htmlunit.html.HtmlAttributeChangeListener;
+import org.htmlunit.html.HtmlDialog;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlLink;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.html.HtmlStyle;
+
+/**
+ * Tracks the changes of the DOM of a {@link HtmlPage}.<br>
+ * The tracker counts the modifications of the page and remembers the information about the nodes that is expensive to
+ * calculate (visibility, text transformation). If the DOM changes only the information of the affected subtree is
+ * invalidated; this way a new {@link HtmlPageIndex} for the changed page has only to calculate the styles of the
+ * changed parts.<br>
+ * A change does not walk the DOM; the changed nodes and their parents are only marked dirty. The subtrees of the
+ * dirty nodes are invalidated (and the added nodes are checked for style sheets) on the next read access, so a script
+ * adding many nodes one by one does not walk the growing parent for every node. Every dirty subtree is walked once,
+ * nested dirty nodes are skipped.<br>
+ * The visibility of a node depends on the styles of all its ancestors. Therefore the tracker remembers the display
+ * state of every node and calculates the state of a node based on the (remembered) state of its parent; this way the
+ * computed style of every element is evaluated only once even if the page is walked top down.<br>
+ * Some changes (e.g. the mouse over state) are not reported by the DOM listeners but HtmlUnit drops all computed styles
+ * of the page in this case. To detect this, the tracker places a sentinel into the computed style cache of the page;
+ * if the sentinel is gone, all remembered information is invalidated.
+ *
+ * @author rbri
+ */
+public final class DomChangeTracker
+    implements DomChangeListener, HtmlAttributeChangeListener, CharacterDataChangeListener {
+
+  private static final long serialVersionUID = 2316417406651472381L;
+
+  // the tracker is stored as user data at the page; this way we have no
+  // static references to the page
+  private static final String USER_DATA_KEY = DomChangeTracker.class.getName();
+  private static final String SENTINEL_PSEUDO_ELEMENT = "::wetator-sentinel";
+
+  private final HtmlPage htmlPage;
+  private final DomElement sentinel;
+  private final ComputedCssStyleDeclaration sentinelStyle;
+
+  private long modificationCount;
+  private final Map<DomNode, Display> displays;
+  private final Map<HtmlElement, String> textTransforms;
+
+  // the roots of the subtrees to invalidate on the next read
+  private final Set<DomNode> dirtyNodes;
+  // the added or removed nodes to check for style sheets on the next read
+  private final Set<DomNode> changedNodes;
+  // the number of nodes visited to resolve the dirty nodes; for testing only
+  private long invalidationWork;
+
+  /**
+   * Returns the tracker for the given page. If the page has no tracker so far, a new one is created and
+   * registered at the page.
+   *
+   * @param aHtmlPage the page
+   * @return the tracker
+   */
+  public static synchronized DomChangeTracker getFor(final HtmlPage aHtmlPage) {
+    DomChangeTracker tmpTracker = (DomChangeTracker) aHtmlPage.getUserData(USER_DATA_KEY);
+    if (null == tmpTracker) {
+      tmpTracker = new DomChangeTracker(aHtmlPage);
+      aHtmlPage.addDomChangeListener(tmpTracker);
+      aHtmlPage.addHtmlAttributeChangeListener(tmpTracker);
+      aHtmlPage.addCharacterDataChangeListener(tmpTracker);
+      aHtmlPage.setUserData(USER_DATA_KEY, tmpTracker, null);
+    } else {
+      tmpTracker.checkComputedStyles();
+    }
+    return tmpTracker;
+  }
+
+  private DomChangeTracker(final HtmlPage aHtmlPage) {
+    htmlPage = aHtmlPage;
+    displays = new HashMap<>(256);
+    textTransforms = new HashMap<>();
+    dirtyNodes = new HashSet<>();
+    changedNodes = new HashSet<>();
+
+    // the sentinel is never part of the DOM
+    sentinel = aHtmlPage.createElement("div");
+    sentinelStyle = new ComputedCssStyleDeclaration(new ElementCssStyleDeclaration(sentinel));
+    htmlPage.putStyleIntoCache(sentinel, SENTINEL_PSEUDO_ELEMENT, sentinelStyle);
+  }
+
+  /**
+   * @return the number of modifications of the page since the tracker was registered
+   */
+  public synchronized long getModificationCount() {
+    checkComputedStyles();
+    return modificationCount;
+  }
+
+  /**
+   * Works like {@link DomNode#isDisplayed()} but uses the remembered display state of the ancestors instead of
+   * evaluating the styles of all the ancestors again.
+   *
+   * @param aDomNode the node to check
+   * @return the (remembered) result of {@link DomNode#isDisplayed()}
+   */
+  public synchronized boolean isDisplayed(final DomNode aDomNode) {
+    if (!aDomNode.mayBeDisplayed()) {
+      return false;
+    }
+    if (!htmlPage.getWebClient().getOptions().isCssEnabled()) {
+      return true;
+    }
+    resolveDirtyNodes();
+    return Display.VISIBLE == getDisplay(aDomNode);
+  }
+
+  private Display getDisplay(final DomNode aDomNode) {
+    Display tmpDisplay = displays.get(aDomNode);
+    if (null != tmpDisplay) {
+      return tmpDisplay;
+    }
+
+    // the ancestors are only the nodes of the same page; a frame does not hide its content
+    final DomNode tmpParent = aDomNode.getParentNode();
+    if (null == tmpParent) {
+      tmpDisplay = Display.VISIBLE;
+    } else {
+      tmpDisplay = getDisplay(tmpParent);
+    }
+
+    if (Display.NONE != tmpDisplay && aDomNode instanceof HtmlElement) {
+      tmpDisplay = computeDisplay((HtmlElement) aDomNode, tmpDisplay);
+    }
+    displays.put(aDomNode, tmpDisplay);
+    return tmpDisplay;
+  }
+
+  private static Display computeDisplay(final HtmlElement anHtmlElement, final Display aParentDisplay) {
+    if (anHtmlElement.isHidden() || anHtmlElement instanceof HtmlDialog && !((HtmlDialog) anHtmlElement).isOpen()) {
+      return Display.NONE;
+    }
+
+    final WebWindow tmpWindow = anHtmlElement.getPage().getEnclosingWindow();
+    final ComputedCssStyleDeclaration tmpStyle = tmpWindow.getComputedStyle(anHtmlElement, null);
+    if (HtmlElement.DisplayStyle.NONE.value().equals(tmpStyle.getDisplay())) {
+      return Display.NONE;
+    }
+
+    // same as DomNode.isDisplayed(); the nearest element with a known visibility wins
+    final String tmpVisibility = tmpStyle.getStyleAttribute(Definition.VISIBILITY, true);
+    if (tmpVisibility.length() > 5) {
+      if ("visible".equals(tmpVisibility)) {
+        return Display.VISIBLE;
+      }
+      if ("hidden".equals(tmpVisibility) || "collapse".equals(tmpVisibility)) {
+        return Display.HIDDEN;
+      }
+    }
+    return aParentDisplay;
+  }
+
+  /**
+   * @param anHtmlElement the element to check
+   * @return the (remembered) value of the computed style 'text-transform'; an empty string if not available
+   */
+  public synchronized String getTextTransform(final HtmlElement anHtmlElement) {
+    resolveDirtyNodes();
+    String tmpTransform = textTransforms.get(anHtmlElement);
+    if (null == tmpTransform) {
+      tmpTransform = "";
+      final ComputedCssStyleDeclaration tmpStyle = anHtmlElement.getPage().getEnclosingWindow()
+          .getComputedStyle(anHtmlElement, null);
+      if (null != tmpStyle) {
+        tmpTransform = tmpStyle.getStyleAttribute(Definition.TEXT_TRANSFORM, true);
+      }
+      textTransforms.put(anHtmlElement, tmpTransform);
+    }
+    return tmpTransform;
+  }
+
+  @Override
+  public void nodeAdded(final DomChangeEvent anEvent) {
+    nodeChanged(anEvent.getParentNode(), anEvent.getChangedNode());
+  }
+
+  @Override
+  public void nodeDeleted(final DomChangeEvent anEvent) {
+    nodeChanged(anEvent.getParentNode(), anEvent.getChangedNode());
+  }
+
+  @Override
+  public void attributeAdded(final HtmlAttributeChangeEvent anEvent) {
+    attributeChanged(anEvent.getHtmlElement());
+  }
+
+  @Override
+  public void attributeRemoved(final HtmlAttributeChangeEvent anEvent) {
+    attributeChanged(anEvent.getHtmlElement());
+  }
+
+  @Override
+  public void attributeReplaced(final HtmlAttributeChangeEvent anEvent) {
+    attributeChanged(anEvent.getHtmlElement());
+  }
+
+  @Override
+  public synchronized void characterDataChanged(final CharacterDataChangeEvent anEvent) {
+    modificationCount++;
+
+    // the text itself is not cached; only a changed style sheet has some effect
+    if (anEvent.getCharacterData().getParentNode() instanceof HtmlStyle) {
+      invalidateAll();
+    }
+  }
+
+  private synchronized void nodeChanged(final DomNode aParentNode, final DomNode aChangedNode) {
+    modificationCount++;
+
+    if (aChangedNode instanceof HtmlStyle || aChangedNode instanceof HtmlLink || aParentNode instanceof HtmlStyle) {
+      invalidateAll();
+      return;
+    }
+    if (displays.isEmpty() && textTransforms.isEmpty()) {
+      return;
+    }
+
+    // the style sheets inside the changed node are checked on the next read
+    changedNodes.add(aChangedNode);
+    // the removed node is no longer part of the parent's subtree
+    dirtyNodes.add(aChangedNode);
+    // the siblings are affected by css selectors like ':first-child' or '+'
+    if (null != aParentNode) {
+      dirtyNodes.add(aParentNode);
+    }
+  }
+
+  private synchronized void attributeChanged(final HtmlElement anHtmlElement) {
+    modificationCount++;
+
+    if (anHtmlElement instanceof HtmlStyle || anHtmlElement instanceof HtmlLink) {
+      invalidateAll();
+      return;
+    }
+
+    if (displays.isEmpty() && textTransforms.isEmpty()) {
+      return;
+    }
+
+    // the siblings are affected by css selectors like '+' or '~'
+    final DomNode tmpParent = anHtmlElement.getParentNode();
+    if (null == tmpParent) {
+      dirtyNodes.add(anHtmlElement);
+    } else {
+      dirtyNodes.add(tmpParent);
+    }
+  }
+
+  private synchronized void checkComputedStyles() {
+    if (null == htmlPage.getStyleFromCache(sentinel, SENTINEL_PSEUDO_ELEMENT)) {
+      modificationCount++;
+      invalidateAll();
+      htmlPage.putStyleIntoCache(sentinel, SENTINEL_PSEUDO_ELEMENT, sentinelStyle);
+    }
+  }
+
+  /**
+   * @return the number of nodes visited to resolve the dirty nodes since the tracker was registered
+   */
+  synchronized long getInvalidationWork() {
+    return invalidationWork;
+  }
+
+  private void resolveDirtyNodes() {
+    if (dirtyNodes.isEmpty()) {
+      return;
+    }
+
+    for (final DomNode tmpNode : outermost(changedNodes)) {
+      if (isStyleSheetRelevant(tmpNode)) {
+        invalidateAll();
+        return;
+      }
+    }
+    for (final DomNode tmpNode : outermost(dirtyNodes)) {
+      invalidateSubtree(tmpNode);
+    }
+    dirtyNodes.clear();
+    changedNodes.clear();
+  }
+
+  /**
+   * @return the nodes of the given set not having an ancestor in the set
+   */
+  private static List<DomNode> outermost(final Set<DomNode> aDomNodes) {
+    final List<DomNode> tmpResult = new ArrayList<>(aDomNodes.size());
+    for (final DomNode tmpNode : aDomNodes) {
+      DomNode tmpAncestor = tmpNode.getParentNode();
+      while (null != tmpAncestor && !aDomNodes.contains(tmpAncestor)) {
+        tmpAncestor = tmpAncestor.getParentNode();
+      }
+      if (null == tmpAncestor) {
+        tmpResult.add(tmpNode);
+      }
+    }
+    return tmpResult;
+  }
+
+  private void invalidateSubtree(final DomNode aDomNode) {
+    displays.remove(aDomNode);
+    textTransforms.remove(aDomNode);
+    invalidationWork++;
+    for (final DomNode tmpNode : aDomNode.getDescendants()) {
+      displays.remove(tmpNode);
+      textTransforms.remove(tmpNode);
+      invalidationWork++;
+    }
+  }
+
+  private void invalidateAll() {
+    displays.clear();
+    textTransforms.clear();
+    dirtyNodes.clear();
+    changedNodes.clear();
+  }
+
+  private boolean isStyleSheetRelevant(final DomNode aDomNode) {
+    if (aDomNode instanceof HtmlStyle || aDomNode instanceof HtmlLink) {
+      return true;
+    }
+    if (aDomNode instanceof HtmlElement) {
+      for (final HtmlElement tmpHtmlElement : ((HtmlElement) aDomNode).getHtmlElementDescendants()) {
+        invalidationWork++;
+        if (tmpHtmlElement instanceof HtmlStyle || tmpHtmlElement instanceof HtmlLink) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The display state of a node.
+   */
+  private enum Display {
+    /** The node is visible. */
+    VISIBLE,
+    /** The node is hidden by the style 'visibility'; a child may be visible. */
+    HIDDEN,
+    /** The node and all its children are not displayed. */
+    NONE
+  }
+}
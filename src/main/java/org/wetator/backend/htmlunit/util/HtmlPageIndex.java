@@ -16,17 +16,23 @@
 
 package org.wetator.backend.htmlunit.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.WordUtils;
@@ -34,8 +40,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.htmlunit.ElementNotFoundException;
 import org.htmlunit.Page;
-import org.htmlunit.css.ComputedCssStyleDeclaration;
-import org.htmlunit.css.StyleAttributes.Definition;
 import org.htmlunit.html.DomComment;
 import org.htmlunit.html.DomElement;
 import org.htmlunit.html.DomNode;
@@ -77,6 +81,7 @@ import org.htmlunit.html.HtmlTitle;
 import org.htmlunit.html.SubmittableElement;
 import org.htmlunit.javascript.host.event.MouseEvent;
 import org.htmlunit.javascript.host.html.HTMLObjectElement;
+import org.wetator.backend.NodeHierarchy;
 import org.wetator.backend.htmlunit.MouseAction;
 import org.wetator.core.searchpattern.SearchPattern;
 import org.wetator.util.FindSpot;
@@ -92,7 +97,6 @@ import org.wetator.util.NormalizedString;
 public class HtmlPageIndex {
   private static final Logger LOG = LogManager.getLogger(HtmlPageIndex.class);
 
-  private static final String HIERARCHY_DELIMITER = ">";
 
   private static final String EVENT_NAME_CLICK = "on" + MouseEvent.TYPE_CLICK;
   private static final String EVENT_NAME_DBL_CLICK = "on" + MouseEvent.TYPE_DBL_CLICK;
@@ -103,47 +107,164 @@ public class HtmlPageIndex {
   private static final String EVENT_NAME_MOUSE_MOVE = "on" + MouseEvent.TYPE_MOUSE_MOVE;
   private static final String EVENT_NAME_MOUSE_OUT = "on" + MouseEvent.TYPE_MOUSE_OUT;
 
-  private final HtmlPage htmlPage;
+  // the attributes of the visible elements indexed for fast lookups
+  private static final String[] INDEXED_ATTRIBUTES = { "id", "name", "data-testid", "aria-label", "placeholder" };
+
+  // the last index of a page is stored as user data at the page
+  private static final String USER_DATA_KEY = HtmlPageIndex.class.getName();
+  private static final AtomicLong CACHE_HITS = new AtomicLong();
+  private static final AtomicLong CACHE_MISSES = new AtomicLong();
 
-  private final NormalizedString text;
-  private final Map<DomNode, FindSpot> positions;
-  private final NormalizedString textWithoutFormControls;
-  private final Map<DomNode, FindSpot> positionsWithoutFormControls;
+  private final HtmlPage htmlPage;
+  // the modification count of the page at construction time; used as long as the page is not indexed
+  private final long modificationCount;
+
+  // the page is indexed on first access; all the fields up to the volatile flag are written only once
+  // by the indexing and published by writing the flag
+  private NormalizedString text;
+  private NormalizedString textWithoutFormControls;
+
+  // all nodes in document order; the position in this list is the ordinal of the node
+  private List<DomNode> nodes;
+  private Map<DomNode, Integer> ordinals;
+  // the start/end positions of the nodes in the text (and in the text without form controls)
+  // indexed by the ordinal of the node
+  private int[] startPositions;
+  private int[] endPositions;
+  private int[] startPositionsWithoutFormControls;
+  private int[] endPositionsWithoutFormControls;
+  private List<NodeHierarchy> hierarchies;
+
+  private Set<HtmlElement> visibleHtmlElements;
+
+  // all indexed pages (including frames) with the modification count at index time
+  private Map<HtmlPage, Long> modificationCounts;
+  // the values of the form controls are part of the text but changing them does not change the DOM
+  private Map<HtmlElement, String> formControlValues;
+  private DomChangeTracker domChangeTracker;
+  private volatile boolean indexed;
+
+  // derived from the index above on first access
+  private final Lazy<Set<HtmlElement>> visibleHtmlElementsBottomUp;
+  private final Lazy<Map<Class<?>, Set<HtmlElement>>> visibleHtmlElementsByType;
+  private final Lazy<Map<String, Map<String, Set<HtmlElement>>>> visibleHtmlElementsByAttribute;
+  private final Lazy<Map<MouseAction, Set<HtmlElement>>> htmlElementsWithMouseActionListener;
 
-  private final List<DomNode> nodes;
-  private final Set<HtmlElement> visibleHtmlElementsBottomUp;
-  private final Set<HtmlElement> visibleHtmlElements;
+  /**
+   * Returns the index for the given page. The index created by the last call is reused as long as it is
+   * {@link #isUpToDate() up to date}; otherwise a new one is created.<br>
+   * Event listeners added by javascript (addEventListener) do not change the DOM; therefore the elements having
+   * mouse action listeners are collected again for every call.
+   *
+   * @param aHtmlPage the {@link HtmlPage} to index
+   * @return the index
+   */
+  public static HtmlPageIndex getFor(final HtmlPage aHtmlPage) {
+    HtmlPageIndex tmpIndex = (HtmlPageIndex) aHtmlPage.getUserData(USER_DATA_KEY);
+    if (null != tmpIndex && tmpIndex.isUpToDate()) {
+      CACHE_HITS.incrementAndGet();
+      tmpIndex.htmlElementsWithMouseActionListener.reset();
+      return tmpIndex;
+    }
 
-  private final Map<DomNode, String> hierarchies;
+    CACHE_MISSES.incrementAndGet();
+    tmpIndex = new HtmlPageIndex(aHtmlPage);
+    aHtmlPage.setUserData(USER_DATA_KEY, tmpIndex, null);
+    return tmpIndex;
+  }
 
-  private final Map<MouseAction, Set<HtmlElement>> htmlElementsWithMouseActionListener;
+  /**
+   * @return a string with some statistic info
+   */
+  public static String getStatistics() {
+    // @formatter:off
+    final StringBuilder tmpResult = new StringBuilder(80) // NOPMD
+      .append("HtmlPageIndex cache statistics:\n")
+      .append("      Hits:    ").append(CACHE_HITS.get()).append('\n')
+      .append("      Misses:  ").append(CACHE_MISSES.get());
+    // @formatter:on
+
+    return tmpResult.toString();
+  }
 
   /**
-   * The constructor.
+   * The constructor.<br>
+   * The page is not analyzed here; the text and the visible elements are indexed on first access and all other
+   * structures are derived from them when they are needed for the first time.
    *
    * @param aHtmlPage the {@link HtmlPage} to index
    */
   public HtmlPageIndex(final HtmlPage aHtmlPage) {
     htmlPage = aHtmlPage;
+    modificationCount = DomChangeTracker.getFor(aHtmlPage).getModificationCount();
 
-    text = new NormalizedString();
-    positions = new HashMap<>(256);
-    positionsWithoutFormControls = new HashMap<>(256);
-    textWithoutFormControls = new NormalizedString();
+    visibleHtmlElementsBottomUp = new Lazy<>(this::collectVisibleHtmlElementsBottomUp);
+    visibleHtmlElementsByType = new Lazy<>(this::collectVisibleHtmlElementsByType);
+    visibleHtmlElementsByAttribute = new Lazy<>(this::collectVisibleHtmlElementsByAttribute);
+    htmlElementsWithMouseActionListener = new Lazy<>(this::collectHtmlElementsWithMouseActionListener);
+  }
+
+  /**
+   * Indexes the page if not already done.
+   */
+  private void ensureIndexed() {
+    if (indexed) {
+      return;
+    }
 
-    nodes = new LinkedList<>();
-    // LinkedHashSets to preserve the order and have a fast contains
-    visibleHtmlElementsBottomUp = new LinkedHashSet<>();
-    visibleHtmlElements = new LinkedHashSet<>();
+    synchronized (this) {
+      if (indexed) {
+        return;
+      }
 
-    hierarchies = new HashMap<>(256);
+      text = new NormalizedString();
+      textWithoutFormControls = new NormalizedString();
 
-    htmlElementsWithMouseActionListener = new HashMap<>();
-    for (final MouseAction tmpMouseAction : MouseAction.values()) {
-      htmlElementsWithMouseActionListener.put(tmpMouseAction, new HashSet<>());
+      nodes = new ArrayList<>(256);
+      ordinals = new IdentityHashMap<>(256);
+      startPositions = new int[256];
+      endPositions = new int[256];
+      startPositionsWithoutFormControls = new int[256];
+      endPositionsWithoutFormControls = new int[256];
+      hierarchies = new ArrayList<>(256);
+
+      // LinkedHashSet to preserve the order and have a fast contains
+      visibleHtmlElements = new LinkedHashSet<>();
+
+      modificationCounts = new HashMap<>();
+      formControlValues = new HashMap<>();
+
+      parseHtmlPage(htmlPage, null);
+      indexed = true;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if neither the DOM of the indexed page (including all frames) nor the value of a form
+   * control has changed since this index was created.
+   *
+   * @return <code>true</code> if the index still represents the page
+   */
+  public boolean isUpToDate() {
+    if (!indexed) {
+      // the page will be indexed in the state it has at the first access
+      return DomChangeTracker.getFor(htmlPage).getModificationCount() == modificationCount;
     }
 
-    parseDomNode(aHtmlPage, null, EnumSet.noneOf(MouseAction.class));
+    for (final Map.Entry<HtmlPage, Long> tmpEntry : modificationCounts.entrySet()) {
+      final HtmlPage tmpHtmlPage = tmpEntry.getKey();
+      // a frame may have loaded another page in between
+      if (tmpHtmlPage.getEnclosingWindow().getEnclosedPage() != tmpHtmlPage
+          || DomChangeTracker.getFor(tmpHtmlPage).getModificationCount() != tmpEntry.getValue()) {
+        return false;
+      }
+    }
+    for (final Map.Entry<HtmlElement, String> tmpEntry : formControlValues.entrySet()) {
+      if (!StringUtils.equals(tmpEntry.getValue(), getFormControlValue(tmpEntry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -163,6 +284,7 @@ public class HtmlPageIndex {
    * @return the whole text
    */
   public String getText() {
+    ensureIndexed();
     return text.toString();
   }
 
@@ -172,6 +294,7 @@ public class HtmlPageIndex {
    * @return the whole text
    */
   public String getTextWithoutFormControls() {
+    ensureIndexed();
     return textWithoutFormControls.toString();
   }
 
@@ -181,16 +304,72 @@ public class HtmlPageIndex {
    * @return an ordered set of all visible {@link HtmlElement}s
    */
   public Set<HtmlElement> getAllVisibleHtmlElements() {
+    ensureIndexed();
     return visibleHtmlElements;
   }
 
+  /**
+   * Returns all visible {@link HtmlElement}s being an instance of one of the given types.
+   *
+   * @param aTypes the types of the elements
+   * @return an ordered set of all visible {@link HtmlElement}s of the given types
+   */
+  public Set<HtmlElement> getAllVisibleHtmlElements(final Collection<Class<? extends HtmlElement>> aTypes) {
+    final List<Set<HtmlElement>> tmpMatchingTypes = new ArrayList<>();
+    int tmpSize = 0;
+    for (final Map.Entry<Class<?>, Set<HtmlElement>> tmpEntry : visibleHtmlElementsByType.get().entrySet()) {
+      for (final Class<? extends HtmlElement> tmpType : aTypes) {
+        if (tmpType.isAssignableFrom(tmpEntry.getKey())) {
+          tmpMatchingTypes.add(tmpEntry.getValue());
+          tmpSize += tmpEntry.getValue().size();
+          break;
+        }
+      }
+    }
+
+    if (tmpMatchingTypes.isEmpty()) {
+      return Collections.emptySet();
+    }
+    if (tmpMatchingTypes.size() == 1) {
+      return tmpMatchingTypes.get(0);
+    }
+
+    // every set is in document order; merge them by the ordinals of the elements
+    final List<HtmlElement> tmpElements = new ArrayList<>(tmpSize);
+    for (final Set<HtmlElement> tmpElementsOfType : tmpMatchingTypes) {
+      tmpElements.addAll(tmpElementsOfType);
+    }
+    tmpElements.sort(Comparator.comparingInt(this::getOrdinal));
+    return new LinkedHashSet<>(tmpElements);
+  }
+
+  /**
+   * Returns all visible {@link HtmlElement}s having the given value for the given attribute.<br>
+   * Only the attributes 'id', 'name', 'data-testid', 'aria-label' and 'placeholder' are indexed.
+   *
+   * @param anAttributeName the name of the attribute
+   * @param aValue the value of the attribute
+   * @return an ordered set of all visible {@link HtmlElement}s having the given attribute value
+   */
+  public Set<HtmlElement> getVisibleHtmlElementsByAttribute(final String anAttributeName, final String aValue) {
+    final Map<String, Set<HtmlElement>> tmpValues = visibleHtmlElementsByAttribute.get().get(anAttributeName);
+    if (null == tmpValues) {
+      throw new IllegalArgumentException("The attribute '" + anAttributeName + "' is not indexed.");
+    }
+    final Set<HtmlElement> tmpResult = tmpValues.get(aValue);
+    if (null == tmpResult) {
+      return Collections.emptySet();
+    }
+    return tmpResult;
+  }
+
   /**
    * Returns an ordered set of all visible {@link HtmlElement}s starting with the last leaf.
    *
    * @return an ordered set of all visible {@link HtmlElement}s
    */
   public Set<HtmlElement> getAllVisibleHtmlElementsBottomUp() {
-    return visibleHtmlElementsBottomUp;
+    return visibleHtmlElementsBottomUp.get();
   }
 
   /**
@@ -200,6 +379,7 @@ public class HtmlPageIndex {
    * @return <code>true</code> if the given {@link HtmlElement} is visible, <code>false</code> otherwise
    */
   public boolean isVisible(final HtmlElement anHtmlElement) {
+    ensureIndexed();
     return visibleHtmlElements.contains(anHtmlElement);
   }
 
@@ -210,7 +390,8 @@ public class HtmlPageIndex {
    * @return the position
    */
   public int getIndex(final HtmlElement anHtmlElement) {
-    final int tmpResult = nodes.indexOf(anHtmlElement);
+    ensureIndexed();
+    final int tmpResult = getOrdinal(anHtmlElement);
     if (tmpResult < 0) {
       LOG.error("No index found for HtmlElement: " + anHtmlElement.toString());
       dumpToLog();
@@ -225,12 +406,14 @@ public class HtmlPageIndex {
    * @return the position
    */
   public FindSpot getPosition(final HtmlElement anHtmlElement) {
-    final FindSpot tmpResult = positions.get(anHtmlElement);
-    if (null == tmpResult) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(anHtmlElement);
+    if (tmpOrdinal < 0) {
       LOG.error("No position found for HtmlElement: " + anHtmlElement.toString());
       dumpToLog();
+      return null;
     }
-    return tmpResult;
+    return new FindSpot(startPositions[tmpOrdinal], endPositions[tmpOrdinal]);
   }
 
   /**
@@ -239,13 +422,15 @@ public class HtmlPageIndex {
    * @param anHtmlElement the element
    * @return the position
    */
-  public String getHierarchy(final HtmlElement anHtmlElement) {
-    final String tmpResult = hierarchies.get(anHtmlElement);
-    if (null == tmpResult) {
+  public NodeHierarchy getHierarchy(final HtmlElement anHtmlElement) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(anHtmlElement);
+    if (tmpOrdinal < 0) {
       LOG.error("No hierarchy found for HtmlElement: " + anHtmlElement.toString());
       dumpToLog();
+      return null;
     }
-    return tmpResult;
+    return hierarchies.get(tmpOrdinal);
   }
 
   /**
@@ -255,6 +440,7 @@ public class HtmlPageIndex {
    * @return the position
    */
   public FindSpot firstOccurence(final SearchPattern aSearchPattern) {
+    ensureIndexed();
     return aSearchPattern.firstOccurenceIn(text.toString(), 0);
   }
 
@@ -266,6 +452,7 @@ public class HtmlPageIndex {
    * @return the position
    */
   public FindSpot firstOccurence(final SearchPattern aSearchPattern, final int aStartPos) {
+    ensureIndexed();
     return aSearchPattern.firstOccurenceIn(text.toString(), aStartPos);
   }
 
@@ -276,11 +463,12 @@ public class HtmlPageIndex {
    * @return the text before the node
    */
   public String getTextBefore(final DomNode aDomNode) {
-    final FindSpot tmpFindSpot = positions.get(aDomNode);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(aDomNode);
+    if (tmpOrdinal < 0) {
       return null;
     }
-    return textSubstring(0, tmpFindSpot.getStartPos());
+    return textSubstring(0, startPositions[tmpOrdinal]);
   }
 
   /**
@@ -290,11 +478,12 @@ public class HtmlPageIndex {
    * @return the text before the node
    */
   public String getTextBeforeIncludingMyself(final DomNode aDomNode) {
-    final FindSpot tmpFindSpot = positions.get(aDomNode);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(aDomNode);
+    if (tmpOrdinal < 0) {
       return null;
     }
-    return textSubstring(0, tmpFindSpot.getEndPos());
+    return textSubstring(0, endPositions[tmpOrdinal]);
   }
 
   /**
@@ -305,30 +494,31 @@ public class HtmlPageIndex {
    * @return the labeling text before
    */
   public String getLabelingTextBefore(final HtmlElement anHtmlElement, final int aStartPos) {
-    final FindSpot tmpFindSpot = positions.get(anHtmlElement);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(anHtmlElement);
+    if (tmpOrdinal < 0) {
       return null;
     }
+    final int tmpElementStartPos = startPositions[tmpOrdinal];
 
     final HtmlForm tmpCurrentForm = anHtmlElement.getEnclosingForm();
     int tmpStartPos = 0;
-    final ListIterator<DomNode> tmpIter = nodes.listIterator(nodes.indexOf(anHtmlElement));
-    while (tmpIter.hasPrevious()) {
-      final DomNode tmpNode = tmpIter.previous();
+    for (int i = tmpOrdinal - 1; i >= 0; i--) {
+      final DomNode tmpNode = nodes.get(i);
 
       if (tmpNode instanceof HtmlBody) {
         // don't use the end pos of the body
-        tmpStartPos = positions.get(tmpNode).getStartPos();
+        tmpStartPos = startPositions[i];
         break;
       }
 
       // we have to stop if we found some other (visible) form control
       if (tmpNode instanceof SubmittableElement && !(tmpNode instanceof HtmlHiddenInput)) {
-        tmpStartPos = positions.get(tmpNode).getEndPos();
+        tmpStartPos = endPositions[i];
 
         // the searched control is chained directly after a leading control or placed inside a button tag
-        if (tmpStartPos <= tmpFindSpot.getStartPos()) {
-          final String tmpText = textSubstring(Math.max(tmpStartPos, aStartPos), tmpFindSpot.getStartPos());
+        if (tmpStartPos <= tmpElementStartPos) {
+          final String tmpText = textSubstring(Math.max(tmpStartPos, aStartPos), tmpElementStartPos);
           if (StringUtils.isNotEmpty(tmpText)) {
             return tmpText;
           }
@@ -340,13 +530,13 @@ public class HtmlPageIndex {
         final HtmlForm tmpForm = ((HtmlElement) tmpNode).getEnclosingForm();
         // we are reaching another form
         if (null != tmpForm && tmpForm != tmpCurrentForm) {
-          tmpStartPos = positions.get(tmpNode).getEndPos();
+          tmpStartPos = endPositions[i];
           break;
         }
       }
     }
 
-    return textSubstring(Math.max(tmpStartPos, aStartPos), tmpFindSpot.getStartPos());
+    return textSubstring(Math.max(tmpStartPos, aStartPos), tmpElementStartPos);
   }
 
   /**
@@ -356,23 +546,21 @@ public class HtmlPageIndex {
    * @return the labeling text after
    */
   public String getLabelingTextAfter(final HtmlElement anHtmlElement) {
-    final FindSpot tmpFindSpot = positions.get(anHtmlElement);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(anHtmlElement);
+    if (tmpOrdinal < 0) {
       return null;
     }
 
     final HtmlForm tmpCurrentForm = anHtmlElement.getEnclosingForm();
     int tmpEndPos = text.length();
-    final ListIterator<DomNode> tmpIter = nodes.listIterator(nodes.indexOf(anHtmlElement));
     // start with the next element
-    tmpIter.next();
-
-    while (tmpIter.hasNext()) {
-      final DomNode tmpNode = tmpIter.next();
+    for (int i = tmpOrdinal + 1; i < nodes.size(); i++) {
+      final DomNode tmpNode = nodes.get(i);
 
       // we have to stop if we found some other (visible) form control
       if (tmpNode instanceof SubmittableElement && !(tmpNode instanceof HtmlHiddenInput)) {
-        tmpEndPos = positions.get(tmpNode).getStartPos();
+        tmpEndPos = startPositions[i];
         break;
       }
 
@@ -381,13 +569,13 @@ public class HtmlPageIndex {
         final HtmlForm tmpForm = ((HtmlElement) tmpNode).getEnclosingForm();
         // we are reaching another form
         if (null != tmpCurrentForm && tmpForm != tmpCurrentForm) {
-          tmpEndPos = positions.get(tmpNode).getStartPos();
+          tmpEndPos = startPositions[i];
           break;
         }
       }
     }
 
-    return textSubstring(tmpFindSpot.getEndPos(), tmpEndPos);
+    return textSubstring(endPositions[tmpOrdinal], tmpEndPos);
   }
 
   /**
@@ -397,11 +585,12 @@ public class HtmlPageIndex {
    * @return the text
    */
   public String getAsText(final DomNode aDomNode) {
-    final FindSpot tmpFindSpot = positions.get(aDomNode);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(aDomNode);
+    if (tmpOrdinal < 0) {
       return null;
     }
-    return textSubstring(tmpFindSpot.getStartPos(), tmpFindSpot.getEndPos());
+    return textSubstring(startPositions[tmpOrdinal], endPositions[tmpOrdinal]);
   }
 
   /**
@@ -412,12 +601,14 @@ public class HtmlPageIndex {
    * @return the text
    */
   public String getAsTextWithoutFormControls(final DomNode aDomNode) {
-    final FindSpot tmpFindSpot = positionsWithoutFormControls.get(aDomNode);
-    if (null == tmpFindSpot) {
+    ensureIndexed();
+    final int tmpOrdinal = getOrdinal(aDomNode);
+    if (tmpOrdinal < 0) {
       return null;
     }
 
-    return textWithoutFormControls.substring(tmpFindSpot.getStartPos(), tmpFindSpot.getEndPos());
+    return textWithoutFormControls.substring(startPositionsWithoutFormControls[tmpOrdinal],
+        endPositionsWithoutFormControls[tmpOrdinal]);
   }
 
   /**
@@ -428,48 +619,146 @@ public class HtmlPageIndex {
    * @return <code>true</code> if the given element has an event listener for the given {@link MouseAction}
    */
   public boolean hasMouseActionListener(final MouseAction aMouseAction, final HtmlElement anHtmlElement) {
-    return htmlElementsWithMouseActionListener.get(aMouseAction).contains(anHtmlElement);
+    return htmlElementsWithMouseActionListener.get().get(aMouseAction).contains(anHtmlElement);
   }
 
-  private void parseDomNode(final DomNode aDomNode, final String aParentHierarchy,
-      final Set<MouseAction> aParentMouseActions) {
-    if (null == aDomNode) {
-      return;
+  /**
+   * Collects the elements having a mouse action listener if not already done.<br>
+   * This needs the javascript engine of the page, which is not available in other threads; therefore this has to be
+   * called by the thread of the page before {@link #hasMouseActionListener(MouseAction, HtmlElement)} is used by
+   * worker threads.
+   */
+  public void prepareMouseActionListeners() {
+    htmlElementsWithMouseActionListener.get();
+  }
+
+  private Set<HtmlElement> collectVisibleHtmlElementsBottomUp() {
+    ensureIndexed();
+
+    // the nodes are in document order; a node is finished as soon as we reach a node
+    // that is not a descendant of it
+    final Set<HtmlElement> tmpResult = new LinkedHashSet<>();
+    final int[] tmpOpenNodes = new int[nodes.size()];
+    int tmpOpenCount = 0;
+    for (int i = 0; i < nodes.size(); i++) {
+      final NodeHierarchy tmpParent = hierarchies.get(i).getParent();
+      final int tmpParentOrdinal = null == tmpParent ? -1 : tmpParent.getIndex();
+      while (tmpOpenCount > 0 && tmpOpenNodes[tmpOpenCount - 1] != tmpParentOrdinal) {
+        tmpOpenCount--;
+        addIfVisible(tmpResult, nodes.get(tmpOpenNodes[tmpOpenCount]));
+      }
+      tmpOpenNodes[tmpOpenCount++] = i;
     }
-    nodes.add(aDomNode);
+    while (tmpOpenCount > 0) {
+      tmpOpenCount--;
+      addIfVisible(tmpResult, nodes.get(tmpOpenNodes[tmpOpenCount]));
+    }
+    return tmpResult;
+  }
 
-    FindSpot tmpFindSpot = new FindSpot();
-    // mark start position of the DOM node
-    tmpFindSpot.setStartPos(text.length());
-    positions.put(aDomNode, tmpFindSpot);
+  private void addIfVisible(final Set<HtmlElement> aVisibleHtmlElements, final DomNode aDomNode) {
+    if (aDomNode instanceof HtmlElement && visibleHtmlElements.contains(aDomNode)) {
+      aVisibleHtmlElements.add((HtmlElement) aDomNode);
+    }
+  }
 
-    FindSpot tmpFindSpotWFC = new FindSpot();
-    tmpFindSpotWFC.setStartPos(textWithoutFormControls.length());
-    positionsWithoutFormControls.put(aDomNode, tmpFindSpotWFC);
+  private Map<Class<?>, Set<HtmlElement>> collectVisibleHtmlElementsByType() {
+    ensureIndexed();
 
-    final String tmpHierarchy;
-    if (aParentHierarchy == null) {
-      tmpHierarchy = String.valueOf(nodes.indexOf(aDomNode));
-    } else {
-      tmpHierarchy = aParentHierarchy + HIERARCHY_DELIMITER + nodes.indexOf(aDomNode);
+    final Map<Class<?>, Set<HtmlElement>> tmpResult = new LinkedHashMap<>();
+    for (final HtmlElement tmpHtmlElement : visibleHtmlElements) {
+      tmpResult.computeIfAbsent(tmpHtmlElement.getClass(), k -> new LinkedHashSet<>()).add(tmpHtmlElement);
     }
-    hierarchies.put(aDomNode, tmpHierarchy);
+    return tmpResult;
+  }
 
-    Set<MouseAction> tmpMouseActions = aParentMouseActions;
+  private Map<String, Map<String, Set<HtmlElement>>> collectVisibleHtmlElementsByAttribute() {
+    ensureIndexed();
+
+    final Map<String, Map<String, Set<HtmlElement>>> tmpResult = new HashMap<>();
+    for (final String tmpAttribute : INDEXED_ATTRIBUTES) {
+      final Map<String, Set<HtmlElement>> tmpValues = new HashMap<>();
+      for (final HtmlElement tmpHtmlElement : visibleHtmlElements) {
+        final String tmpValue = tmpHtmlElement.getAttribute(tmpAttribute);
+        if (StringUtils.isNotEmpty(tmpValue)) {
+          tmpValues.computeIfAbsent(tmpValue, k -> new LinkedHashSet<>()).add(tmpHtmlElement);
+        }
+      }
+      tmpResult.put(tmpAttribute, tmpValues);
+    }
+    return tmpResult;
+  }
 
-    if (aDomNode.isDisplayed()) {
-      final boolean tmpIsHtmlElement = aDomNode instanceof HtmlElement;
-      if (tmpIsHtmlElement) {
-        final HtmlElement tmpHtmlElement = (HtmlElement) aDomNode;
-        visibleHtmlElements.add(tmpHtmlElement);
+  private Map<MouseAction, Set<HtmlElement>> collectHtmlElementsWithMouseActionListener() {
+    ensureIndexed();
 
+    final Map<MouseAction, Set<HtmlElement>> tmpResult = new HashMap<>();
+    for (final MouseAction tmpMouseAction : MouseAction.values()) {
+      tmpResult.put(tmpMouseAction, new HashSet<>());
+    }
+
+    // the mouse actions passed down to the children of a node; indexed by the ordinal of the node
+    final List<Set<MouseAction>> tmpChildMouseActions = new ArrayList<>(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      final DomNode tmpDomNode = nodes.get(i);
+      final NodeHierarchy tmpParent = hierarchies.get(i).getParent();
+
+      Set<MouseAction> tmpMouseActions;
+      if (null == tmpParent || tmpDomNode instanceof HtmlPage) {
+        // events are not propagated through the frame 'border' -> start with fresh mouse actions
+        tmpMouseActions = EnumSet.noneOf(MouseAction.class);
+      } else {
+        tmpMouseActions = tmpChildMouseActions.get(tmpParent.getIndex());
+      }
+
+      if (tmpDomNode instanceof HtmlElement && visibleHtmlElements.contains(tmpDomNode)) {
+        final HtmlElement tmpHtmlElement = (HtmlElement) tmpDomNode;
         if (!(tmpHtmlElement instanceof HtmlHtml || tmpHtmlElement instanceof HtmlBody)) {
           // we exclude HtmlHtml and HtmlBody from action scanning because otherwise all elements on the page would be
           // e.g. clickable (there are some js libs that add such event listeners to html or body)
           tmpMouseActions = getAvailableMouseActions(tmpHtmlElement, tmpMouseActions);
-          tmpMouseActions.forEach(a -> htmlElementsWithMouseActionListener.get(a).add(tmpHtmlElement));
+          tmpMouseActions.forEach(a -> tmpResult.get(a).add(tmpHtmlElement));
+        }
+
+        // the content of a button or an anchor with href should also be marked as 'clickable'
+        if ((tmpHtmlElement instanceof HtmlButton || tmpHtmlElement instanceof HtmlAnchor
+            && DomElement.ATTRIBUTE_NOT_DEFINED != ((HtmlAnchor) tmpHtmlElement).getHrefAttribute())
+            && !tmpMouseActions.contains(MouseAction.CLICK)) {
+          tmpMouseActions = copyAndAdd(tmpMouseActions, MouseAction.CLICK);
         }
       }
+      tmpChildMouseActions.add(tmpMouseActions);
+    }
+    return tmpResult;
+  }
+
+  private void parseHtmlPage(final HtmlPage aHtmlPage, final NodeHierarchy aParentHierarchy) {
+    final DomChangeTracker tmpParentTracker = domChangeTracker;
+    domChangeTracker = DomChangeTracker.getFor(aHtmlPage);
+    modificationCounts.put(aHtmlPage, domChangeTracker.getModificationCount());
+
+    parseDomNode(aHtmlPage, aParentHierarchy);
+
+    domChangeTracker = tmpParentTracker;
+  }
+
+  private void parseDomNode(final DomNode aDomNode, final NodeHierarchy aParentHierarchy) {
+    if (null == aDomNode) {
+      return;
+    }
+    final int tmpOrdinal = addNode(aDomNode);
+
+    // mark start position of the DOM node
+    startPositions[tmpOrdinal] = text.length();
+    startPositionsWithoutFormControls[tmpOrdinal] = textWithoutFormControls.length();
+
+    final NodeHierarchy tmpHierarchy = new NodeHierarchy(aParentHierarchy, tmpOrdinal);
+    hierarchies.add(tmpHierarchy);
+
+    if (domChangeTracker.isDisplayed(aDomNode)) {
+      if (aDomNode instanceof HtmlElement) {
+        visibleHtmlElements.add((HtmlElement) aDomNode);
+      }
 
       if (aDomNode instanceof HtmlHiddenInput || aDomNode instanceof HtmlScript || aDomNode instanceof HtmlStyle
           || aDomNode instanceof HtmlFileInput || aDomNode instanceof DomComment || aDomNode instanceof HtmlHead
@@ -483,11 +772,11 @@ public class HtmlPageIndex {
       } else if (aDomNode instanceof HtmlButtonInput) {
         appendHtmlButtonInput((HtmlButtonInput) aDomNode);
       } else if (aDomNode instanceof HtmlCheckBoxInput) {
-        appendHtmlCheckBoxInput((HtmlCheckBoxInput) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlCheckBoxInput((HtmlCheckBoxInput) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlImageInput) {
         appendHtmlImageInput((HtmlImageInput) aDomNode);
       } else if (aDomNode instanceof HtmlRadioButtonInput) {
-        appendHtmlRadioButtonInput((HtmlRadioButtonInput) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlRadioButtonInput((HtmlRadioButtonInput) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlResetInput) {
         appendHtmlResetInput((HtmlResetInput) aDomNode);
       } else if (aDomNode instanceof HtmlSubmitInput) {
@@ -495,7 +784,7 @@ public class HtmlPageIndex {
       } else if (aDomNode instanceof HtmlInput) {
         appendHtmlInput((HtmlInput) aDomNode);
       } else if (aDomNode instanceof HtmlButton) {
-        appendHtmlButton((HtmlButton) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlButton((HtmlButton) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlFrame) {
         appendHtmlFrame((HtmlFrame) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlImage) {
@@ -503,55 +792,74 @@ public class HtmlPageIndex {
       } else if (aDomNode instanceof HtmlInlineFrame) {
         appendHtmlInlineFrame((HtmlInlineFrame) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlInlineQuotation) {
-        appendHtmlInlineQuotation((HtmlInlineQuotation) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlInlineQuotation((HtmlInlineQuotation) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlLabel) {
-        appendHtmlLabel((HtmlLabel) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlLabel((HtmlLabel) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlLegend) {
-        appendHtmlLegend((HtmlLegend) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlLegend((HtmlLegend) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlObject) {
-        appendHtmlObject((HtmlObject) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlObject((HtmlObject) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlOptionGroup) {
         appendHtmlOptionGroup((HtmlOptionGroup) aDomNode);
       } else if (aDomNode instanceof HtmlOrderedList) {
-        appendHtmlOrderedList((HtmlOrderedList) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlOrderedList((HtmlOrderedList) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlSelect) {
-        appendHtmlSelect((HtmlSelect) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlSelect((HtmlSelect) aDomNode, tmpHierarchy);
       } else if (aDomNode instanceof HtmlTextArea) {
-        appendHtmlTextArea((HtmlTextArea) aDomNode, tmpHierarchy, tmpMouseActions);
+        appendHtmlTextArea((HtmlTextArea) aDomNode, tmpHierarchy);
       } else {
-        if (aDomNode instanceof HtmlAnchor
-            && DomElement.ATTRIBUTE_NOT_DEFINED != ((HtmlAnchor) aDomNode).getHrefAttribute()
-            && !tmpMouseActions.contains(MouseAction.CLICK)) {
-          // the content of an anchor with href should also be marked as 'clickable'
-          tmpMouseActions = copyAndAdd(tmpMouseActions, MouseAction.CLICK);
-        }
-
         final boolean tmpIsBlock = HtmlElementUtil.isBlock(aDomNode);
         if (tmpIsBlock) {
           text.appendBlank();
           textWithoutFormControls.appendBlank();
         }
-        parseChildren(aDomNode, tmpHierarchy, tmpMouseActions);
+        parseChildren(aDomNode, tmpHierarchy);
         if (tmpIsBlock) {
           text.appendBlank();
           textWithoutFormControls.appendBlank();
         }
       }
-
-      if (tmpIsHtmlElement) {
-        visibleHtmlElementsBottomUp.add((HtmlElement) aDomNode);
-      }
     } else {
       // the node is not visible but maybe a child node
-      parseChildren(aDomNode, tmpHierarchy, tmpMouseActions);
+      parseChildren(aDomNode, tmpHierarchy);
     }
 
     // mark end position of the DOM node
-    tmpFindSpot = positions.get(aDomNode);
-    tmpFindSpot.setEndPos(text.length());
+    endPositions[tmpOrdinal] = text.length();
+    endPositionsWithoutFormControls[tmpOrdinal] = textWithoutFormControls.length();
+  }
+
+  /**
+   * Adds the node to the list of nodes.
+   *
+   * @param aDomNode the node to add
+   * @return the ordinal of the node
+   */
+  private int addNode(final DomNode aDomNode) {
+    final int tmpOrdinal = nodes.size();
+    nodes.add(aDomNode);
+    ordinals.put(aDomNode, tmpOrdinal);
+
+    if (tmpOrdinal == startPositions.length) {
+      final int tmpNewLength = tmpOrdinal * 2;
+      startPositions = Arrays.copyOf(startPositions, tmpNewLength);
+      endPositions = Arrays.copyOf(endPositions, tmpNewLength);
+      startPositionsWithoutFormControls = Arrays.copyOf(startPositionsWithoutFormControls, tmpNewLength);
+      endPositionsWithoutFormControls = Arrays.copyOf(endPositionsWithoutFormControls, tmpNewLength);
+    }
+    return tmpOrdinal;
+  }
 
-    tmpFindSpotWFC = positionsWithoutFormControls.get(aDomNode);
-    tmpFindSpotWFC.setEndPos(textWithoutFormControls.length());
+  /**
+   * @param aDomNode the node
+   * @return the ordinal of the node or -1 if the node is not part of this index
+   */
+  private int getOrdinal(final DomNode aDomNode) {
+    final Integer tmpOrdinal = ordinals.get(aDomNode);
+    if (null == tmpOrdinal) {
+      return -1;
+    }
+    return tmpOrdinal.intValue();
   }
 
   private Set<MouseAction> getAvailableMouseActions(final HtmlElement aHtmlElement,
@@ -598,13 +906,13 @@ public class HtmlPageIndex {
   private Set<MouseAction> copyAndAdd(final Set<MouseAction> aCurrentMouseActions,
       final MouseAction... aNewMouseActions) {
     final Set<MouseAction> tmpMouseActions = EnumSet.copyOf(aCurrentMouseActions);
-      tmpMouseActions.addAll(Arrays.asList(aNewMouseActions));
+    tmpMouseActions.addAll(Arrays.asList(aNewMouseActions));
     return tmpMouseActions;
   }
 
-  private void parseChildren(final DomNode aNode, final String aHierarchy, final Set<MouseAction> aMouseActions) {
+  private void parseChildren(final DomNode aNode, final NodeHierarchy aHierarchy) {
     for (final DomNode tmpChild : aNode.getChildren()) {
-      parseDomNode(tmpChild, aHierarchy, aMouseActions);
+      parseDomNode(tmpChild, aHierarchy);
     }
   }
 
@@ -618,21 +926,15 @@ public class HtmlPageIndex {
     }
 
     if (tmpParent != null) {
-      final HtmlElement tmpParentHtmlElement = (HtmlElement) tmpParent;
-      final ComputedCssStyleDeclaration tmpStyle = tmpParentHtmlElement.getPage().getEnclosingWindow()
-          .getComputedStyle(tmpParentHtmlElement, null);
-
-      if (tmpStyle != null) {
-        final String tmpTransform = tmpStyle.getStyleAttribute(Definition.TEXT_TRANSFORM, true);
-
-        // for the moment we do not depend on the html lang attribute
-        if ("uppercase".equalsIgnoreCase(tmpTransform)) {
-          tmpTxt = tmpTxt.toUpperCase(Locale.ROOT);
-        } else if ("lowercase".equalsIgnoreCase(tmpTransform)) {
-          tmpTxt = tmpTxt.toLowerCase(Locale.ROOT);
-        } else if ("capitalize".equalsIgnoreCase(tmpTransform)) {
-          tmpTxt = WordUtils.capitalize(tmpTxt);
-        }
+      final String tmpTransform = domChangeTracker.getTextTransform((HtmlElement) tmpParent);
+
+      // for the moment we do not depend on the html lang attribute
+      if ("uppercase".equalsIgnoreCase(tmpTransform)) {
+        tmpTxt = tmpTxt.toUpperCase(Locale.ROOT);
+      } else if ("lowercase".equalsIgnoreCase(tmpTransform)) {
+        tmpTxt = tmpTxt.toLowerCase(Locale.ROOT);
+      } else if ("capitalize".equalsIgnoreCase(tmpTransform)) {
+        tmpTxt = WordUtils.capitalize(tmpTxt);
       }
     }
 
@@ -640,18 +942,11 @@ public class HtmlPageIndex {
     textWithoutFormControls.append(tmpTxt);
   }
 
-  private void appendHtmlButton(final HtmlButton anHtmlButton, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
-    Set<MouseAction> tmpMouseActions = aMouseActions;
-    if (!tmpMouseActions.contains(MouseAction.CLICK)) {
-      // the content of a button should also be marked as 'clickable'
-      tmpMouseActions = copyAndAdd(tmpMouseActions, MouseAction.CLICK);
-    }
-
+  private void appendHtmlButton(final HtmlButton anHtmlButton, final NodeHierarchy aHierarchy) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
     textWithoutFormControls.disableAppend();
-    parseChildren(anHtmlButton, aHierarchy, tmpMouseActions);
+    parseChildren(anHtmlButton, aHierarchy);
     textWithoutFormControls.enableAppend();
     text.appendBlank();
     textWithoutFormControls.appendBlank();
@@ -660,24 +955,24 @@ public class HtmlPageIndex {
   private void appendHtmlButtonInput(final HtmlButtonInput anHtmlButtonInput) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
-    text.append(anHtmlButtonInput.getValue());
+    final String tmpValue = getFormControlValue(anHtmlButtonInput);
+    formControlValues.put(anHtmlButtonInput, tmpValue);
+    text.append(tmpValue);
     text.appendBlank();
   }
 
-  private void appendHtmlCheckBoxInput(final HtmlCheckBoxInput anHtmlCheckBoxInput, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlCheckBoxInput(final HtmlCheckBoxInput anHtmlCheckBoxInput, final NodeHierarchy aHierarchy) {
     textWithoutFormControls.disableAppend();
-    parseChildren(anHtmlCheckBoxInput, aHierarchy, aMouseActions);
+    parseChildren(anHtmlCheckBoxInput, aHierarchy);
     textWithoutFormControls.enableAppend();
     text.appendBlank();
     textWithoutFormControls.appendBlank();
   }
 
-  private void appendHtmlFrame(final HtmlFrame anHtmlFrame, final String aHierarchy) {
+  private void appendHtmlFrame(final HtmlFrame anHtmlFrame, final NodeHierarchy aHierarchy) {
     final Page tmpPage = anHtmlFrame.getEnclosedPage();
     if (tmpPage instanceof HtmlPage) {
-      // events are not propagated through the frame 'border' -> start with fresh mouse actions
-      parseDomNode((HtmlPage) tmpPage, aHierarchy, EnumSet.noneOf(MouseAction.class));
+      parseHtmlPage((HtmlPage) tmpPage, aHierarchy);
     }
   }
 
@@ -697,56 +992,53 @@ public class HtmlPageIndex {
     text.appendBlank();
   }
 
-  private void appendHtmlInlineFrame(final HtmlInlineFrame anHtmlInlineFrame, final String aHierarchy) {
+  private void appendHtmlInlineFrame(final HtmlInlineFrame anHtmlInlineFrame, final NodeHierarchy aHierarchy) {
     final Page tmpPage = anHtmlInlineFrame.getEnclosedPage();
     if (tmpPage instanceof HtmlPage) {
-      // events are not propagated through the iframe 'border' -> start with fresh mouse actions
-      parseDomNode((HtmlPage) tmpPage, aHierarchy, EnumSet.noneOf(MouseAction.class));
+      parseHtmlPage((HtmlPage) tmpPage, aHierarchy);
     }
   }
 
-  private void appendHtmlInlineQuotation(final HtmlInlineQuotation anHtmlInlineQuotation, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlInlineQuotation(final HtmlInlineQuotation anHtmlInlineQuotation,
+      final NodeHierarchy aHierarchy) {
     text.append("\"");
     textWithoutFormControls.append("\"");
-    parseChildren(anHtmlInlineQuotation, aHierarchy, aMouseActions);
+    parseChildren(anHtmlInlineQuotation, aHierarchy);
     text.append("\"");
     textWithoutFormControls.append("\"");
   }
 
   private void appendHtmlInput(final HtmlInput anHtmlInput) {
-    String tmpValue = anHtmlInput.getValue();
+    String tmpValue = getFormControlValue(anHtmlInput);
+    formControlValues.put(anHtmlInput, tmpValue);
     if (StringUtils.isEmpty(tmpValue)) {
       tmpValue = anHtmlInput.getPlaceholder();
     }
     text.append(tmpValue);
   }
 
-  private void appendHtmlLabel(final HtmlLabel anHtmlLabel, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlLabel(final HtmlLabel anHtmlLabel, final NodeHierarchy aHierarchy) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
-    parseChildren(anHtmlLabel, aHierarchy, aMouseActions);
+    parseChildren(anHtmlLabel, aHierarchy);
     text.appendBlank();
     textWithoutFormControls.appendBlank();
   }
 
-  private void appendHtmlLegend(final HtmlLegend anHtmlLegend, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
-    parseChildren(anHtmlLegend, aHierarchy, aMouseActions);
+  private void appendHtmlLegend(final HtmlLegend anHtmlLegend, final NodeHierarchy aHierarchy) {
+    parseChildren(anHtmlLegend, aHierarchy);
     text.appendBlank();
     textWithoutFormControls.appendBlank();
   }
 
-  private void appendHtmlObject(final HtmlObject anHtmlObject, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlObject(final HtmlObject anHtmlObject, final NodeHierarchy aHierarchy) {
     text.append(" ");
     textWithoutFormControls.append(" ");
 
     // process childs only if the control is not supported
     final HTMLObjectElement tmpJsObject = anHtmlObject.getScriptableObject();
     if (null == tmpJsObject) {
-      parseChildren(anHtmlObject, aHierarchy, aMouseActions);
+      parseChildren(anHtmlObject, aHierarchy);
     }
 
     text.append(" ");
@@ -763,8 +1055,7 @@ public class HtmlPageIndex {
    *
    * @param anHtmlOrderedList the OL element
    */
-  private void appendHtmlOrderedList(final HtmlOrderedList anHtmlOrderedList, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlOrderedList(final HtmlOrderedList anHtmlOrderedList, final NodeHierarchy aHierarchy) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
 
@@ -780,24 +1071,22 @@ public class HtmlPageIndex {
         textWithoutFormControls.append(String.valueOf(i++));
         textWithoutFormControls.append(". ");
 
-        parseDomNode(tmpItem, aHierarchy, aMouseActions);
-        final FindSpot tmpFindSpot = positions.get(tmpItem);
-        tmpFindSpot.setStartPos(tmpStartPos);
-
-        final FindSpot tmpFindSpotWFC = positionsWithoutFormControls.get(tmpItem);
-        tmpFindSpotWFC.setStartPos(tmpStartPosWFC);
+        parseDomNode(tmpItem, aHierarchy);
+        final int tmpOrdinal = getOrdinal(tmpItem);
+        startPositions[tmpOrdinal] = tmpStartPos;
+        startPositionsWithoutFormControls[tmpOrdinal] = tmpStartPosWFC;
       } else {
-        parseDomNode(tmpItem, aHierarchy, aMouseActions);
+        parseDomNode(tmpItem, aHierarchy);
       }
     }
     text.appendBlank();
     textWithoutFormControls.appendBlank();
   }
 
-  private void appendHtmlRadioButtonInput(final HtmlRadioButtonInput anHtmlRadioButtonInput, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlRadioButtonInput(final HtmlRadioButtonInput anHtmlRadioButtonInput,
+      final NodeHierarchy aHierarchy) {
     textWithoutFormControls.disableAppend();
-    parseChildren(anHtmlRadioButtonInput, aHierarchy, aMouseActions);
+    parseChildren(anHtmlRadioButtonInput, aHierarchy);
     textWithoutFormControls.enableAppend();
     text.appendBlank();
     textWithoutFormControls.appendBlank();
@@ -806,18 +1095,19 @@ public class HtmlPageIndex {
   private void appendHtmlResetInput(final HtmlResetInput anHtmlResetInput) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
-    text.append(anHtmlResetInput.getValue());
+    final String tmpValue = getFormControlValue(anHtmlResetInput);
+    formControlValues.put(anHtmlResetInput, tmpValue);
+    text.append(tmpValue);
     text.appendBlank();
   }
 
-  private void appendHtmlSelect(final HtmlSelect anHtmlSelect, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlSelect(final HtmlSelect anHtmlSelect, final NodeHierarchy aHierarchy) {
     textWithoutFormControls.disableAppend();
     for (final DomNode tmpItem : anHtmlSelect.getHtmlElementDescendants()) {
       if (tmpItem instanceof HtmlOption || tmpItem instanceof HtmlOptionGroup) {
         text.appendBlank();
         textWithoutFormControls.appendBlank();
-        parseDomNode(tmpItem, aHierarchy, aMouseActions);
+        parseDomNode(tmpItem, aHierarchy);
       }
     }
     textWithoutFormControls.enableAppend();
@@ -828,16 +1118,18 @@ public class HtmlPageIndex {
   private void appendHtmlSubmitInput(final HtmlSubmitInput anHtmlSubmitInput) {
     text.appendBlank();
     textWithoutFormControls.appendBlank();
-    text.append(anHtmlSubmitInput.getValue());
+    final String tmpValue = getFormControlValue(anHtmlSubmitInput);
+    formControlValues.put(anHtmlSubmitInput, tmpValue);
+    text.append(tmpValue);
     text.appendBlank();
   }
 
-  private void appendHtmlTextArea(final HtmlTextArea anHtmlTextArea, final String aHierarchy,
-      final Set<MouseAction> aMouseActions) {
+  private void appendHtmlTextArea(final HtmlTextArea anHtmlTextArea, final NodeHierarchy aHierarchy) {
+    formControlValues.put(anHtmlTextArea, getFormControlValue(anHtmlTextArea));
     textWithoutFormControls.disableAppend();
 
     final int tmpOldLength = text.length();
-    parseChildren(anHtmlTextArea, aHierarchy, aMouseActions);
+    parseChildren(anHtmlTextArea, aHierarchy);
     if (text.length() == tmpOldLength) {
       text.append(anHtmlTextArea.getPlaceholder());
     }
@@ -845,6 +1137,13 @@ public class HtmlPageIndex {
     textWithoutFormControls.enableAppend();
   }
 
+  private static String getFormControlValue(final HtmlElement anHtmlElement) {
+    if (anHtmlElement instanceof HtmlTextArea) {
+      return ((HtmlTextArea) anHtmlElement).getText();
+    }
+    return ((HtmlInput) anHtmlElement).getValue();
+  }
+
   /**
    * Helper to generate log output in case our index seems to be wrong.
    * The usual java {@link IndexOutOfBoundsException} text has no param info.
@@ -867,20 +1166,21 @@ public class HtmlPageIndex {
    * Helper for debugging.
    */
   public void dumpToLog() {
-    final StringBuilder tmpLog = new StringBuilder(400).append(
-        "\n ---- HtmlPageIndex dump -------------------------------------------------------\n text                   : ")
-        .append(text).append('\n');
+    ensureIndexed();
+    final StringBuilder tmpLog = new StringBuilder(400)
+        .append("\n ---- HtmlPageIndex dump -------------------------------------------------------\n")
+        .append(" text                   : ").append(text).append('\n');
 
     // nodes/positions
-    for (final DomNode tmpDomNode : nodes) {
-      final FindSpot tmpPos = positions.get(tmpDomNode);
+    for (int i = 0; i < nodes.size(); i++) {
+      final DomNode tmpDomNode = nodes.get(i);
       // @formatter:off
       tmpLog.append("  ")
           .append(tmpDomNode.getNodeName())
           .append("  [")
-          .append(Integer.toString(tmpPos.getStartPos()))
+          .append(Integer.toString(startPositions[i]))
           .append(", ")
-          .append(Integer.toString(tmpPos.getEndPos()))
+          .append(Integer.toString(endPositions[i]))
           .append("]  ")
           .append(tmpDomNode.getClass().getName());
       // @formatter:on
@@ -895,4 +1195,36 @@ public class HtmlPageIndex {
     tmpLog.append(" ---- end HtmlPageIndex dump ---------------------------------------------------\n");
     LOG.error(tmpLog.toString());
   }
+
+  /**
+   * A value computed on first access; thread safe.
+   *
+   * @param <T> the type of the value
+   */
+  private static final class Lazy<T> {
+    private final Supplier<T> supplier;
+    private volatile T value;
+
+    Lazy(final Supplier<T> aSupplier) {
+      supplier = aSupplier;
+    }
+
+    T get() {
+      T tmpValue = value;
+      if (null == tmpValue) {
+        synchronized (this) {
+          tmpValue = value;
+          if (null == tmpValue) {
+            tmpValue = supplier.get();
+            value = tmpValue;
+          }
+        }
+      }
+      return tmpValue;
+    }
+
+    synchronized void reset() {
+      value = null;
+    }
+  }
 }
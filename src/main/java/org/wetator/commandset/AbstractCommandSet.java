@@ -52,6 +52,9 @@ public abstract class AbstractCommandSet implements ICommandSet {
 
   private static final Logger LOG = LogManager.getLogger(AbstractCommandSet.class);
 
+  // the number of found controls reported to the listeners
+  private static final int MAX_REPORTED_CONTROLS = 10;
+
   private final List<String> initializationMessages;
   private final Map<String, ICommandImplementation> commandImplementations;
   private final Map<String, CommandDescriptor> commandDescriptors;
@@ -200,7 +203,8 @@ public abstract class AbstractCommandSet implements ICommandSet {
 
   /**
    * Returns the first control from the WeightedControlList or null if no controls found.<br>
-   * If the list has elements for more than one control then some warnings are fired.
+   * If the list has elements for more than one control then some warnings are fired; only the best matching
+   * controls are reported.
    *
    * @param aContext the context
    * @param aWeightedControlList the WeightedControlList
@@ -213,7 +217,7 @@ public abstract class AbstractCommandSet implements ICommandSet {
       return null;
     }
 
-    final List<WeightedControlList.Entry> tmpEntries = aWeightedControlList.getEntriesSorted();
+    final List<WeightedControlList.Entry> tmpEntries = aWeightedControlList.getEntriesSorted(MAX_REPORTED_CONTROLS);
     final WeightedControlList.Entry tmpEntry = tmpEntries.get(0);
 
     if (tmpEntries.size() > 1) {
@@ -20,6 +20,8 @@ import java.math.BigDecimal;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.wetator.backend.WPath;
+import org.wetator.core.searchpattern.ContentPattern;
 import org.wetator.exception.InvalidInputException;
 import org.wetator.i18n.Messages;
 import org.wetator.util.SecretString;
@@ -183,6 +185,56 @@ public final class Command {
     return getRequiredParameterValue(getFirstParameter(), aContext, "emptyFirstParameter");
   }
 
+  /**
+   * Returns the first parameter as {@link WPath}.
+   *
+   * @param aContext the current {@link WetatorContext}
+   * @return the first parameter as {@link WPath} or an empty {@link WPath} if it was not set
+   * @throws InvalidInputException in case of an invalid {@link WPath}
+   */
+  public WPath getFirstParameterWPath(final WetatorContext aContext) throws InvalidInputException {
+    final Parameter tmpFirstParameter = getFirstParameter();
+    if (null == tmpFirstParameter) {
+      return new WPath(new SecretString(), aContext.getConfiguration());
+    }
+
+    return tmpFirstParameter.getWPath(aContext);
+  }
+
+  /**
+   * Returns the first parameter as {@link WPath}.
+   *
+   * @param aContext the current {@link WetatorContext}
+   * @return the first parameter as {@link WPath}
+   * @throws InvalidInputException if the first parameter was not set or in case of an invalid {@link WPath}
+   */
+  public WPath getRequiredFirstParameterWPath(final WetatorContext aContext) throws InvalidInputException {
+    final Parameter tmpFirstParameter = getFirstParameter();
+    if (null == tmpFirstParameter) {
+      throw invalidInput("emptyFirstParameter", getName());
+    }
+
+    return tmpFirstParameter.getWPath(aContext);
+  }
+
+  /**
+   * Returns the first parameter as {@link ContentPattern}.
+   *
+   * @param aContext the current {@link WetatorContext}
+   * @return the first parameter as {@link ContentPattern}
+   * @throws InvalidInputException if the first parameter was not set or in case of an invalid
+   *         {@link ContentPattern}
+   */
+  public ContentPattern getRequiredFirstParameterContentPattern(final WetatorContext aContext)
+      throws InvalidInputException {
+    final Parameter tmpFirstParameter = getFirstParameter();
+    if (null == tmpFirstParameter) {
+      throw invalidInput("emptyFirstParameter", getName());
+    }
+
+    return tmpFirstParameter.getContentPattern(aContext);
+  }
+
   /**
    * Returns the second parameter as {@link SecretString}.
    * The parameter is taken as is, not parsed.
@@ -256,6 +308,24 @@ public final class Command {
     return getRequiredParameterValue(getSecondParameter(), aContext, "emptySecondParameter");
   }
 
+  /**
+   * Returns the second parameter as {@link ContentPattern}.
+   *
+   * @param aContext the current {@link WetatorContext}
+   * @return the second parameter as {@link ContentPattern}
+   * @throws InvalidInputException if the second parameter was not set or in case of an invalid
+   *         {@link ContentPattern}
+   */
+  public ContentPattern getRequiredSecondParameterContentPattern(final WetatorContext aContext)
+      throws InvalidInputException {
+    final Parameter tmpSecondParameter = getSecondParameter();
+    if (null == tmpSecondParameter) {
+      throw invalidInput("emptySecondParameter", getName());
+    }
+
+    return tmpSecondParameter.getContentPattern(aContext);
+  }
+
   /**
    * Returns the list of {@link SecretString}s parsed from the second parameter.
    *
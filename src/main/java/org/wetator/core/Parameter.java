@@ -21,6 +21,9 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
+import org.wetator.backend.WPath;
+import org.wetator.core.searchpattern.ContentPattern;
+import org.wetator.exception.InvalidInputException;
 import org.wetator.util.SecretString;
 import org.wetator.util.StringUtil;
 
@@ -40,8 +43,15 @@ public final class Parameter {
    */
   public static final char PARAMETER_ESCAPE_CHAR = '\\';
 
+  private static final String VARIABLE_START = "${";
+
   private final String value;
-  private List<Part> parts;
+  private final boolean hasVariables;
+  private volatile List<Part> parts;
+
+  // the parsed values are reused as long as the value (with replaced variables) is the same
+  private volatile Parsed<WPath> wPath;
+  private volatile Parsed<ContentPattern> contentPattern;
 
   /**
    * Constructor.
@@ -50,6 +60,7 @@ public final class Parameter {
    */
   public Parameter(final String aValue) {
     value = aValue;
+    hasVariables = null != aValue && aValue.contains(VARIABLE_START);
   }
 
   /**
@@ -62,6 +73,57 @@ public final class Parameter {
     return aContext.replaceVariables(value);
   }
 
+  /**
+   * Constructs a {@link WPath} from the value.<br>
+   * The {@link WPath} is parsed only once; if the value contains variables, it is parsed again only if the
+   * value with replaced variables has changed.
+   *
+   * @param aContext the context needed to resolve the value (variables)
+   * @return the {@link WPath}
+   * @throws InvalidInputException in case of an invalid {@link WPath}
+   */
+  public WPath getWPath(final WetatorContext aContext) throws InvalidInputException {
+    Parsed<WPath> tmpParsed = wPath;
+    final WetatorConfiguration tmpConfiguration = aContext.getConfiguration();
+    if (null != tmpParsed && tmpParsed.configuration == tmpConfiguration && !hasVariables) {
+      return tmpParsed.result;
+    }
+
+    final SecretString tmpValue = getValue(aContext);
+    if (null != tmpParsed && tmpParsed.configuration == tmpConfiguration && tmpParsed.isParsedFrom(tmpValue)) {
+      return tmpParsed.result;
+    }
+
+    tmpParsed = new Parsed<>(tmpConfiguration, tmpValue, new WPath(tmpValue, tmpConfiguration));
+    wPath = tmpParsed;
+    return tmpParsed.result;
+  }
+
+  /**
+   * Constructs a {@link ContentPattern} from the value.<br>
+   * The {@link ContentPattern} is parsed only once; if the value contains variables, it is parsed again only if the
+   * value with replaced variables has changed.
+   *
+   * @param aContext the context needed to resolve the value (variables)
+   * @return the {@link ContentPattern}
+   * @throws InvalidInputException in case of an invalid {@link ContentPattern}
+   */
+  public ContentPattern getContentPattern(final WetatorContext aContext) throws InvalidInputException {
+    Parsed<ContentPattern> tmpParsed = contentPattern;
+    if (null != tmpParsed && !hasVariables) {
+      return tmpParsed.result;
+    }
+
+    final SecretString tmpValue = getValue(aContext);
+    if (null != tmpParsed && tmpParsed.isParsedFrom(tmpValue)) {
+      return tmpParsed.result;
+    }
+
+    tmpParsed = new Parsed<>(null, tmpValue, new ContentPattern(tmpValue));
+    contentPattern = tmpParsed;
+    return tmpParsed.result;
+  }
+
   /**
    * @return the first part
    */
@@ -91,16 +153,16 @@ public final class Parameter {
       return;
     }
 
-    parts = new LinkedList<>();
-    if (StringUtils.isEmpty(value)) {
-      return;
-    }
-
-    final List<String> tmpParts = StringUtil.extractStrings(value, PARAMETER_DELIMITER, PARAMETER_ESCAPE_CHAR);
-    for (final String tmpString : tmpParts) {
-      final Part tmpPart = new Part(tmpString.trim());
-      parts.add(tmpPart);
+    // the commands are shared between the workers; publish the list only when it is complete
+    final List<Part> tmpResult = new LinkedList<>();
+    if (StringUtils.isNotEmpty(value)) {
+      final List<String> tmpParts = StringUtil.extractStrings(value, PARAMETER_DELIMITER, PARAMETER_ESCAPE_CHAR);
+      for (final String tmpString : tmpParts) {
+        final Part tmpPart = new Part(tmpString.trim());
+        tmpResult.add(tmpPart);
+      }
     }
+    parts = tmpResult;
   }
 
   /**
@@ -114,6 +176,33 @@ public final class Parameter {
     return value;
   }
 
+  /**
+   * An immutable holder for a parsed value and the value it was parsed from.
+   *
+   * @param <T> the type of the parsed value
+   */
+  private static final class Parsed<T> {
+    private final WetatorConfiguration configuration;
+    private final String value;
+    private final String printable;
+    private final T result;
+
+    Parsed(final WetatorConfiguration aConfiguration, final SecretString aValue, final T aResult) {
+      configuration = aConfiguration;
+      value = aValue.getValue();
+      printable = aValue.toString();
+      result = aResult;
+    }
+
+    /**
+     * @param aValue the value to check
+     * @return true if the result was parsed from the same value (including the secrets)
+     */
+    boolean isParsedFrom(final SecretString aValue) {
+      return value.equals(aValue.getValue()) && printable.equals(aValue.toString());
+    }
+  }
+
   /**
    * An object that stores a flat string parameter.
    */
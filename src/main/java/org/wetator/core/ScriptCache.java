@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wetator.exception.InvalidInputException;
+
+/**
+ * Cache for the commands read from the test files.<br>
+ * Modules are used by many test cases (and for every browser); this cache makes sure they are parsed only once.
+ * The entries are identified by the canonical path of the file and are dropped if the modification time or the
+ * size of the file changed. If there are more than the configured number of files, the least recently used
+ * one is evicted. If all files are read up front (pre-parse), the cache is enlarged to hold all of them.
+ *
+ * @author rbri
+ */
+final class ScriptCache {
+
+  /**
+   * Reads the commands from a file; this is called for every file not found in the cache.
+   */
+  @FunctionalInterface
+  interface CommandReader {
+
+    /**
+     * @param aFile the file to read the commands from
+     * @return the list of commands
+     * @throws InvalidInputException in case of an invalid file
+     */
+    List<Command> read(File aFile) throws InvalidInputException;
+  }
+
+  private volatile int maxEntries;
+  private final Map<String, CacheEntry> cache;
+
+  private long hitsCount;
+  private long missesCount;
+  private long evictionsCount;
+
+  /**
+   * The constructor.
+   *
+   * @param aMaxEntries the maximum number of cached files; 0 disables the cache
+   */
+  ScriptCache(final int aMaxEntries) {
+    maxEntries = aMaxEntries;
+    cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> anEldest) {
+        if (size() > maxEntries) {
+          evictionsCount++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the commands of the given file; the file is only read if there is no up to date entry in the cache.
+   *
+   * @param aFile the file
+   * @param aReader the reader used if the file is not cached
+   * @return the unmodifiable list of commands
+   * @throws InvalidInputException in case of an invalid file
+   */
+  public List<Command> getCommands(final File aFile, final CommandReader aReader) throws InvalidInputException {
+    if (maxEntries <= 0) {
+      return aReader.read(aFile);
+    }
+
+    final String tmpKey = getKey(aFile);
+    // determine the state of the file before reading it; a change while reading is detected on the next access
+    final long tmpLastModified = aFile.lastModified();
+    final long tmpLength = aFile.length();
+
+    synchronized (this) {
+      final CacheEntry tmpEntry = cache.get(tmpKey);
+      if (tmpEntry != null && tmpEntry.lastModified == tmpLastModified && tmpEntry.length == tmpLength) {
+        hitsCount++;
+        return tmpEntry.commands;
+      }
+      missesCount++;
+    }
+
+    // read outside the lock; parallel workers may parse different files at the same time
+    final List<Command> tmpCommands = Collections.unmodifiableList(aReader.read(aFile));
+    synchronized (this) {
+      cache.put(tmpKey, new CacheEntry(tmpCommands, tmpLastModified, tmpLength));
+    }
+    return tmpCommands;
+  }
+
+  /**
+   * Enlarges the cache to hold at least the given number of files; a disabled cache stays disabled.
+   *
+   * @param aMinEntries the number of files that have to fit into the cache
+   */
+  public synchronized void ensureCapacity(final int aMinEntries) {
+    if (maxEntries > 0 && maxEntries < aMinEntries) {
+      maxEntries = aMinEntries;
+    }
+  }
+
+  /**
+   * @return the number of cached files
+   */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /**
+   * @return a string with some statistic info
+   */
+  public synchronized String getStatistics() {
+    // @formatter:off
+    final StringBuilder tmpResult = new StringBuilder(160) // NOPMD
+      .append("ScriptCache statistics:\n")
+      .append("      Entries:   ").append(cache.size()).append(" (max ").append(maxEntries).append(")\n")
+      .append("      Hits:      ").append(hitsCount).append('\n')
+      .append("      Misses:    ").append(missesCount).append('\n')
+      .append("      Evictions: ").append(evictionsCount);
+    // @formatter:on
+
+    return tmpResult.toString();
+  }
+
+  private static String getKey(final File aFile) {
+    try {
+      return aFile.getCanonicalPath();
+    } catch (final IOException e) {
+      return aFile.getAbsolutePath();
+    }
+  }
+
+  /**
+   * The cached commands together with the state of the file they are read from.
+   */
+  private static final class CacheEntry {
+    private final List<Command> commands;
+    private final long lastModified;
+    private final long length;
+
+    CacheEntry(final List<Command> aCommands, final long aLastModified, final long aLength) {
+      commands = aCommands;
+      lastModified = aLastModified;
+      length = aLength;
+    }
+  }
+}
@@ -117,6 +117,11 @@ public class WetatorConfiguration {
    */
   public static final String PROPERTY_HTTP_TIMEOUT = PROPERTY_PREFIX + "httpTimeout";
 
+  /**
+   * The property name to set the number of test cases executed in parallel.
+   */
+  public static final String PROPERTY_PARALLELISM = PROPERTY_PREFIX + "parallelism";
+
   // output
   /**
    * The property name to set the output directory.
@@ -124,6 +129,36 @@ public class WetatorConfiguration {
   public static final String PROPERTY_OUTPUT_DIR = PROPERTY_PREFIX + "outputDir";
   private static final String DEFAULT_OUTPUT_DIR = "./logs";
 
+  /**
+   * The property name to set the size of the queue of the background writer of the response store.
+   * If the size is 0 (default) the responses are written synchronously.<br>
+   * Only the disk I/O is done in the background; the snapshot of the page and the download of the resources
+   * are still done by the thread executing the test.
+   */
+  public static final String PROPERTY_RESPONSE_STORE_QUEUE_SIZE = PROPERTY_PREFIX + "responseStoreQueueSize";
+
+  /**
+   * The property name to set the maximum number of bytes waiting in the queue of the background writer of the
+   * response store (default 64 MB).
+   */
+  public static final String PROPERTY_RESPONSE_STORE_QUEUE_BYTES = PROPERTY_PREFIX + "responseStoreQueueBytes";
+
+  /**
+   * The property name to set the maximum number of parsed test files (e.g. modules) kept in memory (default 100).
+   * If the size is 0 the files are parsed every time they are used.<br>
+   * The least recently used file is evicted if the cache is full. A test file is used for all browsers in a row and
+   * the frequently used modules stay in the cache, so a small cache is sufficient for most suites; a larger one costs
+   * memory for every file. If pre-parse is enabled, the cache is enlarged to hold all pre-parsed files.
+   */
+  public static final String PROPERTY_SCRIPT_CACHE_SIZE = PROPERTY_PREFIX + "scriptCacheSize";
+
+  /**
+   * The property name to enable the parsing of all test files (and the modules used by them) before the
+   * tests are executed. The script cache is enlarged to hold all these files; if the cache is disabled, the files
+   * are only checked up front and parsed again when they are executed.
+   */
+  public static final String PROPERTY_PRE_PARSE = PROPERTY_PREFIX + "preParse";
+
   /**
    * The property name to set whether a distinct output directory should be used.
    */
@@ -249,15 +284,22 @@ public class WetatorConfiguration {
   private File variablesFile;
 
   private List<IScripter> scripters;
+  // the properties the scripters are initialized with; used for additional scripter instances
+  private Properties scripterProperties;
   private List<ICommandSet> commandSets;
   private List<Class<? extends IControl>> controls;
   private String baseUrl;
   private int jsTimeoutInSeconds;
   private int httpTimeoutInSeconds;
+  private int parallelism;
   private int typingSpeedInKeystrokesPerMinute;
 
   private String wpathSeparator;
   private File outputDir;
+  private int responseStoreQueueSize;
+  private long responseStoreQueueBytes;
+  private int scriptCacheSize;
+  private boolean preParse;
   private List<String> xslTemplates;
 
   private List<BrowserType> browserTypes;
@@ -453,6 +495,8 @@ public class WetatorConfiguration {
     // scripters
     scripters = new LinkedList<>();
     readScripters(tmpProperties);
+    scripterProperties = new Properties();
+    scripterProperties.putAll(tmpProperties);
     for (final IScripter tmpScripter : scripters) {
       tmpScripter.initialize(tmpProperties);
     }
@@ -536,6 +580,59 @@ public class WetatorConfiguration {
       throw new ConfigurationException("The property '" + PROPERTY_HTTP_TIMEOUT + "' is less than 1.");
     }
 
+    // parallelism
+    tmpValue = tmpProperties.getProperty(PROPERTY_PARALLELISM, "1");
+    tmpProperties.remove(PROPERTY_PARALLELISM);
+    try {
+      parallelism = Integer.parseInt(tmpValue);
+    } catch (final NumberFormatException e) {
+      throw new ConfigurationException("The property '" + PROPERTY_PARALLELISM + "' is no integer.");
+    }
+    if (parallelism < 1) {
+      throw new ConfigurationException("The property '" + PROPERTY_PARALLELISM + "' is less than 1.");
+    }
+
+    // responseStoreQueueSize
+    tmpValue = tmpProperties.getProperty(PROPERTY_RESPONSE_STORE_QUEUE_SIZE, "0");
+    tmpProperties.remove(PROPERTY_RESPONSE_STORE_QUEUE_SIZE);
+    try {
+      responseStoreQueueSize = Integer.parseInt(tmpValue);
+    } catch (final NumberFormatException e) {
+      throw new ConfigurationException("The property '" + PROPERTY_RESPONSE_STORE_QUEUE_SIZE + "' is no integer.");
+    }
+    if (responseStoreQueueSize < 0) {
+      throw new ConfigurationException("The property '" + PROPERTY_RESPONSE_STORE_QUEUE_SIZE + "' is less than 0.");
+    }
+
+    // responseStoreQueueBytes
+    tmpValue = tmpProperties.getProperty(PROPERTY_RESPONSE_STORE_QUEUE_BYTES, "67108864");
+    tmpProperties.remove(PROPERTY_RESPONSE_STORE_QUEUE_BYTES);
+    try {
+      responseStoreQueueBytes = Long.parseLong(tmpValue);
+    } catch (final NumberFormatException e) {
+      throw new ConfigurationException("The property '" + PROPERTY_RESPONSE_STORE_QUEUE_BYTES + "' is no integer.");
+    }
+    if (responseStoreQueueBytes < 0) {
+      throw new ConfigurationException("The property '" + PROPERTY_RESPONSE_STORE_QUEUE_BYTES + "' is less than 0.");
+    }
+
+    // scriptCacheSize
+    tmpValue = tmpProperties.getProperty(PROPERTY_SCRIPT_CACHE_SIZE, "100");
+    tmpProperties.remove(PROPERTY_SCRIPT_CACHE_SIZE);
+    try {
+      scriptCacheSize = Integer.parseInt(tmpValue);
+    } catch (final NumberFormatException e) {
+      throw new ConfigurationException("The property '" + PROPERTY_SCRIPT_CACHE_SIZE + "' is no integer.");
+    }
+    if (scriptCacheSize < 0) {
+      throw new ConfigurationException("The property '" + PROPERTY_SCRIPT_CACHE_SIZE + "' is less than 0.");
+    }
+
+    // preParse
+    tmpValue = tmpProperties.getProperty(PROPERTY_PRE_PARSE, "false");
+    tmpProperties.remove(PROPERTY_PRE_PARSE);
+    preParse = Boolean.parseBoolean(tmpValue);
+
     // browserVersion
     tmpValue = tmpProperties.getProperty(PROPERTY_BROWSER_TYPE, "");
     tmpProperties.remove(PROPERTY_BROWSER_TYPE);
@@ -994,6 +1091,26 @@ public class WetatorConfiguration {
     return scripters;
   }
 
+  /**
+   * Creates a new instance of the given scripter class initialized the same way as the {@link IScripter}s returned
+   * by {@link #getScripters()}. The scripters are stateful; separate instances are needed to read files in parallel.
+   *
+   * @param aScripterClass the class of the scripter
+   * @return the new initialized {@link IScripter}
+   * @throws ConfigurationException if the scripter could not be created
+   */
+  public IScripter createScripter(final Class<? extends IScripter> aScripterClass) {
+    final IScripter tmpScripter;
+    try {
+      tmpScripter = aScripterClass.getDeclaredConstructor().newInstance();
+    } catch (final NoSuchMethodException | InstantiationException | IllegalAccessException
+        | InvocationTargetException e) {
+      throw new ConfigurationException("Can't create scripter '" + aScripterClass.getName() + "'.", e);
+    }
+    tmpScripter.initialize(scripterProperties);
+    return tmpScripter;
+  }
+
   /**
    * @return the configured case URL
    */
@@ -1015,6 +1132,41 @@ public class WetatorConfiguration {
     return httpTimeoutInSeconds;
   }
 
+  /**
+   * @return the configured number of test cases executed in parallel
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return the size of the queue of the background writer of the response store; 0 means synchronous writing
+   */
+  public int getResponseStoreQueueSize() {
+    return responseStoreQueueSize;
+  }
+
+  /**
+   * @return the maximum number of bytes waiting in the queue of the background writer of the response store
+   */
+  public long getResponseStoreQueueBytes() {
+    return responseStoreQueueBytes;
+  }
+
+  /**
+   * @return the maximum number of parsed test files kept in memory; 0 means no caching
+   */
+  public int getScriptCacheSize() {
+    return scriptCacheSize;
+  }
+
+  /**
+   * @return <code>true</code> if all test files are parsed before the tests are executed
+   */
+  public boolean isPreParseEnabled() {
+    return preParse;
+  }
+
   /**
    * @return the configured wpath separator
    */
@@ -59,6 +59,8 @@ public class WetatorContext {
   private final List<Variable> variables; // store them in defined order
 
   private WetatorContext parentContext;
+  // a snapshot already contains the variables of the parents and the configuration
+  private final boolean snapshot;
 
   private boolean errorOccurred;
   private boolean invalidInput;
@@ -79,6 +81,7 @@ public class WetatorContext {
     file = aFile;
     browserType = aBrowserType;
     variables = new LinkedList<>();
+    snapshot = false;
 
     // we add our implicit variables first so they always 'win' against variables with the same name defined
     // programmatically or by configuration
@@ -102,6 +105,35 @@ public class WetatorContext {
     errorOccurred = aContext.errorOccurred;
   }
 
+  /**
+   * Constructor for a snapshot.
+   *
+   * @param aContext the context to copy
+   */
+  private WetatorContext(final WetatorContext aContext) {
+    super();
+    engine = aContext.engine;
+    testCaseName = aContext.testCaseName;
+    file = aContext.file;
+    browserType = aContext.browserType;
+    variables = aContext.getVariables();
+    snapshot = true;
+
+    errorOccurred = aContext.errorOccurred;
+    invalidInput = aContext.invalidInput;
+  }
+
+  /**
+   * Creates a copy of this context knowing only the variables (and values) known right now.<br>
+   * Events recorded during the parallel execution are passed to the listeners later; the snapshot makes sure the
+   * listeners see the values the variables had when the event occurred.
+   *
+   * @return the snapshot
+   */
+  public WetatorContext createSnapshot() {
+    return new WetatorContext(this);
+  }
+
   /**
    * @return the browserType
    */
@@ -159,6 +191,9 @@ public class WetatorContext {
       final List<Variable> tmpResult = new LinkedList<>(variables);
 
     // then the stuff from the parent or from the configuration in case of the root context
+    if (snapshot) {
+      return tmpResult;
+    }
     if (null == parentContext) {
       tmpResult.addAll(getConfiguration().getVariables());
     } else {
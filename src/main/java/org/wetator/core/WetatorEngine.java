@@ -17,12 +17,29 @@
 package org.wetator.core;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -60,15 +77,31 @@ public class WetatorEngine {
   private IBrowser browser;
   private List<ICommandSet> commandSets;
   private List<IScripter> scripter;
+  // the scripters are stateful (script() keeps the file and the commands); every thread reading files
+  // uses its own instances
+  private final ThreadLocal<Map<Class<? extends IScripter>, IScripter>> threadScripters;
+  // the commands of the test files and modules are shared by all test cases and browsers
+  private ScriptCache scriptCache;
   // access to the progressListeners must be synchronized to prevent interference in multithreading situations
   private final List<IProgressListener> progressListener;
 
+  // in parallel mode every worker uses its own browser and records the events of the
+  // current test case instead of informing the listeners directly; the events are recorded
+  // per browser because the browser callbacks may run on other threads
+  private final ThreadLocal<IBrowser> workerBrowser;
+  private final Map<IBrowser, List<RecordedEvent>> recordedEvents;
+  // the time of the event currently passed to the listeners (0 if none); guarded by progressListener
+  private long eventTime;
+
   /**
    * The constructor.
    */
   public WetatorEngine() {
     testCases = new LinkedList<>();
     progressListener = new LinkedList<>();
+    workerBrowser = new ThreadLocal<>();
+    recordedEvents = new ConcurrentHashMap<>();
+    threadScripters = ThreadLocal.withInitial(HashMap::new);
   }
 
   /**
@@ -99,6 +132,13 @@ public class WetatorEngine {
 
     // setup the scripter
     scripter = getConfiguration().getScripters();
+    // the configured instances are used by this thread; in the sequential case no other instances are created
+    final Map<Class<? extends IScripter>, IScripter> tmpScripters = threadScripters.get();
+    tmpScripters.clear();
+    for (final IScripter tmpScripter : scripter) {
+      tmpScripters.putIfAbsent(tmpScripter.getClass(), tmpScripter);
+    }
+    scriptCache = new ScriptCache(getConfiguration().getScriptCacheSize());
 
     // setup the command sets
     commandSets = getConfiguration().getCommandSets();
@@ -144,7 +184,10 @@ public class WetatorEngine {
   }
 
   /**
-   * Executes the tests.
+   * Executes the tests.<br>
+   * If a parallelism greater than 1 is configured, the test cases are executed by a pool of workers (see
+   * {@link WetatorConfiguration#getParallelism()}). If pre-parsing is enabled, all test files are read before the
+   * first test is executed (see {@link WetatorConfiguration#isPreParseEnabled()}).
    */
   public void executeTests() {
     // setup the browser
@@ -155,54 +198,245 @@ public class WetatorEngine {
 
     informListenersStart();
     try {
-      boolean tmpTestCaseErrorOccurred = false;
+      if (getConfiguration().isPreParseEnabled()) {
+        preParseTestCases();
+      }
+
+      final int tmpParallelism = Math.min(getConfiguration().getParallelism(), getTestCases().size());
+      if (tmpParallelism > 1) {
+        executeTestCasesInParallel(tmpParallelism);
+      } else {
+        boolean tmpTestCaseErrorOccurred = false;
+        for (final TestCase tmpTestCase : getTestCases()) {
+          tmpTestCaseErrorOccurred = executeTestCase(tmpTestCase, tmpTestCaseErrorOccurred);
+        }
+      }
+    } finally {
+      informListenersEnd();
+    }
+  }
+
+  /**
+   * Reads all test files and the modules used by them in parallel before the first test is executed.<br>
+   * The commands are stored in the script cache for the execution; invalid files are reported as errors up front
+   * (and again when the test case is executed). Modules are only found if the name is given without variables.
+   */
+  private void preParseTestCases() {
+    final int tmpParallelism = Runtime.getRuntime().availableProcessors();
+    final AtomicInteger tmpWorkerId = new AtomicInteger(1);
+    final ExecutorService tmpExecutor = Executors.newFixedThreadPool(tmpParallelism, aRunnable -> {
+      final Thread tmpThread = new Thread(aRunnable, "Wetator Parser " + tmpWorkerId.getAndIncrement());
+      tmpThread.setDaemon(true);
+      return tmpThread;
+    });
+    try {
+      final Set<String> tmpKnownFiles = new HashSet<>();
+      List<File> tmpFiles = new ArrayList<>();
       for (final TestCase tmpTestCase : getTestCases()) {
-        boolean tmpValidInput = true;
-        final File tmpFile = tmpTestCase.getFile();
-        LOG.info("Executing tests from file '" + FilenameUtils.normalize(tmpFile.getAbsolutePath()) + "'");
-        informListenersTestCaseStart(tmpTestCase);
+        if (tmpKnownFiles.add(getCanonicalPath(tmpTestCase.getFile()))) {
+          tmpFiles.add(tmpTestCase.getFile());
+        }
+      }
+
+      int tmpFileCount = 0;
+      int tmpInvalidCount = 0;
+      // the test files first, then the modules used by them, then the modules used by these modules...
+      while (!tmpFiles.isEmpty()) {
+        // the pre-parsed files must not be evicted before they are executed
+        if (scriptCache != null) {
+          scriptCache.ensureCapacity(tmpKnownFiles.size());
+        }
+
+        final List<Future<List<Command>>> tmpResults = new ArrayList<>(tmpFiles.size());
+        for (final File tmpFile : tmpFiles) {
+          tmpResults.add(tmpExecutor.submit(() -> readCommandsFromFile(tmpFile)));
+        }
+
+        final List<File> tmpModules = new ArrayList<>();
+        for (int i = 0; i < tmpFiles.size(); i++) {
+          try {
+            for (final File tmpModule : getModuleFiles(tmpFiles.get(i), tmpResults.get(i).get())) {
+              if (tmpKnownFiles.add(getCanonicalPath(tmpModule))) {
+                tmpModules.add(tmpModule);
+              }
+            }
+          } catch (final ExecutionException e) {
+            tmpInvalidCount++;
+            informListenersError(e.getCause());
+          }
+        }
+        tmpFileCount += tmpFiles.size();
+        tmpFiles = tmpModules;
+      }
+      LOG.info("Parsed " + tmpFileCount + " test files and modules using " + tmpParallelism + " threads; "
+          + tmpInvalidCount + " invalid.");
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      informListenersError(e);
+    } finally {
+      tmpExecutor.shutdownNow();
+    }
+  }
+
+  private static List<File> getModuleFiles(final File aFile, final List<Command> aCommands) {
+    final List<File> tmpResult = new ArrayList<>();
+    for (final Command tmpCommand : aCommands) {
+      final Parameter tmpParameter = tmpCommand.getFirstParameter();
+      if (!tmpCommand.isComment() && "use-module".equals(tmpCommand.getName()) && null != tmpParameter) {
+        final String tmpModule = tmpParameter.getValue();
+        // variables can only be replaced at execution time
+        if (StringUtils.isNotEmpty(tmpModule) && !tmpModule.contains("${")) {
+          File tmpModuleFile = new File(tmpModule);
+          if (!tmpModuleFile.isAbsolute()) {
+            tmpModuleFile = new File(aFile.getParent(), tmpModule);
+          }
+          if (tmpModuleFile.isFile()) {
+            tmpResult.add(tmpModuleFile);
+          }
+        }
+      }
+    }
+    return tmpResult;
+  }
+
+  private static String getCanonicalPath(final File aFile) {
+    try {
+      return aFile.getCanonicalPath();
+    } catch (final IOException e) {
+      return aFile.getAbsolutePath();
+    }
+  }
+
+  /**
+   * Executes the given test case for all configured browsers.
+   *
+   * @param aTestCase the {@link TestCase} to execute
+   * @param aTestCaseErrorOccurred <code>true</code> if a previous test case failed in a way that all following test
+   *        runs have to be ignored
+   * @return <code>true</code> if all following test runs have to be ignored
+   */
+  private boolean executeTestCase(final TestCase aTestCase, final boolean aTestCaseErrorOccurred) {
+    boolean tmpTestCaseErrorOccurred = aTestCaseErrorOccurred;
+    boolean tmpValidInput = true;
+    final File tmpFile = aTestCase.getFile();
+    LOG.info("Executing tests from file '" + FilenameUtils.normalize(tmpFile.getAbsolutePath()) + "'");
+    informListenersTestCaseStart(aTestCase);
+    try {
+      boolean tmpTestRunErrorOccurred = false;
+      for (final BrowserType tmpBrowserType : getConfiguration().getBrowserTypes()) {
+        informListenersTestRunStart(tmpBrowserType.getLabel());
         try {
-          boolean tmpTestRunErrorOccurred = false;
-          for (final BrowserType tmpBrowserType : getConfiguration().getBrowserTypes()) {
-            informListenersTestRunStart(tmpBrowserType.getLabel());
+          if (!tmpTestCaseErrorOccurred && !tmpTestRunErrorOccurred && tmpValidInput) {
+            // new session for every (root) file and browser
+            getBrowser().startNewSession(tmpBrowserType);
             try {
-              if (!tmpTestCaseErrorOccurred && !tmpTestRunErrorOccurred && tmpValidInput) {
-                // new session for every (root) file and browser
-                getBrowser().startNewSession(tmpBrowserType);
-                try {
-                  // setup the context
-                  final WetatorContext tmpWetatorContext = createWetatorContext(tmpTestCase, tmpBrowserType);
-
-                  tmpValidInput = tmpWetatorContext.execute();
-                  if (!tmpValidInput) {
-                    // the input won't be valid for the next browser => continue with next browser but ignore it
-                    tmpTestRunErrorOccurred = true;
-                  }
-                } finally {
-                  getBrowser().endSession();
-                }
-              } else {
-                informListenersTestRunIgnored();
+              // setup the context
+              final WetatorContext tmpWetatorContext = createWetatorContext(aTestCase, tmpBrowserType);
+
+              tmpValidInput = tmpWetatorContext.execute();
+              if (!tmpValidInput) {
+                // the input won't be valid for the next browser => continue with next browser but ignore it
+                tmpTestRunErrorOccurred = true;
               }
-            } catch (final RuntimeException e) {
-              // => continue with next browser
-              informListenersError(e);
-            } catch (final Throwable e) {
-              // there is no sense in trying the next browser or case at all
-              // => ignore all following test runs / test cases
-              tmpTestCaseErrorOccurred = true;
-              informListenersError(e);
             } finally {
-              informListenersTestRunEnd();
+              getBrowser().endSession();
             }
+          } else {
+            informListenersTestRunIgnored();
           }
+        } catch (final RuntimeException e) {
+          // => continue with next browser
+          informListenersError(e);
+        } catch (final Throwable e) {
+          // there is no sense in trying the next browser or case at all
+          // => ignore all following test runs / test cases
+          tmpTestCaseErrorOccurred = true;
+          informListenersError(e);
         } finally {
-          informListenersTestCaseEnd();
+          informListenersTestRunEnd();
         }
       }
     } finally {
-      informListenersEnd();
+      informListenersTestCaseEnd();
     }
+    return tmpTestCaseErrorOccurred;
+  }
+
+  /**
+   * Executes all test cases using a pool of workers. Every worker uses its own {@link IBrowser}.<br>
+   * The events of every test case are recorded by the worker and passed to the listeners in the order
+   * of the test cases afterwards; this way the listeners see the same sequence of events as in
+   * the sequential mode.
+   *
+   * @param aParallelism the number of workers
+   */
+  private void executeTestCasesInParallel(final int aParallelism) {
+    // all browsers are created before the first test starts because creating
+    // a browser may clean the output dir
+    final BlockingQueue<IBrowser> tmpBrowsers = new ArrayBlockingQueue<>(aParallelism);
+    tmpBrowsers.add(getBrowser());
+    for (int i = 1; i < aParallelism; i++) {
+      tmpBrowsers.add(createBrowser());
+    }
+    final List<IBrowser> tmpAdditionalBrowsers = new ArrayList<>(tmpBrowsers);
+    tmpAdditionalBrowsers.remove(getBrowser());
+
+    LOG.info("Executing " + getTestCases().size() + " test cases using " + aParallelism + " workers.");
+    final AtomicInteger tmpWorkerId = new AtomicInteger(1);
+    final ExecutorService tmpExecutor = Executors.newFixedThreadPool(aParallelism, aRunnable -> {
+      final Thread tmpThread = new Thread(aRunnable, "Wetator Worker " + tmpWorkerId.getAndIncrement());
+      tmpThread.setDaemon(true);
+      return tmpThread;
+    });
+    try {
+      final AtomicBoolean tmpTestCaseErrorOccurred = new AtomicBoolean();
+      final List<Future<List<RecordedEvent>>> tmpResults = new ArrayList<>();
+      for (final TestCase tmpTestCase : getTestCases()) {
+        tmpResults.add(
+            tmpExecutor.submit(() -> executeTestCaseRecorded(tmpTestCase, tmpBrowsers, tmpTestCaseErrorOccurred)));
+      }
+
+      for (final Future<List<RecordedEvent>> tmpResult : tmpResults) {
+        try {
+          final List<RecordedEvent> tmpEvents = tmpResult.get();
+          synchronized (progressListener) {
+            for (final RecordedEvent tmpEvent : tmpEvents) {
+              passToListeners(tmpEvent.time, tmpEvent.event);
+            }
+          }
+        } catch (final ExecutionException e) {
+          informListenersError(e.getCause());
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      informListenersError(e);
+    } finally {
+      tmpExecutor.shutdownNow();
+      for (final IBrowser tmpBrowser : tmpAdditionalBrowsers) {
+        tmpBrowser.close();
+      }
+    }
+  }
+
+  private List<RecordedEvent> executeTestCaseRecorded(final TestCase aTestCase,
+      final BlockingQueue<IBrowser> aBrowsers, final AtomicBoolean aTestCaseErrorOccurred)
+      throws InterruptedException {
+    final List<RecordedEvent> tmpEvents = Collections.synchronizedList(new ArrayList<>());
+
+    final IBrowser tmpBrowser = aBrowsers.take();
+    workerBrowser.set(tmpBrowser);
+    recordedEvents.put(tmpBrowser, tmpEvents);
+    try {
+      if (executeTestCase(aTestCase, aTestCaseErrorOccurred.get())) {
+        aTestCaseErrorOccurred.set(true);
+      }
+    } finally {
+      recordedEvents.remove(tmpBrowser);
+      workerBrowser.remove();
+      aBrowsers.add(tmpBrowser);
+    }
+    return tmpEvents;
   }
 
   /**
@@ -213,6 +447,10 @@ public class WetatorEngine {
     if (tmpBrowser != null) {
       tmpBrowser.close();
     }
+
+    if (scriptCache != null && LOG.isDebugEnabled()) {
+      LOG.debug(scriptCache.getStatistics());
+    }
   }
 
   /**
@@ -258,27 +496,38 @@ public class WetatorEngine {
   }
 
   /**
-   * Reads all commands of the given file and returns them in the same order they occur in the file.
+   * Reads all commands of the given file and returns them in the same order they occur in the file.<br>
+   * Files already read are taken from the script cache as long as they are not changed.
    *
    * @param aFile the file to read the commands from.
-   * @return a list of {@link Command}s.
+   * @return an unmodifiable list of {@link Command}s.
    * @throws InvalidInputException if no {@link IScripter} can be found for the given file or an error occurs
    *         reading/parsing the given file
    * @throws org.wetator.exception.ResourceException in case of problems reading the file
    */
   protected List<Command> readCommandsFromFile(final File aFile) throws InvalidInputException {
-    final IScripter tmpScripter = createScripter(aFile);
+    return scriptCache.getCommands(aFile, this::parseCommandsFromFile);
+  }
 
+  private List<Command> parseCommandsFromFile(final File aFile) throws InvalidInputException {
+    // the scripters are stateful; every thread uses its own instances to allow the parallel workers
+    // and the parser threads to read files at the same time
+    final IScripter tmpScripter = getScripter(aFile);
     tmpScripter.script(aFile);
     return tmpScripter.getCommands();
   }
 
-  private IScripter createScripter(final File aFile) throws InvalidInputException {
+  /**
+   * Returns the scripter instance of the current thread supporting the given file. The instances are created (by
+   * reflection) and initialized only once per thread; the configured instances are used by the thread that
+   * initialized this engine.
+   */
+  private IScripter getScripter(final File aFile) throws InvalidInputException {
     final List<IScripter.IsSupportedResult> tmpResults = new LinkedList<>();
     for (final IScripter tmpScripter : scripter) {
       final IScripter.IsSupportedResult tmpResult = tmpScripter.isSupported(aFile);
       if (IScripter.IS_SUPPORTED == tmpResult) {
-        return tmpScripter;
+        return threadScripters.get().computeIfAbsent(tmpScripter.getClass(), getConfiguration()::createScripter);
       }
       tmpResults.add(tmpResult);
     }
@@ -374,9 +623,13 @@ public class WetatorEngine {
   }
 
   /**
-   * @return the {@link IBrowser}
+   * @return the {@link IBrowser}; in parallel mode the {@link IBrowser} of the current worker
    */
   public IBrowser getBrowser() {
+    final IBrowser tmpWorkerBrowser = workerBrowser.get();
+    if (null != tmpWorkerBrowser) {
+      return tmpWorkerBrowser;
+    }
     return browser;
   }
 
@@ -452,38 +705,104 @@ public class WetatorEngine {
   }
 
   /**
-   * Informs all listeners about 'init'.
+   * Runs the given action in the context of the given {@link IBrowser}. This has to be used by callbacks of the
+   * browser running on other threads (e.g. javascript); in parallel mode the events raised by the action are
+   * recorded for the test case currently executed with this browser.
+   *
+   * @param aBrowser the browser
+   * @param anAction the action
    */
-  protected void informListenersInit() {
+  public void runInContextOf(final IBrowser aBrowser, final Runnable anAction) {
+    final IBrowser tmpPreviousBrowser = workerBrowser.get();
+    if (tmpPreviousBrowser == aBrowser || !recordedEvents.containsKey(aBrowser)) {
+      anAction.run();
+      return;
+    }
+
+    workerBrowser.set(aBrowser);
+    try {
+      anAction.run();
+    } finally {
+      if (null == tmpPreviousBrowser) {
+        workerBrowser.remove();
+      } else {
+        workerBrowser.set(tmpPreviousBrowser);
+      }
+    }
+  }
+
+  /**
+   * @return the time of the event currently passed to the listeners; in parallel mode the events are passed
+   *         to the listeners after the test case is finished, so listeners have to use this instead of the
+   *         current time to measure durations
+   */
+  public long getEventTime() {
     synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.init(this);
+      if (0 == eventTime) {
+        return System.currentTimeMillis();
       }
+      return eventTime;
     }
   }
 
   /**
-   * Informs all listeners about 'start'.
+   * Passes the given event to all listeners. If called in the context of a worker in parallel mode, the event is
+   * recorded instead.
+   *
+   * @param anEvent the event
    */
-  protected void informListenersStart() {
+  private boolean isRecording() {
+    final IBrowser tmpWorkerBrowser = workerBrowser.get();
+    return null != tmpWorkerBrowser && recordedEvents.containsKey(tmpWorkerBrowser);
+  }
+
+  private void informListeners(final Consumer<IProgressListener> anEvent) {
+    final IBrowser tmpWorkerBrowser = workerBrowser.get();
+    if (null != tmpWorkerBrowser) {
+      final List<RecordedEvent> tmpRecordedEvents = recordedEvents.get(tmpWorkerBrowser);
+      if (null != tmpRecordedEvents) {
+        tmpRecordedEvents.add(new RecordedEvent(System.currentTimeMillis(), anEvent));
+        return;
+      }
+    }
+
     synchronized (progressListener) {
+      passToListeners(System.currentTimeMillis(), anEvent);
+    }
+  }
+
+  private void passToListeners(final long aTime, final Consumer<IProgressListener> anEvent) {
+    eventTime = aTime;
+    try {
       for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.start(this);
+        anEvent.accept(tmpListener);
       }
+    } finally {
+      eventTime = 0;
     }
   }
 
+  /**
+   * Informs all listeners about 'init'.
+   */
+  protected void informListenersInit() {
+    informListeners(tmpListener -> tmpListener.init(this));
+  }
+
+  /**
+   * Informs all listeners about 'start'.
+   */
+  protected void informListenersStart() {
+    informListeners(tmpListener -> tmpListener.start(this));
+  }
+
   /**
    * Informs all listeners about 'testCaseStart'.
    *
    * @param aTestCase the test case started.
    */
   protected void informListenersTestCaseStart(final TestCase aTestCase) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testCaseStart(aTestCase);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testCaseStart(aTestCase));
   }
 
   /**
@@ -492,11 +811,7 @@ public class WetatorEngine {
    * @param aBrowserName the browser name of the test started.
    */
   protected void informListenersTestRunStart(final String aBrowserName) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testRunStart(aBrowserName);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testRunStart(aBrowserName));
   }
 
   /**
@@ -505,11 +820,7 @@ public class WetatorEngine {
    * @param aFileName the file name of the test started.
    */
   protected void informListenersTestFileStart(final String aFileName) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testFileStart(aFileName);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testFileStart(aFileName));
   }
 
   /**
@@ -519,44 +830,30 @@ public class WetatorEngine {
    * @param aCommand the {@link Command} to be executed.
    */
   protected void informListenersExecuteCommandStart(final WetatorContext aContext, final Command aCommand) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandStart(aContext, aCommand);
-      }
-    }
+    // recorded events are replayed after the test case; the variables may have changed in the meantime
+    final WetatorContext tmpContext = isRecording() ? aContext.createSnapshot() : aContext;
+    informListeners(tmpListener -> tmpListener.executeCommandStart(tmpContext, aCommand));
   }
 
   /**
    * Informs all listeners about 'executeCommandEnd'.
    */
   protected void informListenersExecuteCommandEnd() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandEnd();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.executeCommandEnd());
   }
 
   /**
    * Informs all listeners about 'executeCommandSuccess'.
    */
   protected void informListenersExecuteCommandSuccess() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandSuccess();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.executeCommandSuccess());
   }
 
   /**
    * Informs all listeners about 'executeCommandIgnored'.
    */
   protected void informListenersExecuteCommandIgnored() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandIgnored();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.executeCommandIgnored());
   }
 
   /**
@@ -565,11 +862,7 @@ public class WetatorEngine {
    * @param anAssertionException The exception thrown by the failed command.
    */
   protected void informListenersExecuteCommandFailure(final AssertionException anAssertionException) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandFailure(anAssertionException);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.executeCommandFailure(anAssertionException));
   }
 
   /**
@@ -578,66 +871,42 @@ public class WetatorEngine {
    * @param aThrowable The exception thrown by the command.
    */
   protected void informListenersExecuteCommandError(final Throwable aThrowable) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.executeCommandError(aThrowable);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.executeCommandError(aThrowable));
   }
 
   /**
    * Informs all listeners about 'testFileEnd'.
    */
   protected void informListenersTestFileEnd() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testFileEnd();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testFileEnd());
   }
 
   /**
    * Informs all listeners about 'testRunIgnored'.
    */
   protected void informListenersTestRunIgnored() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testRunIgnored();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testRunIgnored());
   }
 
   /**
    * Informs all listeners about 'testRunEnd'.
    */
   protected void informListenersTestRunEnd() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testRunEnd();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testRunEnd());
   }
 
   /**
    * Informs all listeners about 'testEnd'.
    */
   protected void informListenersTestCaseEnd() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.testCaseEnd();
-      }
-    }
+    informListeners(tmpListener -> tmpListener.testCaseEnd());
   }
 
   /**
    * Informs all listeners about 'end'.
    */
   protected void informListenersEnd() {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.end(this);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.end(this));
   }
 
   /**
@@ -646,11 +915,7 @@ public class WetatorEngine {
    * @param aThrowable the exception thrown
    */
   public void informListenersError(final Throwable aThrowable) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.error(aThrowable);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.error(aThrowable));
   }
 
   /**
@@ -665,11 +930,7 @@ public class WetatorEngine {
     if (null != aThrowable) {
       tmpStackTrace = ExceptionUtils.getStackTrace(aThrowable);
     }
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.warn(aMessageKey, aParameters, tmpStackTrace);
-      }
-    }
+    informListenersWarn(aMessageKey, aParameters, tmpStackTrace);
   }
 
   /**
@@ -680,11 +941,7 @@ public class WetatorEngine {
    * @param aDetails the optional reason (with stacktrace) of the warning
    */
   public void informListenersWarn(final String aMessageKey, final Object[] aParameters, final String aDetails) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.warn(aMessageKey, aParameters, aDetails);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.warn(aMessageKey, aParameters, aDetails));
   }
 
   /**
@@ -694,11 +951,7 @@ public class WetatorEngine {
    * @param aParameters the message parameters
    */
   public void informListenersInfo(final String aMessageKey, final Object... aParameters) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.info(aMessageKey, aParameters);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.info(aMessageKey, aParameters));
   }
 
   /**
@@ -707,11 +960,7 @@ public class WetatorEngine {
    * @param aHtmlDescription the html source
    */
   public void informListenersHtmlDescribe(final String aHtmlDescription) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.htmlDescribe(aHtmlDescription);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.htmlDescribe(aHtmlDescription));
   }
 
   /**
@@ -720,11 +969,7 @@ public class WetatorEngine {
    * @param aResponseFileName the file name of the stored response
    */
   public void informListenersResponseStored(final String aResponseFileName) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.responseStored(aResponseFileName);
-      }
-    }
+    informListeners(tmpListener -> tmpListener.responseStored(aResponseFileName));
   }
 
   /**
@@ -733,10 +978,19 @@ public class WetatorEngine {
    * @param aResponseFileName the file name of the stored response
    */
   public void informListenersHighlightedResponse(final String aResponseFileName) {
-    synchronized (progressListener) {
-      for (final IProgressListener tmpListener : progressListener) {
-        tmpListener.highlightedResponse(aResponseFileName);
-      }
+    informListeners(tmpListener -> tmpListener.highlightedResponse(aResponseFileName));
+  }
+
+  /**
+   * An event recorded in parallel mode together with the time it happened.
+   */
+  private static final class RecordedEvent {
+    private final long time;
+    private final Consumer<IProgressListener> event;
+
+    RecordedEvent(final long aTime, final Consumer<IProgressListener> anEvent) {
+      time = aTime;
+      event = anEvent;
     }
   }
-}
\ No newline at end of file
+}
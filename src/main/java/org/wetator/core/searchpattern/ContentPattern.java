@@ -17,7 +17,7 @@
 package org.wetator.core.searchpattern;
 
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -47,8 +47,8 @@ public class ContentPattern implements Serializable {
   private final SecretString rawNode;
   /** the list of pattern nodes */
   private List<PatternNode> nodes;
-  /** the list of checks */
-  private List<List<PatternNode>> checks;
+  /** true if there is at least one negated node */
+  private boolean hasNegatedNodes;
 
   /**
    * The constructor.
@@ -67,13 +67,17 @@ public class ContentPattern implements Serializable {
     }
     parseNodes();
 
-    // create checks
-    checks = new LinkedList<>();
-    constructChecks(0, new LinkedList<>());
-
     // validation
     // at least one positive node is required
-    if (checks.get(0).isEmpty()) {
+    boolean tmpHasPositiveNodes = false;
+    for (final PatternNode tmpNode : nodes) {
+      if (tmpNode.isNegated()) {
+        hasNegatedNodes = true;
+      } else {
+        tmpHasPositiveNodes = true;
+      }
+    }
+    if (!tmpHasPositiveNodes) {
       final String tmpMessage = Messages.getMessage("invalidContentPattern", toString(),
           Messages.getMessage("onlyNegatedContentPattern", toString()));
       throw new InvalidInputException(tmpMessage);
@@ -82,31 +86,16 @@ public class ContentPattern implements Serializable {
 
   private void parseNodes() {
     final List<SecretString> tmpParts = rawNode.split(DELIMITER, '\\');
-    nodes = new LinkedList<>();
+    nodes = new ArrayList<>(tmpParts.size());
     for (final SecretString tmpNode : tmpParts) {
       nodes.add(new PatternNode(tmpNode.trim()));
     }
   }
 
-  private void constructChecks(final int aPos, final List<PatternNode> aNodes) {
-    if (aPos >= nodes.size()) {
-      checks.add(aNodes);
-      return;
-    }
-
-    final PatternNode tmpNode = nodes.get(aPos);
-    if (tmpNode.isNegated()) {
-      final List<PatternNode> tmpNodes = new LinkedList<>(aNodes);
-      constructChecks(aPos + 1, tmpNodes);
-    }
-
-    aNodes.add(tmpNode);
-    constructChecks(aPos + 1, aNodes);
-  }
-
   /**
    * Asserts that the given content matches our pattern.
-   * Otherwise throws an {@link AssertionException}.
+   * Otherwise throws an {@link AssertionException}.<br>
+   * The content is never copied; all nodes are searched using offsets into the given content.
    *
    * @param aContent a String to check
    * @param aMaxLength the maximum length of the content used for the
@@ -116,21 +105,18 @@ public class ContentPattern implements Serializable {
   public void matches(final String aContent, final int aMaxLength) throws AssertionException {
     // first the positive only check
     // if this fails we have no need for check the negative ones also
-    final List<PatternNode> tmpNodes = checks.get(0);
-    privateMatches(tmpNodes, aContent, aMaxLength);
+    privateMatches(aContent, aMaxLength);
 
     // if we have negated parts, we have to check these also
-    for (int i = checks.size() - 1; i > 0; i--) {
-      privateMatchesNegated(checks.get(i), aContent, aMaxLength);
+    if (hasNegatedNodes) {
+      privateMatchesNegated(aContent, aMaxLength);
     }
   }
 
-  private void privateMatches(final List<PatternNode> aNodes, final String aContent, final int aMaxLength)
-      throws AssertionException {
+  private void privateMatches(final String aContent, final int aMaxLength) throws AssertionException {
     int tmpStartPos = 0;
     boolean tmpFailed = false;
     final StringBuilder tmpResultMessage = new StringBuilder();
-    String tmpContent = aContent;
 
     for (final PatternNode tmpNode : nodes) {
       if (tmpResultMessage.length() > 0) {
@@ -138,23 +124,20 @@ public class ContentPattern implements Serializable {
       }
 
       final String tmpExpectedString = buildExpectedStringOutput(tmpNode.toString());
-      if (!aNodes.contains(tmpNode)) {
+      if (tmpNode.isNegated()) {
         tmpResultMessage.append(tmpExpectedString);
         continue;
       }
 
-      final String tmpExpectedValue = tmpNode.getValue();
-      final SearchPattern tmpPattern = SearchPattern.compile(tmpExpectedValue);
-
-      tmpContent = tmpContent.substring(tmpStartPos);
-      final FindSpot tmpFoundSpot = tmpPattern.firstOccurenceIn(tmpContent);
+      final SearchPattern tmpPattern = tmpNode.getPattern();
+      final FindSpot tmpFoundSpot = tmpPattern.firstOccurenceIn(aContent, tmpStartPos);
 
-      if (null == tmpFoundSpot || FindSpot.NOT_FOUND == tmpFoundSpot) {
+      if (isNotFound(tmpFoundSpot)) {
         // pattern not found
         tmpFailed = true;
 
         final FindSpot tmpWholeContentFoundSpot = tmpPattern.firstOccurenceIn(aContent);
-        if (null == tmpWholeContentFoundSpot || FindSpot.NOT_FOUND == tmpWholeContentFoundSpot) {
+        if (isNotFound(tmpWholeContentFoundSpot)) {
           // pattern is not in whole content too
           // @formatter:off
           tmpResultMessage.append('{')
@@ -169,7 +152,7 @@ public class ContentPattern implements Serializable {
                           .append(']');
           // @formatter:on
         }
-        tmpStartPos = 0;
+        // continue search for other parts from the same position
       } else {
         // pattern found
         tmpResultMessage.append(tmpExpectedString);
@@ -181,7 +164,7 @@ public class ContentPattern implements Serializable {
 
     if (tmpFailed) {
       // limit the length of the content for the error message
-      tmpContent = StringUtils.abbreviate(aContent, aMaxLength);
+      final String tmpContent = StringUtils.abbreviate(aContent, aMaxLength);
       Assert.fail("contentsFailed", "{", "}", "[", "]", tmpResultMessage.toString(), tmpContent);
     }
   }
@@ -192,53 +175,87 @@ public class ContentPattern implements Serializable {
     return tmpResult;
   }
 
-  private void privateMatchesNegated(final List<PatternNode> aNodes, final String aContent, final int aMaxLength)
-      throws AssertionException {
-    int tmpStartPos = 0;
-    final StringBuilder tmpResultMessage = new StringBuilder();
-    String tmpContent = aContent;
+  private void privateMatchesNegated(final String aContent, final int aMaxLength) throws AssertionException {
+    final boolean[] tmpFoundNegated = new boolean[nodes.size()];
+    if (!findNegated(aContent, 0, 0, tmpFoundNegated)) {
+      return;
+    }
 
-    for (final PatternNode tmpNode : nodes) {
+    final StringBuilder tmpResultMessage = new StringBuilder();
+    for (int i = 0; i < nodes.size(); i++) {
       if (tmpResultMessage.length() > 0) {
         tmpResultMessage.append(DELIMITER).append(' ');
       }
 
-      final String tmpExpectedString = tmpNode.toString();
-      if (!aNodes.contains(tmpNode)) {
-        tmpResultMessage.append(tmpExpectedString);
-        continue;
-      }
-
-      final String tmpExpectedValue = tmpNode.getValue();
-      final SearchPattern tmpPattern = SearchPattern.compile(tmpExpectedValue);
-
-      tmpContent = tmpContent.substring(tmpStartPos);
-      final FindSpot tmpFoundSpot = tmpPattern.firstOccurenceIn(tmpContent);
-
-      if (null == tmpFoundSpot || FindSpot.NOT_FOUND == tmpFoundSpot) {
-        return;
-      }
-
-      // pattern found
-      if (tmpNode.isNegated()) {
+      final String tmpExpectedString = nodes.get(i).toString();
+      if (tmpFoundNegated[i]) {
         // @formatter:off
         tmpResultMessage.append('{')
                         .append(tmpExpectedString)
                         .append('}');
-        // @formatter:off
+        // @formatter:on
       } else {
         tmpResultMessage.append(tmpExpectedString);
       }
-
-      // continue search for other parts from here on
-      tmpStartPos = tmpFoundSpot.getEndPos();
     }
 
     // limit the length of the content for the error message
-    tmpContent = StringUtils.abbreviate(aContent, aMaxLength);
+    final String tmpContent = StringUtils.abbreviate(aContent, aMaxLength);
     Assert.fail("contentsFoundButNegated", "{", "}", tmpResultMessage.toString(), tmpContent);
   }
 
+  /**
+   * Searches for all the positive nodes together with at least one of the negated nodes (in the order of
+   * the nodes).<br>
+   * Every combination of negated nodes is a separate check; the checks are walked depth first (checks
+   * containing a negated node first), so the search for a common prefix of nodes is done only once.
+   *
+   * @param aContent the content to search in
+   * @param aNodeIndex the index of the node to start with
+   * @param aStartPos the position in the content to start the search from
+   * @param aFoundNegated marks the negated nodes found so far
+   * @return true if one of the checks (with at least one negated node) matches; in this case
+   *         aFoundNegated marks the negated nodes of this check
+   */
+  private boolean findNegated(final String aContent, final int aNodeIndex, final int aStartPos,
+      final boolean[] aFoundNegated) {
+    int tmpStartPos = aStartPos;
+    for (int i = aNodeIndex; i < nodes.size(); i++) {
+      final PatternNode tmpNode = nodes.get(i);
+      final FindSpot tmpFoundSpot = tmpNode.getPattern().firstOccurenceIn(aContent, tmpStartPos);
+
+      if (tmpNode.isNegated()) {
+        // first the checks containing this node, then the ones without
+        if (!isNotFound(tmpFoundSpot)) {
+          aFoundNegated[i] = true;
+          if (findNegated(aContent, i + 1, tmpFoundSpot.getEndPos(), aFoundNegated)) {
+            return true;
+          }
+          aFoundNegated[i] = false;
+        }
+        continue;
+      }
+
+      if (isNotFound(tmpFoundSpot)) {
+        // all checks sharing this prefix are fine
+        return false;
+      }
+      tmpStartPos = tmpFoundSpot.getEndPos();
+    }
+
+    // the check without any negated node is the positive one
+    for (final boolean tmpFound : aFoundNegated) {
+      if (tmpFound) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isNotFound(final FindSpot aFindSpot) {
+    return null == aFindSpot || FindSpot.NOT_FOUND == aFindSpot;
+  }
+
   @Override
   public String toString() {
     return rawNode.toString();
@@ -254,6 +271,7 @@ public class ContentPattern implements Serializable {
     private final SecretString value;
     private boolean negated;
     private boolean negatedEscaped;
+    private transient SearchPattern pattern;
 
     /**
      * Constructor.
@@ -280,6 +298,16 @@ public class ContentPattern implements Serializable {
       return value.getValue();
     }
 
+    /**
+     * @return the compiled {@link SearchPattern} of the value
+     */
+    public SearchPattern getPattern() {
+      if (null == pattern) {
+        pattern = SearchPattern.compile(value.getValue());
+      }
+      return pattern;
+    }
+
     /**
      * @return <code>true</code> if this node is negated
      */
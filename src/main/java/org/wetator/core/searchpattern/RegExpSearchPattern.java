@@ -16,6 +16,18 @@
 
 package org.wetator.core.searchpattern;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.commons.lang3.StringUtils;
 import org.wetator.util.FindSpot;
 
@@ -23,6 +35,9 @@ import dk.brics.automaton.Automaton;
 import dk.brics.automaton.AutomatonMatcher;
 import dk.brics.automaton.RegExp;
 import dk.brics.automaton.RunAutomaton;
+import dk.brics.automaton.SpecialOperations;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
 
 /**
  * This is the standard implementation of a {@link SearchPattern} based on automaton RegExp.<br>
@@ -34,22 +49,37 @@ import dk.brics.automaton.RunAutomaton;
  */
 final class RegExpSearchPattern extends SearchPattern {
 
-  private static long constructor;
-  private static long noOfCharsBeforeLastOccurenceIn;
-  private static long noOfCharsBeforeLastShortestOccurenceIn;
-  private static long noOfCharsAfterLastOccurenceIn;
-  private static long noOfCharsAfterLastShortestOccurenceIn;
-  private static long matches;
-  private static long noOfSurroundingCharsIn;
-  private static long matchesAtEnd;
+  // LongAdder because the patterns are used by many threads at the same time
+  private static final LongAdder CONSTRUCTOR = new LongAdder();
+  private static final LongAdder NO_OF_CHARS_BEFORE_LAST_OCCURENCE_IN = new LongAdder();
+  private static final LongAdder NO_OF_CHARS_BEFORE_LAST_SHORTEST_OCCURENCE_IN = new LongAdder();
+  private static final LongAdder NO_OF_CHARS_AFTER_LAST_OCCURENCE_IN = new LongAdder();
+  private static final LongAdder NO_OF_CHARS_AFTER_LAST_SHORTEST_OCCURENCE_IN = new LongAdder();
+  private static final LongAdder MATCHES = new LongAdder();
+  private static final LongAdder NO_OF_SURROUNDING_CHARS_IN = new LongAdder();
+  private static final LongAdder MATCHES_AT_END = new LongAdder();
+
+  private static final LongAdder FIRST_OCCURENCE_IN = new LongAdder();
+  private static final LongAdder LAST_OCCURENCE_IN = new LongAdder();
 
-  private static long firstOccurenceIn;
-  private static long lastOccurenceIn;
+  // the additional automatons are built by a subset construction; this may explode (e.g. '.*x??????????y')
+  // if there are more states, the (slower) matchers based on the anchored automaton are used
+  private static final int MAX_STATES = 1000;
+  static final RunAutomaton TOO_LARGE = new RunAutomaton(Automaton.makeEmpty(), false);
 
   private final String patternString;
+  private final Automaton automaton;
   private final RunAutomaton runAutomaton;
   private final int minLength;
 
+  // additional automatons to find occurrences in one pass over the text; they are built on first use
+  // '.*P' - a forward run accepts at every position where a match ends
+  private volatile RunAutomaton unanchoredRunAutomaton;
+  // reverse(P) - a backward run from the end of a match accepts at every position where this match starts
+  private volatile RunAutomaton reversedRunAutomaton;
+  // '.*reverse(P)' - a backward run accepts at every position where a match starts
+  private volatile RunAutomaton unanchoredReversedRunAutomaton;
+
   /**
    * The constructor.
    *
@@ -58,12 +88,139 @@ final class RegExpSearchPattern extends SearchPattern {
    */
   protected RegExpSearchPattern(final String anOriginalString, final String aPatternString) {
     super(anOriginalString);
+    CONSTRUCTOR.increment();
 
     patternString = aPatternString;
 
-    final Automaton tmpAutomaton = new RegExp(patternString).toAutomaton();
-    minLength = tmpAutomaton.getShortestExample(true).length();
-    runAutomaton = new RunAutomaton(tmpAutomaton);
+    automaton = new RegExp(patternString).toAutomaton();
+    minLength = automaton.getShortestExample(true).length();
+    runAutomaton = new RunAutomaton(automaton);
+  }
+
+  @Override
+  int getWeight() {
+    // the weight is determined when the pattern is cached, before the additional automatons are built on demand;
+    // they usually have about the same size as the anchored one
+    return runAutomaton.getSize() * 4;
+  }
+
+  private RunAutomaton getUnanchoredRunAutomaton() {
+    RunAutomaton tmpResult = unanchoredRunAutomaton;
+    if (null == tmpResult) {
+      // parallel callers may build it twice; the result is the same
+      tmpResult = determinize(Automaton.makeAnyString().concatenate(automaton));
+      unanchoredRunAutomaton = tmpResult;
+    }
+    return tmpResult;
+  }
+
+  private RunAutomaton getReversedRunAutomaton() {
+    RunAutomaton tmpResult = reversedRunAutomaton;
+    if (null == tmpResult) {
+      tmpResult = determinize(createReversedAutomaton());
+      reversedRunAutomaton = tmpResult;
+    }
+    return tmpResult;
+  }
+
+  private RunAutomaton getUnanchoredReversedRunAutomaton() {
+    RunAutomaton tmpResult = unanchoredReversedRunAutomaton;
+    if (null == tmpResult) {
+      tmpResult = determinize(Automaton.makeAnyString().concatenate(createReversedAutomaton()));
+      unanchoredReversedRunAutomaton = tmpResult;
+    }
+    return tmpResult;
+  }
+
+  private Automaton createReversedAutomaton() {
+    final Automaton tmpReversed = automaton.clone();
+    SpecialOperations.reverse(tmpReversed);
+    return tmpReversed;
+  }
+
+  /**
+   * Converts the given (nondeterministic) automaton into a minimal {@link RunAutomaton} using a subset construction
+   * that stops if the result gets too large.
+   *
+   * @param anAutomaton the automaton
+   * @return the {@link RunAutomaton} or {@link #TOO_LARGE} if there are more than {@link #MAX_STATES} states
+   */
+  static RunAutomaton determinize(final Automaton anAutomaton) {
+    // the start points of all char intervals used by any transition
+    final State tmpInitialState = anAutomaton.getInitialState();
+    final SortedSet<Character> tmpPointSet = new TreeSet<>();
+    tmpPointSet.add(Character.MIN_VALUE);
+    final Set<State> tmpVisited = new HashSet<>();
+    final Deque<State> tmpStack = new ArrayDeque<>();
+    tmpStack.push(tmpInitialState);
+    tmpVisited.add(tmpInitialState);
+    while (!tmpStack.isEmpty()) {
+      for (final Transition tmpTransition : tmpStack.pop().getTransitions()) {
+        tmpPointSet.add(tmpTransition.getMin());
+        if (tmpTransition.getMax() < Character.MAX_VALUE) {
+          tmpPointSet.add((char) (tmpTransition.getMax() + 1));
+        }
+        if (tmpVisited.add(tmpTransition.getDest())) {
+          tmpStack.push(tmpTransition.getDest());
+        }
+      }
+    }
+    final char[] tmpPoints = new char[tmpPointSet.size()];
+    int i = 0;
+    for (final Character tmpPoint : tmpPointSet) {
+      tmpPoints[i] = tmpPoint;
+      i++;
+    }
+
+    final Map<Set<State>, State> tmpStates = new HashMap<>();
+    final Deque<Set<State>> tmpWorklist = new ArrayDeque<>();
+    final Set<State> tmpInitialSet = Collections.singleton(tmpInitialState);
+    final State tmpDfaInitialState = new State();
+    tmpStates.put(tmpInitialSet, tmpDfaInitialState);
+    tmpWorklist.add(tmpInitialSet);
+    while (!tmpWorklist.isEmpty()) {
+      final Set<State> tmpSet = tmpWorklist.poll();
+      final State tmpDfaState = tmpStates.get(tmpSet);
+      for (final State tmpState : tmpSet) {
+        if (tmpState.isAccept()) {
+          tmpDfaState.setAccept(true);
+          break;
+        }
+      }
+
+      for (int n = 0; n < tmpPoints.length; n++) {
+        final Set<State> tmpNextSet = new HashSet<>();
+        for (final State tmpState : tmpSet) {
+          tmpState.step(tmpPoints[n], tmpNextSet);
+        }
+        if (tmpNextSet.isEmpty()) {
+          continue;
+        }
+
+        State tmpDfaNextState = tmpStates.get(tmpNextSet);
+        if (null == tmpDfaNextState) {
+          if (tmpStates.size() >= MAX_STATES) {
+            return TOO_LARGE;
+          }
+          tmpDfaNextState = new State();
+          tmpStates.put(tmpNextSet, tmpDfaNextState);
+          tmpWorklist.add(tmpNextSet);
+        }
+        final char tmpMax;
+        if (n + 1 < tmpPoints.length) {
+          tmpMax = (char) (tmpPoints[n + 1] - 1);
+        } else {
+          tmpMax = Character.MAX_VALUE;
+        }
+        tmpDfaState.addTransition(new Transition(tmpPoints[n], tmpMax, tmpDfaNextState));
+      }
+    }
+
+    final Automaton tmpResult = new Automaton();
+    tmpResult.setInitialState(tmpDfaInitialState);
+    tmpResult.setDeterministic(true);
+    tmpResult.minimize();
+    return new RunAutomaton(tmpResult, false);
   }
 
   @Override
@@ -73,7 +230,7 @@ final class RegExpSearchPattern extends SearchPattern {
 
   @Override
   public boolean matches(final String aString) {
-    matches++;
+    MATCHES.increment();
     if (null == aString) {
       return false;
     }
@@ -87,7 +244,7 @@ final class RegExpSearchPattern extends SearchPattern {
 
   @Override
   public boolean matchesAtEnd(final String aString) {
-    matchesAtEnd++;
+    MATCHES_AT_END.increment();
     if (StringUtils.isEmpty(aString)) {
       return false;
     }
@@ -96,12 +253,24 @@ final class RegExpSearchPattern extends SearchPattern {
       return false;
     }
 
-    final AutomatonFromEndMatcher tmpMatcher = new AutomatonFromEndMatcher(aString, minLength, runAutomaton);
-    if (!tmpMatcher.find()) {
-      return false;
+    final RunAutomaton tmpReversedRunAutomaton = getReversedRunAutomaton();
+    if (TOO_LARGE == tmpReversedRunAutomaton) {
+      final AutomatonFromEndMatcher tmpMatcher = new AutomatonFromEndMatcher(aString, minLength, runAutomaton);
+      return tmpMatcher.find() && tmpMatcher.end() == aString.length();
     }
 
-    return tmpMatcher.end() == aString.length();
+    // a backward run from the end accepts if there is a match ending at the end
+    int tmpState = tmpReversedRunAutomaton.getInitialState();
+    for (int i = aString.length() - 1; i >= 0; i--) {
+      tmpState = tmpReversedRunAutomaton.step(tmpState, aString.charAt(i));
+      if (tmpState == -1) {
+        return false;
+      }
+      if (tmpReversedRunAutomaton.isAccept(tmpState)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -111,7 +280,7 @@ final class RegExpSearchPattern extends SearchPattern {
 
   @Override
   public FindSpot firstOccurenceIn(final String aString, final int aStartPos) {
-    firstOccurenceIn++;
+    FIRST_OCCURENCE_IN.increment();
 
     if (StringUtils.isEmpty(aString)) {
       return FindSpot.NOT_FOUND;
@@ -121,19 +290,16 @@ final class RegExpSearchPattern extends SearchPattern {
       return FindSpot.NOT_FOUND;
     }
 
-    final AutomatonShortMatcher tmpMatcher = new AutomatonShortMatcher(aString, aStartPos, runAutomaton);
-
-    final boolean tmpFound = tmpMatcher.find();
-    if (!tmpFound) {
+    final FindSpot tmpFindSpot = findFirstShortest(aString, Math.max(0, aStartPos));
+    if (null == tmpFindSpot) {
       return FindSpot.NOT_FOUND;
     }
-
-    return new FindSpot(tmpMatcher.start(), tmpMatcher.end());
+    return tmpFindSpot;
   }
 
   @Override
   public FindSpot lastOccurenceIn(final String aString) {
-    lastOccurenceIn++;
+    LAST_OCCURENCE_IN.increment();
 
     if (StringUtils.isEmpty(aString)) {
       return FindSpot.NOT_FOUND;
@@ -143,19 +309,12 @@ final class RegExpSearchPattern extends SearchPattern {
       return null;
     }
 
-    final AutomatonShortFromEndMatcher tmpMatcher = new AutomatonShortFromEndMatcher(aString, runAutomaton);
-
-    final boolean tmpFound = tmpMatcher.find();
-    if (!tmpFound) {
-      return null;
-    }
-
-    return new FindSpot(tmpMatcher.start(), tmpMatcher.end());
+    return findLastShortest(aString);
   }
 
   @Override
   public int noOfCharsBeforeLastOccurenceIn(final String aString) {
-    noOfCharsBeforeLastOccurenceIn++;
+    NO_OF_CHARS_BEFORE_LAST_OCCURENCE_IN.increment();
     int tmpResult = -1;
 
     if (StringUtils.isEmpty(aString)) {
@@ -180,7 +339,7 @@ final class RegExpSearchPattern extends SearchPattern {
 
   @Override
   public int noOfCharsBeforeLastShortestOccurenceIn(final String aString) {
-    noOfCharsBeforeLastShortestOccurenceIn++;
+    NO_OF_CHARS_BEFORE_LAST_SHORTEST_OCCURENCE_IN.increment();
     int tmpResult = -1;
 
     if (StringUtils.isEmpty(aString)) {
@@ -191,21 +350,19 @@ final class RegExpSearchPattern extends SearchPattern {
       return -1;
     }
 
-    final AutomatonShortFromEndMatcher tmpMatcher = new AutomatonShortFromEndMatcher(aString, runAutomaton);
-
-    final boolean tmpFound = tmpMatcher.find();
-    if (!tmpFound) {
+    final FindSpot tmpFindSpot = findLastShortest(aString);
+    if (null == tmpFindSpot) {
       return -1;
     }
 
     // we found something
-    tmpResult = tmpMatcher.start();
+    tmpResult = tmpFindSpot.getStartPos();
     return tmpResult;
   }
 
   @Override
   public int noOfCharsAfterLastOccurenceIn(final String aString) {
-    noOfCharsAfterLastOccurenceIn++;
+    NO_OF_CHARS_AFTER_LAST_OCCURENCE_IN.increment();
     int tmpResult = -1;
 
     if (StringUtils.isEmpty(aString)) {
@@ -230,7 +387,7 @@ final class RegExpSearchPattern extends SearchPattern {
 
   @Override
   public int noOfCharsAfterLastShortestOccurenceIn(final String aString) {
-    noOfCharsAfterLastShortestOccurenceIn++;
+    NO_OF_CHARS_AFTER_LAST_SHORTEST_OCCURENCE_IN.increment();
     int tmpResult = -1;
 
     if (StringUtils.isEmpty(aString)) {
@@ -241,21 +398,19 @@ final class RegExpSearchPattern extends SearchPattern {
       return -1;
     }
 
-    final AutomatonShortFromEndMatcher tmpMatcher = new AutomatonShortFromEndMatcher(aString, runAutomaton);
-
-    final boolean tmpFound = tmpMatcher.find();
-    if (!tmpFound) {
+    final FindSpot tmpFindSpot = findLastShortest(aString);
+    if (null == tmpFindSpot) {
       return -1;
     }
 
     // we found something
-    tmpResult = aString.length() - tmpMatcher.end();
+    tmpResult = aString.length() - tmpFindSpot.getEndPos();
     return tmpResult;
   }
 
   @Override
   public int noOfSurroundingCharsIn(final String aString) {
-    noOfSurroundingCharsIn++;
+    NO_OF_SURROUNDING_CHARS_IN.increment();
     if (null == aString) {
       return -1;
     }
@@ -277,22 +432,167 @@ final class RegExpSearchPattern extends SearchPattern {
     return tmpResult;
   }
 
+  /**
+   * Finds the first match; if there are more matches starting at this position, the shortest one is used.<br>
+   * Because the pattern is made from wildcards only, the first match ends at the first position where any match ends.
+   * This needs only one forward pass to the end of the match and one backward pass to the start of the match.
+   *
+   * @param aString the string to search inside
+   * @param aStartPos the position to start the search from
+   * @return the {@link FindSpot} or null if not found
+   */
+  private FindSpot findFirstShortest(final String aString, final int aStartPos) {
+    final RunAutomaton tmpUnanchoredRunAutomaton = getUnanchoredRunAutomaton();
+    final RunAutomaton tmpReversedRunAutomaton = getReversedRunAutomaton();
+    if (TOO_LARGE == tmpUnanchoredRunAutomaton || TOO_LARGE == tmpReversedRunAutomaton) {
+      final AutomatonShortMatcher tmpMatcher = new AutomatonShortMatcher(aString, aStartPos, runAutomaton);
+      if (!tmpMatcher.find()) {
+        return null;
+      }
+      return new FindSpot(tmpMatcher.start(), tmpMatcher.end());
+    }
+
+    final int tmpLength = aString.length();
+
+    // forward pass using '.*P' to find the first end
+    // as long as we are in the initial state, all chars not able to start a match
+    // are skipped using the (faster) tableized automaton
+    final int tmpInitialState = tmpUnanchoredRunAutomaton.getInitialState();
+    final boolean tmpSkip = !tmpUnanchoredRunAutomaton.isAccept(tmpInitialState);
+    int tmpEnd = -1;
+    int tmpState = tmpInitialState;
+    for (int i = aStartPos; i < tmpLength; i++) {
+      final char tmpChar = aString.charAt(i);
+      if (tmpSkip && tmpState == tmpInitialState && runAutomaton.step(runAutomaton.getInitialState(), tmpChar) == -1) {
+        continue;
+      }
+      tmpState = tmpUnanchoredRunAutomaton.step(tmpState, tmpChar);
+      if (tmpState == -1) {
+        return null;
+      }
+      if (tmpUnanchoredRunAutomaton.isAccept(tmpState)) {
+        tmpEnd = i + 1;
+        break;
+      }
+    }
+    if (tmpEnd == -1) {
+      return null;
+    }
+
+    // backward pass using reverse(P) to find all starts of matches ending there
+    final BitSet tmpStarts = new BitSet(tmpEnd - aStartPos);
+    tmpState = tmpReversedRunAutomaton.getInitialState();
+    for (int i = tmpEnd - 1; i >= aStartPos; i--) {
+      tmpState = tmpReversedRunAutomaton.step(tmpState, aString.charAt(i));
+      if (tmpState == -1) {
+        break;
+      }
+      if (tmpReversedRunAutomaton.isAccept(tmpState)) {
+        tmpStarts.set(i - aStartPos);
+      }
+    }
+
+    int tmpStart = tmpStarts.nextSetBit(0);
+    if (tmpStart < 0) {
+      // can't happen, there has to be a start
+      return null;
+    }
+
+    // a shorter match is used, as long as the following positions are able to start a match
+    // (e.g. a leading wildcard)
+    for (int i = tmpStart + 1; i < tmpEnd - aStartPos; i++) {
+      if (tmpStarts.get(i)) {
+        tmpStart = i;
+      } else if (isDeadBefore(aString, aStartPos + i, tmpEnd)) {
+        break;
+      }
+    }
+    return new FindSpot(aStartPos + tmpStart, tmpEnd);
+  }
+
+  /**
+   * @return true if a match started at the given position fails before reaching the given end
+   */
+  private boolean isDeadBefore(final String aString, final int aStartPos, final int anEndPos) {
+    int tmpState = runAutomaton.getInitialState();
+    for (int i = aStartPos; i < anEndPos; i++) {
+      tmpState = runAutomaton.step(tmpState, aString.charAt(i));
+      if (tmpState == -1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the match starting last; if there are more matches with this start, the shortest one is used.<br>
+   * This needs only one backward pass to the start of the match and one forward pass to the end of the match.
+   *
+   * @param aString the string to search inside
+   * @return the {@link FindSpot} or null if not found
+   */
+  private FindSpot findLastShortest(final String aString) {
+    final RunAutomaton tmpUnanchoredReversedRunAutomaton = getUnanchoredReversedRunAutomaton();
+    if (TOO_LARGE == tmpUnanchoredReversedRunAutomaton) {
+      final AutomatonShortFromEndMatcher tmpMatcher = new AutomatonShortFromEndMatcher(aString, runAutomaton);
+      if (!tmpMatcher.find()) {
+        return null;
+      }
+      return new FindSpot(tmpMatcher.start(), tmpMatcher.end());
+    }
+
+    // backward pass using '.*reverse(P)' to find the last start
+    int tmpStart = -1;
+    int tmpState = tmpUnanchoredReversedRunAutomaton.getInitialState();
+    for (int i = aString.length() - 1; i >= 0; i--) {
+      tmpState = tmpUnanchoredReversedRunAutomaton.step(tmpState, aString.charAt(i));
+      if (tmpState == -1) {
+        return null;
+      }
+      if (tmpUnanchoredReversedRunAutomaton.isAccept(tmpState)) {
+        tmpStart = i;
+        break;
+      }
+    }
+    if (tmpStart == -1) {
+      return null;
+    }
+
+    // forward pass using P to find the nearest end
+    final int tmpLength = aString.length();
+    tmpState = runAutomaton.getInitialState();
+    for (int i = tmpStart; i < tmpLength; i++) {
+      tmpState = runAutomaton.step(tmpState, aString.charAt(i));
+      if (tmpState == -1) {
+        break;
+      }
+      if (runAutomaton.isAccept(tmpState)) {
+        return new FindSpot(tmpStart, i + 1);
+      }
+    }
+
+    // can't happen, there has to be an end
+    return null;
+  }
+
   /**
    * Helper to print the number of calls for the methods to stdout.
    */
   public static void dumpStatistics() {
-    System.out.println("constructor: " + constructor); // NOPMD
-    System.out.println("matches: " + matches); // NOPMD
-    System.out.println("matchesAtEnd: " + matchesAtEnd); // NOPMD
+    System.out.println("constructor: " + CONSTRUCTOR.sum()); // NOPMD
+    System.out.println("matches: " + MATCHES.sum()); // NOPMD
+    System.out.println("matchesAtEnd: " + MATCHES_AT_END.sum()); // NOPMD
     System.out.println(); // NOPMD
-    System.out.println("firstOccurenceIn: " + firstOccurenceIn); // NOPMD
-    System.out.println("lastOccurenceIn: " + lastOccurenceIn); // NOPMD
+    System.out.println("firstOccurenceIn: " + FIRST_OCCURENCE_IN.sum()); // NOPMD
+    System.out.println("lastOccurenceIn: " + LAST_OCCURENCE_IN.sum()); // NOPMD
     System.out.println(); // NOPMD
-    System.out.println("noOfCharsBeforeLastOccurenceIn: " + noOfCharsBeforeLastOccurenceIn); // NOPMD
-    System.out.println("noOfCharsBeforeLastShortestOccurenceIn: " + noOfCharsBeforeLastShortestOccurenceIn); // NOPMD
-    System.out.println("noOfCharsAfterLastOccurenceIn: " + noOfCharsAfterLastOccurenceIn); // NOPMD
-    System.out.println("noOfCharsAfterLastShortestOccurenceIn: " + noOfCharsAfterLastShortestOccurenceIn); // NOPMD
-    System.out.println("noOfSurroundingCharsIn: " + noOfSurroundingCharsIn); // NOPMD
+    System.out.println("noOfCharsBeforeLastOccurenceIn: " + NO_OF_CHARS_BEFORE_LAST_OCCURENCE_IN.sum()); // NOPMD
+    System.out.println("noOfCharsBeforeLastShortestOccurenceIn: " // NOPMD
+        + NO_OF_CHARS_BEFORE_LAST_SHORTEST_OCCURENCE_IN.sum());
+    System.out.println("noOfCharsAfterLastOccurenceIn: " + NO_OF_CHARS_AFTER_LAST_OCCURENCE_IN.sum()); // NOPMD
+    System.out.println("noOfCharsAfterLastShortestOccurenceIn: " // NOPMD
+        + NO_OF_CHARS_AFTER_LAST_SHORTEST_OCCURENCE_IN.sum());
+    System.out.println("noOfSurroundingCharsIn: " + NO_OF_SURROUNDING_CHARS_IN.sum()); // NOPMD
   }
 
   @Override
@@ -16,9 +16,14 @@
 
 package org.wetator.core.searchpattern;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.wetator.util.FindSpot;
 import org.wetator.util.SecretString;
@@ -34,7 +39,8 @@ public abstract class SearchPattern {
 
   private static final String SPECIAL_CHARS = "(){}[]|&~+^-.#@\"<>";
 
-  private static final SearchPatternCache SEARCH_PATTERN_CACHE = new SearchPatternCache(500);
+  // the weight is the number of automaton states; this limits the memory used by the cache
+  private static final SearchPatternCache SEARCH_PATTERN_CACHE = new SearchPatternCache(500, 200_000);
   private final String originalString;
 
   /**
@@ -93,86 +99,82 @@ public abstract class SearchPattern {
     if (tmpSearchPattern != null) {
       return tmpSearchPattern;
     }
-    synchronized (SEARCH_PATTERN_CACHE) {
-      tmpSearchPattern = SEARCH_PATTERN_CACHE.get(tmpDosStyleWildcardString);
-      if (tmpSearchPattern != null) {
-        return tmpSearchPattern;
-      }
-
-      final String tmpOriginalString = tmpDosStyleWildcardString;
 
-      final StringBuilder tmpPattern = new StringBuilder();
-      final StringBuilder tmpTextPattern = new StringBuilder();
-
-      boolean tmpSlash = false;
-      boolean tmpIsStarPattern = true;
-      boolean tmpIsTextOnly = true;
-      for (int i = 0; i < tmpDosStyleWildcardString.length(); i++) {
-        final char tmpChar = tmpDosStyleWildcardString.charAt(i);
+    // no lock here; if two threads are compiling the same pattern, the first one put into the cache wins
+    tmpSearchPattern = createSearchPattern(tmpDosStyleWildcardString);
+    return SEARCH_PATTERN_CACHE.put(tmpDosStyleWildcardString, tmpSearchPattern);
+  }
 
-        if ('*' == tmpChar) {
-          if (tmpSlash) {
-            tmpPattern.append("\\*");
-            tmpTextPattern.append('*');
-            tmpSlash = false;
-            continue;
-          }
-          tmpPattern.append(".*");
-          tmpIsTextOnly = false;
-          continue;
-        } else if ('?' == tmpChar) {
-          tmpIsStarPattern = false;
-          if (tmpSlash) {
-            tmpPattern.append("\\?");
-            tmpTextPattern.append('?');
-            tmpSlash = false;
-            continue;
-          }
-          tmpPattern.append('.');
-          tmpIsTextOnly = false;
-          continue;
-        } else if (SPECIAL_CHARS.indexOf(tmpChar) > -1) {
-          tmpIsStarPattern = false;
-          if (tmpSlash) {
-            tmpPattern.append("\\\\\\").append(tmpChar);
-            tmpTextPattern.append('\\').append(tmpChar);
-            tmpSlash = false;
-            continue;
-          }
-          tmpPattern.append('\\').append(tmpChar);
-          tmpTextPattern.append(tmpChar);
+  private static SearchPattern createSearchPattern(final String aDosStyleWildcardString) {
+    final StringBuilder tmpPattern = new StringBuilder();
+    final StringBuilder tmpTextPattern = new StringBuilder();
+
+    boolean tmpSlash = false;
+    boolean tmpIsStarPattern = true;
+    boolean tmpIsTextOnly = true;
+    for (int i = 0; i < aDosStyleWildcardString.length(); i++) {
+      final char tmpChar = aDosStyleWildcardString.charAt(i);
+
+      if ('*' == tmpChar) {
+        if (tmpSlash) {
+          tmpPattern.append("\\*");
+          tmpTextPattern.append('*');
+          tmpSlash = false;
           continue;
-        } else if ('\\' == tmpChar) {
-          tmpIsStarPattern = false;
-          tmpSlash = true;
+        }
+        tmpPattern.append(".*");
+        tmpIsTextOnly = false;
+        continue;
+      } else if ('?' == tmpChar) {
+        tmpIsStarPattern = false;
+        if (tmpSlash) {
+          tmpPattern.append("\\?");
+          tmpTextPattern.append('?');
+          tmpSlash = false;
           continue;
-        } else {
-          tmpIsStarPattern = false;
-          if (tmpSlash) {
-            tmpPattern.append("\\\\");
-            tmpTextPattern.append('\\');
-            tmpSlash = false;
-          }
-          tmpPattern.append(tmpChar);
-          tmpTextPattern.append(tmpChar);
+        }
+        tmpPattern.append('.');
+        tmpIsTextOnly = false;
+        continue;
+      } else if (SPECIAL_CHARS.indexOf(tmpChar) > -1) {
+        tmpIsStarPattern = false;
+        if (tmpSlash) {
+          tmpPattern.append("\\\\\\").append(tmpChar);
+          tmpTextPattern.append('\\').append(tmpChar);
+          tmpSlash = false;
           continue;
         }
-      }
-      if (tmpSlash) {
-        tmpPattern.append("\\\\");
-        tmpTextPattern.append('\\');
-      }
-
-      if (tmpIsStarPattern) {
-        tmpSearchPattern = new MatchAllSearchPattern();
-      } else if (tmpIsTextOnly) {
-        tmpSearchPattern = new TextOnlySearchPattern(tmpOriginalString, tmpTextPattern.toString());
+        tmpPattern.append('\\').append(tmpChar);
+        tmpTextPattern.append(tmpChar);
+        continue;
+      } else if ('\\' == tmpChar) {
+        tmpIsStarPattern = false;
+        tmpSlash = true;
+        continue;
       } else {
-        tmpSearchPattern = new RegExpSearchPattern(tmpOriginalString, tmpPattern.toString());
+        tmpIsStarPattern = false;
+        if (tmpSlash) {
+          tmpPattern.append("\\\\");
+          tmpTextPattern.append('\\');
+          tmpSlash = false;
+        }
+        tmpPattern.append(tmpChar);
+        tmpTextPattern.append(tmpChar);
+        continue;
       }
-      SEARCH_PATTERN_CACHE.put(aDosStyleWildcardString, tmpSearchPattern);
     }
-    return tmpSearchPattern;
+    if (tmpSlash) {
+      tmpPattern.append("\\\\");
+      tmpTextPattern.append('\\');
+    }
+
+    if (tmpIsStarPattern) {
+      return new MatchAllSearchPattern();
+    }
+    if (tmpIsTextOnly) {
+      return new TextOnlySearchPattern(aDosStyleWildcardString, tmpTextPattern.toString());
+    }
+    return new RegExpSearchPattern(aDosStyleWildcardString, tmpPattern.toString());
   }
 
   /**
@@ -275,6 +277,13 @@ public abstract class SearchPattern {
    */
   public abstract int noOfSurroundingCharsIn(String aString);
 
+  /**
+   * @return the weight of this pattern used to limit the size of the cache (the number of automaton states)
+   */
+  int getWeight() {
+    return 1;
+  }
+
   /**
    * @return the string used to construct this {@link SearchPattern}
    */
@@ -318,27 +327,44 @@ public abstract class SearchPattern {
   }
 
   /**
-   * Cache.
+   * Cache.<br>
+   * The cache is thread safe; reading is lock free. The size of the cache is limited by the sum of the
+   * weights of the patterns; if the limit is exceeded, the least recently used patterns are evicted.
    */
-  private static class SearchPatternCache {
-    private final Map<String, SearchPattern> cache;
-    private int hitsCount;
+  static final class SearchPatternCache {
+    private final Map<String, CacheEntry> cache;
+    private final long maxWeight;
+    private final AtomicLong weight = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
 
-    SearchPatternCache(final int anInitialSize) {
-      cache = new HashMap<>(anInitialSize);
+    private final LongAdder hitsCount = new LongAdder();
+    private final LongAdder missesCount = new LongAdder();
+    private final LongAdder evictionsCount = new LongAdder();
 
+    /**
+     * The constructor.
+     *
+     * @param anInitialSize the initial size
+     * @param aMaxWeight the maximum sum of the weights of all cached patterns
+     */
+    SearchPatternCache(final int anInitialSize, final long aMaxWeight) {
+      cache = new ConcurrentHashMap<>(anInitialSize);
+      maxWeight = aMaxWeight;
     }
 
     /**
      * @param aDosStyleWildcardString the wildcard string
      * @return the cached pattern or <code>null</code> if not found
      */
-    public synchronized SearchPattern get(final String aDosStyleWildcardString) {
-      final SearchPattern tmpPattern = cache.get(aDosStyleWildcardString);
-      if (null != tmpPattern) {
-        hitsCount++;
+    public SearchPattern get(final String aDosStyleWildcardString) {
+      final CacheEntry tmpEntry = cache.get(aDosStyleWildcardString);
+      if (null == tmpEntry) {
+        missesCount.increment();
+        return null;
       }
-      return tmpPattern;
+      hitsCount.increment();
+      tmpEntry.lastAccess = System.nanoTime();
+      return tmpEntry.searchPattern;
     }
 
     /**
@@ -346,23 +372,89 @@ public abstract class SearchPattern {
      *
      * @param aDosStyleWildcardString the wildcard string
      * @param aSearchPattern the compiled {@link SearchPattern}
+     * @return the cached {@link SearchPattern}; this is the already cached one if another thread was faster
+     */
+    public SearchPattern put(final String aDosStyleWildcardString, final SearchPattern aSearchPattern) {
+      final CacheEntry tmpEntry = new CacheEntry(aSearchPattern);
+      final CacheEntry tmpExisting = cache.putIfAbsent(aDosStyleWildcardString, tmpEntry);
+      if (null != tmpExisting) {
+        return tmpExisting.searchPattern;
+      }
+
+      if (weight.addAndGet(tmpEntry.weight) > maxWeight) {
+        evict();
+      }
+      return aSearchPattern;
+    }
+
+    private void evict() {
+      // only one thread does the work
+      if (!evictionLock.tryLock()) {
+        return;
+      }
+      try {
+        // evict down to 3/4 of the max weight to not sort the entries for every new pattern
+        final long tmpTargetWeight = maxWeight / 4 * 3;
+        final List<Map.Entry<String, CacheEntry>> tmpEntries = new ArrayList<>(cache.entrySet());
+        // the last access may change while sorting; sort a snapshot
+        for (final Map.Entry<String, CacheEntry> tmpEntry : tmpEntries) {
+          tmpEntry.getValue().evictionOrder = tmpEntry.getValue().lastAccess;
+        }
+        tmpEntries.sort(Comparator.comparingLong(anEntry -> anEntry.getValue().evictionOrder));
+
+        for (final Map.Entry<String, CacheEntry> tmpEntry : tmpEntries) {
+          if (weight.get() <= tmpTargetWeight) {
+            break;
+          }
+          if (cache.remove(tmpEntry.getKey(), tmpEntry.getValue())) {
+            weight.addAndGet(-tmpEntry.getValue().weight);
+            evictionsCount.increment();
+          }
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    /**
+     * @return the number of cached patterns
      */
-    public synchronized void put(final String aDosStyleWildcardString, final SearchPattern aSearchPattern) {
-      cache.put(aDosStyleWildcardString, aSearchPattern);
+    public int size() {
+      return cache.size();
     }
 
     /**
      * @return a string with some statistic info
      */
-    public synchronized String getStatistics() {
+    public String getStatistics() {
       // @formatter:off
-      final StringBuilder tmpResult = new StringBuilder(80) // NOPMD
+      final StringBuilder tmpResult = new StringBuilder(160) // NOPMD
         .append("SearchPatternCache statistics:\n")
-        .append("      Entries: ").append(cache.size()).append('\n')
-        .append("      Hits:    ").append(hitsCount);
+        .append("      Entries:   ").append(cache.size()).append('\n')
+        .append("      Weight:    ").append(weight.get()).append(" (max ").append(maxWeight).append(")\n")
+        .append("      Hits:      ").append(hitsCount.sum()).append('\n')
+        .append("      Misses:    ").append(missesCount.sum()).append('\n')
+        .append("      Evictions: ").append(evictionsCount.sum());
       // @formatter:on
 
       return tmpResult.toString();
     }
+
+    /**
+     * The cached pattern together with the info required for the eviction.
+     */
+    private static final class CacheEntry {
+      private final SearchPattern searchPattern;
+      private final int weight;
+      private volatile long lastAccess;
+      // only used while evicting (guarded by the eviction lock)
+      private long evictionOrder;
+
+      CacheEntry(final SearchPattern aSearchPattern) {
+        searchPattern = aSearchPattern;
+        weight = aSearchPattern.getWeight();
+        lastAccess = System.nanoTime();
+      }
+    }
   }
 }
@@ -43,6 +43,13 @@ public final class TextOnlySearchPattern extends SearchPattern {
     patternLength = aPatternString.length();
   }
 
+  /**
+   * @return the (unescaped) text this pattern matches
+   */
+  public String getPatternString() {
+    return patternString;
+  }
+
   @Override
   public int getMinLength() {
     return patternLength;
@@ -116,6 +116,7 @@ public class XMLResultWriter implements IProgressListener {
   private static final Pattern MERGE_TESTCASE_START_PATTERN = Pattern.compile("^\\s*<testcase id=\"[0-9]+\".*>");
   private static final Pattern MERGE_TESTCASE_END_PATTERN = Pattern.compile("^\\s*<\\/testcase>");
 
+  private WetatorEngine wetatorEngine;
   private Output output;
   private XMLUtil xmlUtil;
 
@@ -133,6 +134,8 @@ public class XMLResultWriter implements IProgressListener {
 
   @Override
   public void init(final WetatorEngine aWetatorEngine) {
+    // the events may be passed to us after they happened (parallel mode); the engine provides the correct time
+    wetatorEngine = aWetatorEngine;
     try {
       final WetatorConfiguration tmpConfiguration = aWetatorEngine.getConfiguration();
 
@@ -228,7 +231,7 @@ public class XMLResultWriter implements IProgressListener {
                     tmpMatcher = MERGE_EXECUTION_TIME_PATTERN.matcher(tmpLine);
                     if (tmpMatcher.matches()) {
                       final int tmpExecutionTime = Integer.parseInt(tmpMatcher.group(2));
-                      executionStartTime = System.currentTimeMillis() - tmpExecutionTime;
+                      executionStartTime = wetatorEngine.getEventTime() - tmpExecutionTime;
 
                       // everything copied, the result file is now ready for further writing
                       output.indent();
@@ -258,7 +261,7 @@ public class XMLResultWriter implements IProgressListener {
         printlnNode(TAG_TEST_FILE, FilenameUtils.normalize(tmpTestCase.getFile().getAbsolutePath()));
       }
 
-      executionStartTime = System.currentTimeMillis();
+      executionStartTime = wetatorEngine.getEventTime();
     } catch (final IOException e) {
       LOG.error(e.getMessage(), e);
     }
@@ -342,7 +345,7 @@ public class XMLResultWriter implements IProgressListener {
       printEndTag(TAG_THIRD_PARAM);
       output.println();
 
-      commandExecutionStartTimes.push(System.currentTimeMillis());
+      commandExecutionStartTimes.push(wetatorEngine.getEventTime());
     } catch (final IOException e) {
       LOG.error(e.getMessage(), e);
     }
@@ -397,7 +400,7 @@ public class XMLResultWriter implements IProgressListener {
   @Override
   public void executeCommandEnd() {
     try {
-      printlnNode(TAG_EXECUTION_TIME, Long.toString(System.currentTimeMillis() - commandExecutionStartTimes.pop()));
+      printlnNode(TAG_EXECUTION_TIME, Long.toString(wetatorEngine.getEventTime() - commandExecutionStartTimes.pop()));
 
       printlnEndTag(TAG_COMMAND);
     } catch (final IOException e) {
@@ -449,7 +452,7 @@ public class XMLResultWriter implements IProgressListener {
     final WetatorConfiguration tmpConfiguration = aWetatorEngine.getConfiguration();
 
     try {
-      printlnNode(TAG_EXECUTION_TIME, Long.toString(System.currentTimeMillis() - executionStartTime));
+      printlnNode(TAG_EXECUTION_TIME, Long.toString(wetatorEngine.getEventTime() - executionStartTime));
 
       // for the moment we do not merge the statistics;
       // skip because this is incorrect in append case
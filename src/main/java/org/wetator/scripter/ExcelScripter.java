@@ -26,16 +26,29 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 
+import javax.xml.parsers.ParserConfigurationException;
+
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.wetator.core.Command;
 import org.wetator.core.IScripter;
 import org.wetator.core.Parameter;
@@ -43,6 +56,9 @@ import org.wetator.core.WetatorConfiguration;
 import org.wetator.exception.InvalidInputException;
 import org.wetator.util.ContentUtil;
 import org.wetator.util.NormalizedString;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
  * Scripter for excel files.
@@ -56,6 +72,13 @@ public final class ExcelScripter implements IScripter {
 
   private static final String PROPERTY_PREFIX = WetatorConfiguration.PROPERTY_PREFIX + "scripter.excel.";
   private static final String PROPERTY_LOCALE = PROPERTY_PREFIX + "locale";
+  /**
+   * Read xlsx files row by row without building the workbook (xls files are always read the normal way).<br>
+   * Both modes format the cells using a {@link DataFormatter} for the configured locale, so strings, numbers, dates
+   * and booleans are the same. But formulas are not evaluated; the result stored in the file is used even if it is
+   * outdated (e.g. volatile functions like TODAY()) or missing (files written by tools that do not store the results).
+   */
+  private static final String PROPERTY_STREAMING = PROPERTY_PREFIX + "streaming";
 
   private static final String EXCEL_FILE_EXTENSION_XLS = ".xls";
   private static final String EXCEL_FILE_EXTENSION_XLSX = ".xlsx";
@@ -64,13 +87,18 @@ public final class ExcelScripter implements IScripter {
   private static final int FIRST_PARAM_COLUMN_NO = 2;
   private static final int SECOND_PARAM_COLUMN_NO = 3;
   private static final int THIRD_PARAM_COLUMN_NO = 4;
+  private static final int COLUMN_COUNT = 5;
 
   private File file;
   private List<Command> commands;
   private Locale locale = Locale.getDefault();
+  private boolean streaming;
 
   @Override
   public void initialize(final Properties aConfiguration) {
+    // xlsx files are read row by row without building the workbook; the cached formula results are used
+    streaming = Boolean.parseBoolean(aConfiguration.getProperty(PROPERTY_STREAMING, "false"));
+
     final String tmpPropLocale = aConfiguration.getProperty(PROPERTY_LOCALE);
 
     if (StringUtils.isEmpty(tmpPropLocale)) {
@@ -112,7 +140,11 @@ public final class ExcelScripter implements IScripter {
   public void script(final File aFile) throws InvalidInputException {
     file = aFile;
 
-    commands = readCommands();
+    if (streaming && aFile.getName().toLowerCase(Locale.ROOT).endsWith(EXCEL_FILE_EXTENSION_XLSX)) {
+      commands = readCommandsStreaming();
+    } else {
+      commands = readCommands();
+    }
   }
 
   private List<Command> readCommands() throws InvalidInputException {
@@ -122,8 +154,7 @@ public final class ExcelScripter implements IScripter {
       try (Workbook tmpWorkbook = WorkbookFactory.create(tmpInputStream)) {
         int tmpSheetNo = -1;
         for (int i = 0; i < tmpWorkbook.getNumberOfSheets(); i++) {
-          final String tmpSheetName = tmpWorkbook.getSheetName(i);
-          if (StringUtils.isNotEmpty(tmpSheetName) && tmpSheetName.toLowerCase(Locale.ROOT).contains("test")) {
+          if (isTestSheet(tmpWorkbook.getSheetName(i))) {
             tmpSheetNo = i;
             break;
           }
@@ -138,53 +169,14 @@ public final class ExcelScripter implements IScripter {
         final FormulaEvaluator tmpFormulaEvaluator = tmpWorkbook.getCreationHelper().createFormulaEvaluator();
 
         for (int tmpLine = 0; tmpLine <= tmpSheet.getLastRowNum(); tmpLine++) {
-          final Row tmpRow;
-          final String tmpCommentString;
-          final boolean tmpCommentFlag;
-          String tmpCommandName;
-
-          tmpRow = tmpSheet.getRow(tmpLine);
+          final Row tmpRow = tmpSheet.getRow(tmpLine);
           // strange case but it really happens
           if (null != tmpRow) {
-            tmpCommentString = ContentUtil.readCellContentAsString(tmpRow, COMMENT_COLUMN_NO, tmpFormulaEvaluator,
-                locale);
-            tmpCommentFlag = StringUtils.isNotEmpty(tmpCommentString);
-
-            tmpCommandName = ContentUtil.readCellContentAsString(tmpRow, COMMAND_NAME_COLUMN_NO, tmpFormulaEvaluator,
-                locale);
-            // normalize command name
-            if (StringUtils.isNotEmpty(tmpCommandName)) {
-              tmpCommandName = tmpCommandName.replace(' ', '-').replace('_', '-').toLowerCase(Locale.ROOT);
-            }
-            tmpCommandName = new NormalizedString(tmpCommandName).toString();
-
-            // empty command means comment
-            if (tmpCommentFlag && StringUtils.isEmpty(tmpCommandName)) {
-              tmpCommandName = "Comment";
-            }
-
-            if (!StringUtils.isEmpty(tmpCommandName)) {
-              final Command tmpCommand = new Command(tmpCommandName, tmpCommentFlag);
-
-              Parameter tmpParameter = readCellContentAsParameter(tmpRow, FIRST_PARAM_COLUMN_NO, tmpFormulaEvaluator);
-              if (null != tmpParameter) {
-                tmpCommand.setFirstParameter(tmpParameter);
-              }
-
-              tmpParameter = readCellContentAsParameter(tmpRow, SECOND_PARAM_COLUMN_NO, tmpFormulaEvaluator);
-              if (null != tmpParameter) {
-                tmpCommand.setSecondParameter(tmpParameter);
-              }
-
-              tmpParameter = readCellContentAsParameter(tmpRow, THIRD_PARAM_COLUMN_NO, tmpFormulaEvaluator);
-              if (null != tmpParameter) {
-                tmpCommand.setThirdParameter(tmpParameter);
-              }
-
-              tmpCommand.setLineNo(tmpLine + 1);
-
-              tmpResult.add(tmpCommand);
+            final String[] tmpCells = new String[COLUMN_COUNT];
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+              tmpCells[i] = ContentUtil.readCellContentAsString(tmpRow, i, tmpFormulaEvaluator, locale);
             }
+            addCommand(tmpResult, tmpCells, tmpLine);
           }
         }
       }
@@ -199,20 +191,129 @@ public final class ExcelScripter implements IScripter {
     }
   }
 
-  private Parameter readCellContentAsParameter(final Row aRow, final int aColumnsNo,
-      final FormulaEvaluator aFormulaEvaluator) {
-    final String tmpContent;
+  /**
+   * Reads the commands from an xlsx file without building the workbook. Only the rows of the test sheet are
+   * processed (one after the other) and formulas are not evaluated; the results cached in the file are used.
+   */
+  private List<Command> readCommandsStreaming() throws InvalidInputException {
+    final List<Command> tmpResult = new LinkedList<>();
+
+    try (OPCPackage tmpPackage = OPCPackage.open(file, PackageAccess.READ)) {
+      final XSSFReader tmpReader = new XSSFReader(tmpPackage, true);
+      final XSSFReader.SheetIterator tmpSheets = tmpReader.getSheetIterator();
+      while (tmpSheets.hasNext()) {
+        try (InputStream tmpSheetStream = tmpSheets.next()) {
+          if (isTestSheet(tmpSheets.getSheetName())) {
+            final XMLReader tmpXmlReader = XMLHelper.newXMLReader();
+            tmpXmlReader.setContentHandler(new XSSFSheetXMLHandler(tmpReader.getStylesTable(),
+                tmpReader.getSharedStringsTable(), new CommandSheetContentsHandler(tmpResult),
+                new DataFormatter(locale), false));
+            tmpXmlReader.parse(new InputSource(tmpSheetStream));
+            return tmpResult;
+          }
+        }
+      }
+
+      throw new InvalidInputException(
+          "No test sheet found in file '" + FilenameUtils.normalize(file.getAbsolutePath()) + "'.");
+    } catch (final IOException | OpenXML4JException | SAXException | ParserConfigurationException
+        | POIXMLException e) {
+      throw new InvalidInputException(
+          "Error parsing file '" + FilenameUtils.normalize(file.getAbsolutePath()) + "' (" + e.getMessage() + ").", e);
+    }
+  }
+
+  private static boolean isTestSheet(final String aSheetName) {
+    return StringUtils.isNotEmpty(aSheetName) && aSheetName.toLowerCase(Locale.ROOT).contains("test");
+  }
+
+  private static void addCommand(final List<Command> aCommands, final String[] aCells, final int aLine) {
+    final String tmpCommentString = aCells[COMMENT_COLUMN_NO];
+    final boolean tmpCommentFlag = StringUtils.isNotEmpty(tmpCommentString);
 
-    tmpContent = ContentUtil.readCellContentAsString(aRow, aColumnsNo, aFormulaEvaluator, locale);
-    if (StringUtils.isEmpty(tmpContent)) {
+    String tmpCommandName = aCells[COMMAND_NAME_COLUMN_NO];
+    // normalize command name
+    if (StringUtils.isNotEmpty(tmpCommandName)) {
+      tmpCommandName = tmpCommandName.replace(' ', '-').replace('_', '-').toLowerCase(Locale.ROOT);
+    }
+    tmpCommandName = new NormalizedString(tmpCommandName).toString();
+
+    // empty command means comment
+    if (tmpCommentFlag && StringUtils.isEmpty(tmpCommandName)) {
+      tmpCommandName = "Comment";
+    }
+
+    if (!StringUtils.isEmpty(tmpCommandName)) {
+      final Command tmpCommand = new Command(tmpCommandName, tmpCommentFlag);
+
+      Parameter tmpParameter = createParameter(aCells[FIRST_PARAM_COLUMN_NO]);
+      if (null != tmpParameter) {
+        tmpCommand.setFirstParameter(tmpParameter);
+      }
+
+      tmpParameter = createParameter(aCells[SECOND_PARAM_COLUMN_NO]);
+      if (null != tmpParameter) {
+        tmpCommand.setSecondParameter(tmpParameter);
+      }
+
+      tmpParameter = createParameter(aCells[THIRD_PARAM_COLUMN_NO]);
+      if (null != tmpParameter) {
+        tmpCommand.setThirdParameter(tmpParameter);
+      }
+
+      tmpCommand.setLineNo(aLine + 1);
+
+      aCommands.add(tmpCommand);
+    }
+  }
+
+  private static Parameter createParameter(final String aContent) {
+    if (StringUtils.isEmpty(aContent)) {
       return null;
     }
 
-    return new Parameter(tmpContent);
+    return new Parameter(aContent);
   }
 
   @Override
   public List<Command> getCommands() {
     return commands;
   }
+
+  /**
+   * Collects the cells of the command columns of every row and adds the commands to the list.
+   */
+  private static final class CommandSheetContentsHandler implements SheetContentsHandler {
+    private final List<Command> commands;
+    private String[] cells;
+    private int column;
+
+    CommandSheetContentsHandler(final List<Command> aCommands) {
+      commands = aCommands;
+    }
+
+    @Override
+    public void startRow(final int aRowNum) {
+      cells = new String[COLUMN_COUNT];
+      column = -1;
+    }
+
+    @Override
+    public void endRow(final int aRowNum) {
+      addCommand(commands, cells, aRowNum);
+    }
+
+    @Override
+    public void cell(final String aCellReference, final String aFormattedValue, final XSSFComment aComment) {
+      // the reference is optional
+      if (null == aCellReference) {
+        column++;
+      } else {
+        column = new CellReference(aCellReference).getCol();
+      }
+      if (column < COLUMN_COUNT) {
+        cells[column] = aFormattedValue;
+      }
+    }
+  }
 }
@@ -47,6 +47,7 @@ import org.wetator.core.Parameter;
 import org.wetator.exception.InvalidInputException;
 import org.wetator.exception.ResourceException;
 import org.wetator.scripter.xml.ModelBuilder;
+import org.wetator.scripter.xml.ModelCache;
 import org.wetator.scripter.xml.SchemaFinder;
 import org.wetator.scripter.xml.XMLSchema;
 import org.wetator.scripter.xml.model.CommandType;
@@ -85,6 +86,8 @@ public class XMLScripter implements IScripter {
   public static final XMLSchema DEFAULT_COMMAND_SET_SCHEMA = new XMLSchema("d",
       "http://www.wetator.org/xsd/default-command-set", "default-command-set-1.0.0.xsd");
 
+  private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
   private List<XMLSchema> schemas;
   private ModelBuilder model;
   private List<Command> commands;
@@ -181,25 +184,9 @@ public class XMLScripter implements IScripter {
 
   @Override
   public void script(final File aFile) throws InvalidInputException {
-    try {
-      try (Reader tmpReader = createUTF8Reader(aFile)) {
-        final List<XMLSchema> tmpSchemas = new SchemaFinder(tmpReader).getSchemas();
-
-        if (null == tmpSchemas || tmpSchemas.isEmpty()) {
-          throw new InvalidInputException(
-              "No schemas found in file '" + FilenameUtils.normalize(aFile.getAbsolutePath()) + "'.");
-        }
-
-        addDefaultSchemas(tmpSchemas);
-        removeDuplicateSchemas(tmpSchemas);
-        schemas = tmpSchemas;
-
-        model = new ModelBuilder(tmpSchemas, aFile.getParentFile());
-      }
-
-      try (Reader tmpReader = createUTF8Reader(aFile)) {
-        commands = parseScript(tmpReader);
-      }
+    try (Reader tmpReader = createUTF8Reader(aFile)) {
+      commands = parseScript(tmpReader, aFile.getParentFile(),
+          "file '" + FilenameUtils.normalize(aFile.getAbsolutePath()) + "'");
     } catch (final FileNotFoundException e) {
       throw new InvalidInputException("Could not find file '" + FilenameUtils.normalize(aFile.getAbsolutePath()) + "'.",
           e);
@@ -222,20 +209,7 @@ public class XMLScripter implements IScripter {
    */
   public void script(final String aContent, final File aDirectory) throws InvalidInputException {
     try (Reader tmpReader = new StringReader(aContent)) {
-      final List<XMLSchema> tmpSchemas = new SchemaFinder(tmpReader).getSchemas();
-
-      if (null == tmpSchemas || tmpSchemas.isEmpty()) {
-        throw new InvalidInputException("No schemas found in content.");
-      }
-
-      addDefaultSchemas(tmpSchemas);
-      removeDuplicateSchemas(tmpSchemas);
-      schemas = tmpSchemas;
-
-      model = new ModelBuilder(tmpSchemas, aDirectory);
-
-      tmpReader.reset();
-      commands = parseScript(tmpReader);
+      commands = parseScript(tmpReader, aDirectory, "content");
     } catch (final IOException e) {
       throw new ResourceException("Could not read content.", e);
     } catch (final XMLStreamException | SAXException | ParseException e) {
@@ -254,19 +228,39 @@ public class XMLScripter implements IScripter {
     aSchemaList.addAll(tmpSchemaSet);
   }
 
-  private List<Command> parseScript(final Reader aContent) throws XMLStreamException {
-    final XMLInputFactory tmpFactory = XMLInputFactory.newInstance();
-    final XMLStreamReader tmpReader = tmpFactory.createXMLStreamReader(aContent);
+  /**
+   * Reads the schemas from the root element, builds the model and parses the commands in one pass.
+   *
+   * @param aContent the reader reading the script
+   * @param aSchemaDirectory the directory to search for schema files; may be null
+   * @param aSource the description of the script source used for error messages
+   * @return the parsed commands
+   */
+  private List<Command> parseScript(final Reader aContent, final File aSchemaDirectory, final String aSource)
+      throws InvalidInputException, XMLStreamException, IOException, SAXException, ParseException {
+    final XMLStreamReader tmpReader = XML_INPUT_FACTORY.createXMLStreamReader(aContent);
 
     final List<Command> tmpResult = new ArrayList<>();
     try { // NOPMD
+      // the reader is now positioned at the root element
+      final List<XMLSchema> tmpSchemas = new SchemaFinder(tmpReader).getSchemas();
+      if (tmpSchemas.isEmpty()) {
+        throw new InvalidInputException("No schemas found in " + aSource + ".");
+      }
+
+      addDefaultSchemas(tmpSchemas);
+      removeDuplicateSchemas(tmpSchemas);
+      schemas = tmpSchemas;
+
+      model = ModelCache.getModel(tmpSchemas, aSchemaDirectory);
+
       // move reader position to test-case...
-      while (tmpReader.hasNext()) {
-        if (tmpReader.next() == XMLStreamConstants.START_ELEMENT
+      boolean tmpTestCase = tmpReader.isStartElement() && BASE_SCHEMA.getNamespace().equals(tmpReader.getNamespaceURI())
+          && E_TEST_CASE.equals(tmpReader.getLocalName());
+      while (!tmpTestCase && tmpReader.hasNext()) {
+        tmpTestCase = tmpReader.next() == XMLStreamConstants.START_ELEMENT
             && BASE_SCHEMA.getNamespace().equals(tmpReader.getNamespaceURI())
-            && E_TEST_CASE.equals(tmpReader.getLocalName())) {
-          break;
-        }
+            && E_TEST_CASE.equals(tmpReader.getLocalName());
       }
 
       // ...and now parse the rest of the file
@@ -82,28 +82,19 @@ public class LocalEntityResolver implements EntityResolver {
   @Override
   public InputSource resolveEntity(final String aPublicId, final String aSystemId) throws SAXException, IOException {
     // first try the known schemas
-    final List<XMLSchema> tmpKnownSchemaFiles = KNOWN_SCHEMAS.get(aPublicId);
-    if (tmpKnownSchemaFiles != null) {
-      for (final XMLSchema tmpKnownSchemaFile : tmpKnownSchemaFiles) {
-        final String tmpKnownSchemaFileLocation = tmpKnownSchemaFile.getLocation();
-        if (aSystemId.equals(tmpKnownSchemaFileLocation) || aSystemId.endsWith("/" + tmpKnownSchemaFileLocation)
-            || aSystemId.endsWith("\\" + tmpKnownSchemaFileLocation)) {
-          final InputSource tmpInputSource = new InputSource(
-              getClass().getResourceAsStream(XSD_DIRECTORY + tmpKnownSchemaFileLocation));
-          tmpInputSource.setPublicId(aPublicId);
-          tmpInputSource
-              .setSystemId(getClass().getResource(XSD_DIRECTORY + tmpKnownSchemaFileLocation).toExternalForm());
-          return tmpInputSource;
-        }
-      }
+    final String tmpKnownSchemaFileLocation = getKnownSchemaLocation(aPublicId, aSystemId);
+    if (tmpKnownSchemaFileLocation != null) {
+      final InputSource tmpInputSource = new InputSource(
+          getClass().getResourceAsStream(XSD_DIRECTORY + tmpKnownSchemaFileLocation));
+      tmpInputSource.setPublicId(aPublicId);
+      tmpInputSource
+          .setSystemId(getClass().getResource(XSD_DIRECTORY + tmpKnownSchemaFileLocation).toExternalForm());
+      return tmpInputSource;
     }
 
     // nothing found so far -> try external file
-    File tmpSchemaFile = new File(aSystemId);
-    if (!tmpSchemaFile.isAbsolute() && schemaDirectory != null) {
-      tmpSchemaFile = new File(schemaDirectory, tmpSchemaFile.getName());
-    }
-    if (tmpSchemaFile.exists()) {
+    final File tmpSchemaFile = getLocalFile(aSystemId);
+    if (tmpSchemaFile != null) {
       final InputSource tmpInputSource = new InputSource(tmpSchemaFile.toURI().toURL().toExternalForm());
       tmpInputSource.setPublicId(aPublicId);
       return tmpInputSource;
@@ -119,4 +110,39 @@ public class LocalEntityResolver implements EntityResolver {
       return null;
     }
   }
+
+  /**
+   * @param aPublicId the public id (namespace) of the schema
+   * @param aSystemId the system id (location) of the schema
+   * @return the location of the bundled schema file in the sub-package 'xsd'; null if the schema is not a known one
+   */
+  static String getKnownSchemaLocation(final String aPublicId, final String aSystemId) {
+    final List<XMLSchema> tmpKnownSchemaFiles = KNOWN_SCHEMAS.get(aPublicId);
+    if (tmpKnownSchemaFiles != null) {
+      for (final XMLSchema tmpKnownSchemaFile : tmpKnownSchemaFiles) {
+        final String tmpKnownSchemaFileLocation = tmpKnownSchemaFile.getLocation();
+        if (aSystemId.equals(tmpKnownSchemaFileLocation) || aSystemId.endsWith("/" + tmpKnownSchemaFileLocation)
+            || aSystemId.endsWith("\\" + tmpKnownSchemaFileLocation)) {
+          return tmpKnownSchemaFileLocation;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param aSystemId the system id (location) of the schema
+   * @return the schema file (searched in the schema directory if the location is not absolute); null if there is no
+   *         such file
+   */
+  File getLocalFile(final String aSystemId) {
+    File tmpSchemaFile = new File(aSystemId);
+    if (!tmpSchemaFile.isAbsolute() && schemaDirectory != null) {
+      tmpSchemaFile = new File(schemaDirectory, tmpSchemaFile.getName());
+    }
+    if (tmpSchemaFile.exists()) {
+      return tmpSchemaFile;
+    }
+    return null;
+  }
 }
@@ -18,6 +18,8 @@ package org.wetator.scripter.xml;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -48,6 +50,7 @@ import com.sun.xml.xsom.XSSchema;
 import com.sun.xml.xsom.XSSchemaSet;
 import com.sun.xml.xsom.XSSimpleType;
 import com.sun.xml.xsom.XSTerm;
+import com.sun.xml.xsom.parser.SchemaDocument;
 import com.sun.xml.xsom.parser.XSOMParser;
 import com.sun.xml.xsom.util.DomAnnotationParserFactory;
 
@@ -65,6 +68,7 @@ public class ModelBuilder {
   private XSSimpleType baseParameterType;
 
   private final Map<String, CommandType> commandTypes = new LinkedHashMap<>();
+  private final List<File> schemaFiles = new ArrayList<>();
 
   /**
    * @param aSchemas the list containing the schemas to use
@@ -96,6 +100,13 @@ public class ModelBuilder {
     return tmpCommandTypes;
   }
 
+  /**
+   * @return the local files of all parsed schemas including the included and imported ones
+   */
+  List<File> getSchemaFiles() {
+    return schemaFiles;
+  }
+
   private XSSchemaSet parseSchemas(final List<XMLSchema> aSchemaList, final File aSchemaDirectory)
       throws IOException, SAXException, ParseException {
     if (aSchemaList == null || aSchemaList.isEmpty()) {
@@ -118,6 +129,17 @@ public class ModelBuilder {
       }
     }
 
+    for (final SchemaDocument tmpDocument : tmpParser.getDocuments()) {
+      final String tmpSystemId = tmpDocument.getSystemId();
+      if (tmpSystemId != null && tmpSystemId.startsWith("file:")) {
+        try {
+          schemaFiles.add(new File(new URI(tmpSystemId)));
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+          // not a local file
+        }
+      }
+    }
+
     return tmpParser.getResult();
   }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.scripter.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wetator.scripter.ParseException;
+import org.xml.sax.SAXException;
+
+/**
+ * A process wide cache for the {@link ModelBuilder}s.<br>
+ * Parsing the schemas is expensive and most of the scripts of a run are using the same schemas, so the model
+ * is built only once for every set of schemas. The key is the list of namespace/location pairs; the schema
+ * directory is only part of the key if one of the schemas is resolved to a local file, so scripts in different
+ * directories share the model of the bundled schemas. The modification times of all local files parsed for the
+ * model (including the included and imported ones) are used to detect changed schemas.<br>
+ * The cache holds at most {@value #MAX_ENTRIES} models; the least recently used one is dropped first.
+ * The model is never changed after it is built, so it can be shared by all scripters.
+ *
+ * @author rbri
+ */
+public final class ModelCache {
+  private static final Logger LOG = LogManager.getLogger(ModelCache.class);
+
+  /** The maximum number of cached models. */
+  static final int MAX_ENTRIES = 16;
+
+  private static final Map<List<String>, CacheEntry> CACHE = new LinkedHashMap<List<String>, CacheEntry>(16, 0.75f,
+      true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<List<String>, CacheEntry> anEldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private ModelCache() {
+    // nothing
+  }
+
+  /**
+   * Returns the model for the given schemas; the model is built only if there is no cached one or
+   * if one of the local schema files was changed.
+   *
+   * @param aSchemas the list containing the schemas to use
+   * @param aSchemaDirectory the directory to search for schema files; may be null
+   * @return the model
+   * @throws IOException in case of problems reading the file
+   * @throws SAXException in case of problems reading the file
+   * @throws ParseException in case of problems parsing the file
+   */
+  public static ModelBuilder getModel(final List<XMLSchema> aSchemas, final File aSchemaDirectory)
+      throws IOException, SAXException, ParseException {
+    if (aSchemas == null || aSchemas.isEmpty()) {
+      // let the builder report the problem
+      return new ModelBuilder(aSchemas, aSchemaDirectory);
+    }
+
+    final List<String> tmpKey = new ArrayList<>(aSchemas.size() * 2 + 1);
+    if (aSchemaDirectory != null && isLocal(aSchemas, aSchemaDirectory)) {
+      tmpKey.add(aSchemaDirectory.getAbsolutePath());
+    } else {
+      tmpKey.add(null);
+    }
+    for (final XMLSchema tmpSchema : aSchemas) {
+      tmpKey.add(tmpSchema.getNamespace());
+      tmpKey.add(tmpSchema.getLocation());
+    }
+
+    final CacheEntry tmpEntry;
+    synchronized (CACHE) {
+      tmpEntry = CACHE.get(tmpKey);
+    }
+    if (tmpEntry != null && tmpEntry.isUpToDate()) {
+      return tmpEntry.model;
+    }
+
+    // build outside of the lock; parallel callers may build the same model twice and the last one wins
+    final ModelBuilder tmpModel = new ModelBuilder(aSchemas, aSchemaDirectory);
+    final CacheEntry tmpNewEntry = new CacheEntry(tmpModel);
+    synchronized (CACHE) {
+      CACHE.put(tmpKey, tmpNewEntry);
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Model built for schemas " + tmpKey + ".");
+    }
+    return tmpModel;
+  }
+
+  /**
+   * Removes all cached models.
+   */
+  public static void clear() {
+    synchronized (CACHE) {
+      CACHE.clear();
+    }
+  }
+
+  /**
+   * @return the number of cached models
+   */
+  static int size() {
+    synchronized (CACHE) {
+      return CACHE.size();
+    }
+  }
+
+  /**
+   * @return true if one of the schemas is not a bundled one and resolved to a local file in the same way the
+   *         {@link LocalEntityResolver} looks for it
+   */
+  private static boolean isLocal(final List<XMLSchema> aSchemas, final File aSchemaDirectory) {
+    final LocalEntityResolver tmpResolver = new LocalEntityResolver(aSchemaDirectory);
+    for (final XMLSchema tmpSchema : aSchemas) {
+      final String tmpLocation = tmpSchema.getLocation();
+      if (tmpLocation != null && LocalEntityResolver.getKnownSchemaLocation(tmpSchema.getNamespace(),
+          tmpLocation) == null && tmpResolver.getLocalFile(tmpLocation) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A cached model together with the modification times of all local files parsed to build it.
+   */
+  private static final class CacheEntry {
+    private final ModelBuilder model;
+    private final List<File> files;
+    private final long[] modificationTimes;
+
+    CacheEntry(final ModelBuilder aModel) {
+      model = aModel;
+      files = aModel.getSchemaFiles();
+      modificationTimes = new long[files.size()];
+      for (int i = 0; i < files.size(); i++) {
+        modificationTimes[i] = files.get(i).lastModified();
+      }
+    }
+
+    boolean isUpToDate() {
+      for (int i = 0; i < files.size(); i++) {
+        // lastModified() is 0 if the file was removed
+        if (files.get(i).lastModified() != modificationTimes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -34,6 +34,8 @@ import javax.xml.stream.XMLStreamReader;
  */
 public class SchemaFinder {
 
+  private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
   private List<XMLSchema> schemas;
 
   /**
@@ -43,50 +45,60 @@ public class SchemaFinder {
    * @throws XMLStreamException in case of problems
    */
   public SchemaFinder(final Reader anXMLReader) throws XMLStreamException {
-    findSchemas(anXMLReader);
+    final XMLStreamReader tmpReader = XML_INPUT_FACTORY.createXMLStreamReader(anXMLReader);
+    try {
+      findSchemas(tmpReader);
+    } finally {
+      try {
+        tmpReader.close();
+      } catch (final XMLStreamException e) { // NOPMD
+        // ignore
+      }
+    }
   }
 
-  private void findSchemas(final Reader anXMLReader) throws XMLStreamException {
-    final XMLInputFactory tmpFactory = XMLInputFactory.newInstance();
-    final XMLStreamReader tmpReader = tmpFactory.createXMLStreamReader(anXMLReader);
+  /**
+   * The constructor.<br>
+   * Reads the schemas from the root element; the given stream reader is not closed and stays positioned
+   * at the start of the root element, so the caller is able to continue reading the same stream.
+   *
+   * @param anXMLStreamReader the stream reader reading the XML data
+   * @throws XMLStreamException in case of problems
+   */
+  public SchemaFinder(final XMLStreamReader anXMLStreamReader) throws XMLStreamException {
+    findSchemas(anXMLStreamReader);
+  }
 
+  private void findSchemas(final XMLStreamReader aReader) throws XMLStreamException {
     schemas = new ArrayList<>();
-    try {
-      while (tmpReader.hasNext()) {
-        if (tmpReader.next() == XMLStreamConstants.START_ELEMENT) {
-          final int tmpSchemaCount = tmpReader.getNamespaceCount();
+    while (aReader.hasNext()) {
+      if (aReader.next() == XMLStreamConstants.START_ELEMENT) {
+        final int tmpSchemaCount = aReader.getNamespaceCount();
 
-          if (tmpSchemaCount > 0) {
-            final Map<String, String> tmpNamespacePrefixes = new HashMap<>();
-            for (int i = 0; i < tmpSchemaCount; i++) {
-              final String tmpPrefix = tmpReader.getNamespacePrefix(i);
-              final String tmpNamespaceURI = tmpReader.getNamespaceURI(i);
-              tmpNamespacePrefixes.put(tmpNamespaceURI, tmpPrefix);
-            }
+        if (tmpSchemaCount > 0) {
+          final Map<String, String> tmpNamespacePrefixes = new HashMap<>();
+          for (int i = 0; i < tmpSchemaCount; i++) {
+            final String tmpPrefix = aReader.getNamespacePrefix(i);
+            final String tmpNamespaceURI = aReader.getNamespaceURI(i);
+            tmpNamespacePrefixes.put(tmpNamespaceURI, tmpPrefix);
+          }
 
-            String tmpSchemaLocation = tmpReader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance",
-                "schemaLocation");
-            if (tmpSchemaLocation != null) {
-              tmpSchemaLocation = tmpSchemaLocation.replace("  ", " ");
-              final String[] tmpSchemaLocations = tmpSchemaLocation.split(" ");
-              for (int i = 0; i < tmpSchemaLocations.length; i += 2) {
-                if (!"".equals(tmpSchemaLocations[i].trim())) {
-                  final String tmpNamespaceURI = tmpSchemaLocations[i];
-                  final String tmpPrefix = tmpNamespacePrefixes.get(tmpNamespaceURI);
-                  final XMLSchema tmpSchema = new XMLSchema(tmpPrefix, tmpNamespaceURI, tmpSchemaLocations[i + 1]);
-                  schemas.add(tmpSchema);
-                }
+          String tmpSchemaLocation = aReader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance",
+              "schemaLocation");
+          if (tmpSchemaLocation != null) {
+            tmpSchemaLocation = tmpSchemaLocation.replace("  ", " ");
+            final String[] tmpSchemaLocations = tmpSchemaLocation.split(" ");
+            for (int i = 0; i < tmpSchemaLocations.length; i += 2) {
+              if (!"".equals(tmpSchemaLocations[i].trim())) {
+                final String tmpNamespaceURI = tmpSchemaLocations[i];
+                final String tmpPrefix = tmpNamespacePrefixes.get(tmpNamespaceURI);
+                final XMLSchema tmpSchema = new XMLSchema(tmpPrefix, tmpNamespaceURI, tmpSchemaLocations[i + 1]);
+                schemas.add(tmpSchema);
               }
             }
           }
-          break;
         }
-      }
-    } finally {
-      try {
-        tmpReader.close();
-      } catch (final XMLStreamException e) { // NOPMD
-        // ignore
+        break;
       }
     }
   }
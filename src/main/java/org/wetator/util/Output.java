@@ -19,6 +19,8 @@ package org.wetator.util;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -32,7 +34,9 @@ public final class Output {
   private static final String NEW_LINE = System.lineSeparator();
 
   private final Writer writer;
-  private final StringBuffer currentIndent;
+  // the indent strings for the different levels; created on demand
+  private final List<String> indents;
+  private int indentLevel;
   private boolean afterNewLine;
   private final String indent; // NOPMD
 
@@ -45,7 +49,8 @@ public final class Output {
   public Output(final Writer aWriter, final String anIndent) {
     writer = new BufferedWriter(aWriter);
     indent = anIndent;
-    currentIndent = new StringBuffer();
+    indents = new ArrayList<>();
+    indents.add("");
   }
 
   /**
@@ -78,6 +83,60 @@ public final class Output {
     return this;
   }
 
+  /**
+   * Write the String escaped for use as xml body text (see {@link XMLUtil#normalizeBodyValue(String)}).
+   *
+   * @param aString the string to be written
+   * @return this (for convenience)
+   * @throws IOException in case of problems
+   */
+  public Output printBodyValue(final String aString) throws IOException {
+    if (null != aString) {
+      writeIndentIfNeeded();
+      XMLUtil.writeBodyValue(writer, aString);
+    }
+
+    return this;
+  }
+
+  /**
+   * Write the String escaped for use as xml attribute value (see {@link XMLUtil#normalizeAttributeValue(String)}).
+   *
+   * @param aString the string to be written
+   * @return this (for convenience)
+   * @throws IOException in case of problems
+   */
+  public Output printAttributeValue(final String aString) throws IOException {
+    if (null != aString) {
+      writeIndentIfNeeded();
+      XMLUtil.writeAttributeValue(writer, aString);
+    }
+
+    return this;
+  }
+
+  /**
+   * Write the String escaped for use as xml body text (see {@link XMLUtil#normalizeBodyValue(String)}) on a new line.
+   *
+   * @param aString the string to be written
+   * @return this (for convenience)
+   * @throws IOException in case of problems
+   */
+  public Output printlnBodyValue(final String aString) throws IOException {
+    // no need to indent whitespace
+    if (afterNewLine && StringUtils.isBlank(aString)) {
+      writer.write(NEW_LINE); // to be sure to do not remove any whitespace
+      return this;
+    }
+
+    writeIndentIfNeeded();
+    XMLUtil.writeBodyValue(writer, aString);
+    writer.write(NEW_LINE);
+    afterNewLine = true;
+
+    return this;
+  }
+
   /**
    * Write the string on a new line.
    *
@@ -159,7 +218,10 @@ public final class Output {
    * @return this (for convenience)
    */
   public Output indent() {
-    currentIndent.append(indent);
+    indentLevel++;
+    if (indentLevel == indents.size()) {
+      indents.add(indents.get(indentLevel - 1) + indent);
+    }
 
     return this;
   }
@@ -170,7 +232,7 @@ public final class Output {
    * @return this (for convenience)
    */
   public Output unindent() {
-    currentIndent.setLength(Math.max(0, currentIndent.length() - indent.length()));
+    indentLevel = Math.max(0, indentLevel - 1);
 
     return this;
   }
@@ -182,7 +244,7 @@ public final class Output {
    */
   private void writeIndentIfNeeded() throws IOException {
     if (afterNewLine) {
-      writer.write(currentIndent.toString());
+      writer.write(indents.get(indentLevel));
       afterNewLine = false;
     }
   }
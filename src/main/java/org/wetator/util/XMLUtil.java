@@ -16,6 +16,9 @@
 
 package org.wetator.util;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * XmlUtil contains some useful helpers for XML-File handling.
  *
@@ -24,6 +27,26 @@ package org.wetator.util;
  */
 public class XMLUtil {
 
+  // escape tables for the ascii chars; null means no escaping required, an empty string
+  // means the char is not allowed in xml and is ignored
+  private static final String[] BODY_ESCAPES = new String[128];
+  private static final String[] ATTRIBUTE_ESCAPES = new String[128];
+
+  static {
+    for (int i = 0; i < 32; i++) {
+      if (i != 9 && i != 10 && i != 13) {
+        BODY_ESCAPES[i] = "";
+      }
+    }
+    BODY_ESCAPES['<'] = "&lt;";
+    BODY_ESCAPES['>'] = "&gt;";
+    BODY_ESCAPES['&'] = "&amp;";
+
+    System.arraycopy(BODY_ESCAPES, 0, ATTRIBUTE_ESCAPES, 0, BODY_ESCAPES.length);
+    ATTRIBUTE_ESCAPES['\''] = "&apos;";
+    ATTRIBUTE_ESCAPES['"'] = "&quot;";
+  }
+
   /**
    * Escape the the given string. For use as body text.<br>
    * Sample: <code>normalizeBodyValue("&lt;\\abc&gt;")</code> returns <code>"&amp;lt;\abc&amp;gt;"</code>
@@ -212,6 +235,73 @@ public class XMLUtil {
 
   }
 
+  /**
+   * Writes the escaped string to the writer. For use as body text.<br>
+   * The result is the same as {@link #normalizeBodyValue(String)} but no intermediate strings are created.
+   *
+   * @param aWriter the writer to write to
+   * @param aString the String to be normalized or null
+   * @throws IOException in case of error
+   */
+  public static void writeBodyValue(final Writer aWriter, final String aString) throws IOException {
+    writeEscaped(aWriter, aString, BODY_ESCAPES);
+  }
+
+  /**
+   * Writes the escaped string to the writer. For use in an attribute value.<br>
+   * The result is the same as {@link #normalizeAttributeValue(String)} but no intermediate strings are created.
+   *
+   * @param aWriter the writer to write to
+   * @param aString the String to be normalized or null
+   * @throws IOException in case of error
+   */
+  public static void writeAttributeValue(final Writer aWriter, final String aString) throws IOException {
+    writeEscaped(aWriter, aString, ATTRIBUTE_ESCAPES);
+  }
+
+  private static void writeEscaped(final Writer aWriter, final String aString, final String[] anEscapes)
+      throws IOException {
+    if (aString == null) {
+      return;
+    }
+
+    final int tmpLength = aString.length();
+    // start of the part that does not need any escaping
+    int tmpStart = 0;
+    for (int i = 0; i < tmpLength; i++) {
+      final char tmpChar = aString.charAt(i);
+
+      final String tmpEscaped;
+      if (tmpChar < 128) {
+        tmpEscaped = anEscapes[tmpChar];
+        if (null == tmpEscaped) {
+          continue;
+        }
+      } else if (tmpChar > 0xD7FF && tmpChar < 0xE000 || tmpChar > 0xFFFD) {
+        // ignore
+        tmpEscaped = "";
+      } else {
+        tmpEscaped = null;
+      }
+
+      if (i > tmpStart) {
+        aWriter.write(aString, tmpStart, i - tmpStart);
+      }
+      if (null == tmpEscaped) {
+        aWriter.write("&#");
+        aWriter.write(Integer.toString(tmpChar));
+        aWriter.write(';');
+      } else {
+        aWriter.write(tmpEscaped);
+      }
+      tmpStart = i + 1;
+    }
+
+    if (tmpStart < tmpLength) {
+      aWriter.write(aString, tmpStart, tmpLength - tmpStart);
+    }
+  }
+
   private boolean canEncode(final char aChar) {
     // return charsetEncoder.canEncode(aChar);
     // we have some problems with this, so lets stay
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link NodeHierarchy}.
+ *
+ * @author rbri
+ */
+public class NodeHierarchyTest {
+
+  @Test
+  public void parse() {
+    assertNull(NodeHierarchy.parse(null));
+    assertNull(NodeHierarchy.parse(""));
+
+    assertEquals("0", NodeHierarchy.parse("0").toString());
+    assertEquals("0>1>3", NodeHierarchy.parse("0>1>3").toString());
+  }
+
+  @Test
+  public void isSelfOrDescendantOf() {
+    final NodeHierarchy tmpRoot = new NodeHierarchy(null, 0);
+    final NodeHierarchy tmpChild = new NodeHierarchy(tmpRoot, 1);
+    final NodeHierarchy tmpGrandChild = new NodeHierarchy(tmpChild, 3);
+
+    assertTrue(tmpRoot.isSelfOrDescendantOf(tmpRoot));
+    assertTrue(tmpChild.isSelfOrDescendantOf(tmpRoot));
+    assertTrue(tmpGrandChild.isSelfOrDescendantOf(tmpRoot));
+    assertTrue(tmpGrandChild.isSelfOrDescendantOf(tmpChild));
+
+    assertFalse(tmpRoot.isSelfOrDescendantOf(tmpChild));
+    assertFalse(tmpChild.isSelfOrDescendantOf(tmpGrandChild));
+  }
+
+  @Test
+  public void isSelfOrDescendantOfParsed() {
+    assertTrue(NodeHierarchy.parse("0>1>3").isSelfOrDescendantOf(NodeHierarchy.parse("0>1")));
+    assertTrue(NodeHierarchy.parse("0>1").isSelfOrDescendantOf(NodeHierarchy.parse("0>1")));
+
+    assertFalse(NodeHierarchy.parse("0>2>3").isSelfOrDescendantOf(NodeHierarchy.parse("0>1")));
+    // no string prefix match
+    assertFalse(NodeHierarchy.parse("0>12").isSelfOrDescendantOf(NodeHierarchy.parse("0>1")));
+  }
+}
@@ -254,6 +254,48 @@ public class WeightedControlListTest {
         tmpEntriesSorted.get(1).toString());
   }
 
+  @Test
+  public void getElementsSorted_Max() throws IOException {
+    final WeightedControlList tmpWeightedControlList = new WeightedControlList();
+    for (int i = 0; i < 20; i++) {
+      final HtmlUnitBaseControl<?> tmpControl = new HtmlUnitAnchor(constructHtmlAnchor());
+      // mixed order
+      final int tmpDeviation = (i * 7) % 20;
+      tmpWeightedControlList.add(tmpControl, FoundType.BY_ID, tmpDeviation, 1, 1, Integer.toString(i), i);
+    }
+
+    final List<Entry> tmpEntriesSorted = tmpWeightedControlList.getEntriesSorted();
+    assertEquals(20, tmpEntriesSorted.size());
+
+    assertTrue(tmpWeightedControlList.getEntriesSorted(0).isEmpty());
+    assertEquals(tmpEntriesSorted.subList(0, 1), tmpWeightedControlList.getEntriesSorted(1));
+    assertEquals(tmpEntriesSorted.subList(0, 5), tmpWeightedControlList.getEntriesSorted(5));
+    assertEquals(tmpEntriesSorted, tmpWeightedControlList.getEntriesSorted(20));
+    assertEquals(tmpEntriesSorted, tmpWeightedControlList.getEntriesSorted(50));
+  }
+
+  @Test
+  public void getElementsSorted_MaxSameControl() throws IOException {
+    final WeightedControlList tmpWeightedControlList = new WeightedControlList();
+
+    final HtmlUnitBaseControl<?> tmpControl = new HtmlUnitAnchor(constructHtmlAnchor());
+    tmpWeightedControlList.add(tmpControl, FoundType.BY_ID, 1, 1, 1, "1", 0);
+    tmpWeightedControlList.add(tmpControl, FoundType.BY_ID, 2, 1, 1, "1", 0);
+    tmpWeightedControlList.add(tmpControl, FoundType.BY_ID, 3, 1, 1, "1", 0);
+
+    final HtmlUnitBaseControl<?> tmpOtherControl = new HtmlUnitAnchor(constructHtmlAnchor());
+    tmpWeightedControlList.add(tmpOtherControl, FoundType.BY_LABEL_ELEMENT, 4, 1, 1, "1", 0);
+
+    // the best entries are all for the same control
+    final List<Entry> tmpEntriesSorted = tmpWeightedControlList.getEntriesSorted(2);
+    assertEquals(2, tmpEntriesSorted.size());
+    assertEquals("[HtmlAnchor 'AnchorText'] found by: BY_ID deviation: 1 distance: 1 start: 1 hierarchy: 1 index: 0",
+        tmpEntriesSorted.get(0).toString());
+    assertEquals(
+        "[HtmlAnchor 'AnchorText'] found by: BY_LABEL_ELEMENT deviation: 4 distance: 1 start: 1 hierarchy: 1 index: 0",
+        tmpEntriesSorted.get(1).toString());
+  }
+
   private HtmlAnchor constructHtmlAnchor() throws IOException {
     final String tmpHtmlCode = "<html><body><a href='wet.html'>AnchorText</a></body></html>";
 
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ContentAddressedStore}.
+ *
+ * @author rbri
+ */
+public class ContentAddressedStoreTest {
+  private static final File OUTPUT_DIR = new File("target/contentAddressedStore");
+
+  @Before
+  public void setUp() throws IOException {
+    FileUtils.deleteDirectory(OUTPUT_DIR);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(OUTPUT_DIR);
+  }
+
+  @Test
+  public void store() throws IOException {
+    final ContentAddressedStore tmpStore = new ContentAddressedStore(OUTPUT_DIR, true);
+    final byte[] tmpContent = "body { color: red; }".getBytes(StandardCharsets.UTF_8);
+
+    final File tmpFirefox = new File(OUTPUT_DIR, "firefox/responses_current/style.css");
+    final File tmpChrome = new File(OUTPUT_DIR, "chrome/responses_current/style.css");
+    tmpStore.store(tmpFirefox, tmpContent);
+    tmpStore.store(tmpChrome, tmpContent);
+
+    assertArrayEquals(tmpContent, FileUtils.readFileToByteArray(tmpFirefox));
+    assertArrayEquals(tmpContent, FileUtils.readFileToByteArray(tmpChrome));
+    assertEquals(1, tmpStore.getBlobsWritten());
+    assertEquals(1, tmpStore.getBlobsReused());
+  }
+
+  @Test
+  public void acquireShared() throws IOException {
+    final ContentAddressedStore tmpFirst = ContentAddressedStore.acquire(OUTPUT_DIR, true);
+    final File tmpFile = new File(OUTPUT_DIR, "firefox/responses_current/style.css");
+    tmpFirst.store(tmpFile, "body {}".getBytes(StandardCharsets.UTF_8));
+
+    // the second user shares the store; the blobs are not deleted
+    final ContentAddressedStore tmpSecond = ContentAddressedStore.acquire(new File(OUTPUT_DIR, "."), true);
+    assertSame(tmpFirst, tmpSecond);
+    assertEquals(1, FileUtils.listFiles(new File(OUTPUT_DIR, "resources_blobs"), null, false).size());
+
+    ContentAddressedStore.release(tmpFirst);
+    ContentAddressedStore.release(tmpSecond);
+
+    // all users are gone; the next run starts with a clean store
+    final ContentAddressedStore tmpNext = ContentAddressedStore.acquire(OUTPUT_DIR, true);
+    assertNotSame(tmpFirst, tmpNext);
+    assertEquals(0, FileUtils.listFiles(new File(OUTPUT_DIR, "resources_blobs"), null, false).size());
+    ContentAddressedStore.release(tmpNext);
+  }
+
+  @Test
+  public void storeDifferentContent() throws IOException {
+    final ContentAddressedStore tmpStore = new ContentAddressedStore(OUTPUT_DIR, true);
+
+    final File tmpFile1 = new File(OUTPUT_DIR, "responses_current/one.js");
+    final File tmpFile2 = new File(OUTPUT_DIR, "responses_current/two.js");
+    tmpStore.store(tmpFile1, "one".getBytes(StandardCharsets.UTF_8));
+    tmpStore.store(tmpFile2, "two".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("one", FileUtils.readFileToString(tmpFile1, StandardCharsets.UTF_8));
+    assertEquals("two", FileUtils.readFileToString(tmpFile2, StandardCharsets.UTF_8));
+    assertEquals(2, tmpStore.getBlobsWritten());
+    assertEquals(0, tmpStore.getBlobsReused());
+  }
+
+  @Test
+  public void storeReplaceExisting() throws IOException {
+    final ContentAddressedStore tmpStore = new ContentAddressedStore(OUTPUT_DIR, true);
+
+    final File tmpFile = new File(OUTPUT_DIR, "responses_current/one.js");
+    tmpStore.store(tmpFile, "one".getBytes(StandardCharsets.UTF_8));
+    tmpStore.store(tmpFile, "changed".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("changed", FileUtils.readFileToString(tmpFile, StandardCharsets.UTF_8));
+
+    // the blob of the first content is not touched
+    final File tmpOther = new File(OUTPUT_DIR, "responses_current/other.js");
+    tmpStore.store(tmpOther, "one".getBytes(StandardCharsets.UTF_8));
+    assertEquals("one", FileUtils.readFileToString(tmpOther, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void storeSameTargetConcurrently() throws Exception {
+    final ContentAddressedStore tmpStore = new ContentAddressedStore(OUTPUT_DIR, true);
+    final byte[] tmpContent = "body { color: red; }".getBytes(StandardCharsets.UTF_8);
+    final File tmpFile = new File(OUTPUT_DIR, "responses_current/style.css");
+
+    final ExecutorService tmpExecutor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> tmpResults = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        tmpResults.add(tmpExecutor.submit(() -> {
+          tmpStore.store(tmpFile, tmpContent);
+          return null;
+        }));
+      }
+      for (final Future<?> tmpResult : tmpResults) {
+        tmpResult.get();
+      }
+    } finally {
+      tmpExecutor.shutdown();
+    }
+
+    assertArrayEquals(tmpContent, FileUtils.readFileToByteArray(tmpFile));
+    // a link that already exists is no reason to stop using links
+    assertTrue(tmpStore.isHardLinksSupported());
+  }
+
+  @Test
+  public void isLinkNotSupported() {
+    assertTrue(ContentAddressedStore
+        .isLinkNotSupported(new FileSystemException("target", "blob", "Operation not supported")));
+    assertTrue(ContentAddressedStore
+        .isLinkNotSupported(new FileSystemException("target", "blob", "Invalid cross-device link")));
+    assertTrue(ContentAddressedStore
+        .isLinkNotSupported(new FileSystemException("target", "blob", "Operation not permitted")));
+    assertTrue(ContentAddressedStore.isLinkNotSupported(new FileSystemException("target", "blob",
+        "The system cannot move the file to a different disk drive.")));
+
+    assertFalse(ContentAddressedStore.isLinkNotSupported(new FileSystemException("target", "blob", "Too many links")));
+    assertFalse(ContentAddressedStore.isLinkNotSupported(new FileSystemException("target", "blob", "No space left")));
+    assertFalse(ContentAddressedStore.isLinkNotSupported(new FileAlreadyExistsException("target")));
+  }
+}
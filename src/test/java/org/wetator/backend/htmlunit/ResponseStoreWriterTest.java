@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wetator.exception.ResourceException;
+
+/**
+ * Tests for the {@link ResponseStoreWriter}.
+ *
+ * @author rbri
+ */
+public class ResponseStoreWriterTest {
+  private static final File OUTPUT_DIR = new File("target/responseStoreWriter");
+
+  @Before
+  public void setUp() throws IOException {
+    FileUtils.deleteDirectory(OUTPUT_DIR);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(OUTPUT_DIR);
+  }
+
+  @Test
+  public void sync() throws IOException {
+    final ResponseStoreWriter tmpWriter = new ResponseStoreWriter(0);
+    assertFalse(tmpWriter.isAsync());
+
+    final File tmpFile = new File(OUTPUT_DIR, "sub/sync.txt");
+    tmpWriter.write(tmpFile, "Wetator", StandardCharsets.UTF_8);
+
+    // no flush required
+    assertEquals("Wetator", FileUtils.readFileToString(tmpFile, StandardCharsets.UTF_8));
+    tmpWriter.close();
+  }
+
+  @Test
+  public void async() throws IOException {
+    // a small queue forces the back-pressure
+    final ResponseStoreWriter tmpWriter = new ResponseStoreWriter(2);
+    assertTrue(tmpWriter.isAsync());
+
+    for (int i = 0; i < 50; i++) {
+      tmpWriter.write(new File(OUTPUT_DIR, "text_" + i + ".txt"), "Text " + i, StandardCharsets.UTF_8);
+      tmpWriter.write(new File(OUTPUT_DIR, "sub/bytes_" + i + ".bin"), new byte[] { (byte) i, 1, 2 });
+    }
+    tmpWriter.flush();
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals("Text " + i,
+          FileUtils.readFileToString(new File(OUTPUT_DIR, "text_" + i + ".txt"), StandardCharsets.UTF_8));
+      assertArrayEquals(new byte[] { (byte) i, 1, 2 },
+          FileUtils.readFileToByteArray(new File(OUTPUT_DIR, "sub/bytes_" + i + ".bin")));
+    }
+    tmpWriter.close();
+  }
+
+  @Test
+  public void asyncBytesLimit() throws IOException, InterruptedException {
+    final ResponseStoreWriter tmpWriter = new ResponseStoreWriter(100, 10);
+
+    final CountDownLatch tmpBlocked = new CountDownLatch(1);
+    final CountDownLatch tmpRelease = new CountDownLatch(1);
+    // larger than the limit but accepted because nothing else is pending
+    tmpWriter.write(new File(OUTPUT_DIR, "first.bin"), 20, () -> {
+      tmpBlocked.countDown();
+      try {
+        tmpRelease.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      FileUtils.writeByteArrayToFile(new File(OUTPUT_DIR, "first.bin"), new byte[20]);
+    });
+    assertTrue(tmpBlocked.await(10, TimeUnit.SECONDS));
+    assertEquals(20, tmpWriter.getPendingBytes());
+
+    // the queue is not full but the bytes limit is reached
+    final Thread tmpProducer = new Thread(
+        () -> tmpWriter.write(new File(OUTPUT_DIR, "second.bin"), new byte[] { 1, 2, 3 }));
+    tmpProducer.start();
+    tmpProducer.join(200);
+    assertTrue(tmpProducer.isAlive());
+
+    tmpRelease.countDown();
+    tmpProducer.join(10000);
+    assertFalse(tmpProducer.isAlive());
+    tmpWriter.flush();
+
+    assertEquals(0, tmpWriter.getPendingBytes());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, FileUtils.readFileToByteArray(new File(OUTPUT_DIR, "second.bin")));
+    tmpWriter.close();
+  }
+
+  @Test
+  public void asyncFailure() throws IOException {
+    final ResponseStoreWriter tmpWriter = new ResponseStoreWriter(10);
+
+    tmpWriter.write(new File(OUTPUT_DIR, "first.txt"), 1, () -> {
+      throw new IOException("first");
+    });
+    tmpWriter.write(new File(OUTPUT_DIR, "second.txt"), 1, () -> {
+      throw new IOException("second");
+    });
+    tmpWriter.write(new File(OUTPUT_DIR, "ok.txt"), "Wetator", StandardCharsets.UTF_8);
+
+    try {
+      tmpWriter.flush();
+      fail("ResourceException expected");
+    } catch (final ResourceException e) {
+      assertEquals("first", e.getCause().getMessage());
+    }
+    assertEquals("Wetator", FileUtils.readFileToString(new File(OUTPUT_DIR, "ok.txt"), StandardCharsets.UTF_8));
+
+    // reported only once
+    tmpWriter.flush();
+    tmpWriter.close();
+  }
+
+  @Test
+  public void close() throws IOException {
+    final ResponseStoreWriter tmpWriter = new ResponseStoreWriter(10);
+
+    final File tmpFile = new File(OUTPUT_DIR, "close.txt");
+    tmpWriter.write(tmpFile, "Wetator", StandardCharsets.UTF_8);
+    tmpWriter.close();
+
+    assertEquals("Wetator", FileUtils.readFileToString(tmpFile, StandardCharsets.UTF_8));
+
+    // flush after close is ignored
+    tmpWriter.flush();
+  }
+}
@@ -124,6 +124,8 @@ public abstract class AbstractIdentifierBasedHtmlUnitControlsFinderTest {
   protected void setup(final String anHtmlCode) throws IOException {
     PageUtil.consumeHtmlPage(HtmlCodeCreator.pageStart() + anHtmlCode + HtmlCodeCreator.pageEnd(), tmpHtmlPage -> {
       htmlPageIndex = new HtmlPageIndex(tmpHtmlPage);
+      // the index is lazy but used after the page is closed
+      htmlPageIndex.prepareMouseActionListeners();
 
       finder = createFinder();
     });
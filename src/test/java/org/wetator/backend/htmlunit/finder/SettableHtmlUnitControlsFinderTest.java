@@ -326,6 +326,155 @@ public class SettableHtmlUnitControlsFinderTest {
     assertEquals(0, tmpEntriesSorted.size());
   }
 
+  @Test
+  public void manyElements() throws IOException, InvalidInputException {
+    final StringBuilder tmpHtmlCode = new StringBuilder("<html><body><form action='test'>");
+    for (int i = 0; i < 500; i++) {
+      tmpHtmlCode.append("<input id='myId").append(i).append("' type='text'>");
+    }
+    tmpHtmlCode.append("</form></body></html>");
+
+    final List<Entry> tmpEntriesSorted = find(tmpHtmlCode.toString(), "myId4*", HtmlUnitInputTextIdentifier.class,
+        HtmlUnitTextAreaIdentifier.class);
+
+    // myId4 and myId40 - myId49 and myId400 - myId499
+    assertEquals(111, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='myId4')] found by: BY_ID deviation: 0 distance: 0 start: 0 hierarchy: 0>1>3>4>9"
+        + " index: 9", tmpEntriesSorted.get(0).toString());
+  }
+
+  @Test
+  public void manyElementsStopOnPerfectMatch() throws IOException, InvalidInputException {
+    final StringBuilder tmpHtmlCode = new StringBuilder("<html><body><form action='test'>");
+    for (int i = 0; i < 500; i++) {
+      tmpHtmlCode.append("<input id='myId").append(i).append("' type='text'>");
+    }
+    tmpHtmlCode.append("</form></body></html>");
+
+    final List<Entry> tmpEntriesSorted = new ArrayList<>();
+    PageUtil.consumeHtmlPage(tmpHtmlCode.toString(), tmpHtmlPage -> {
+      final SettableHtmlUnitControlsFinder tmpFinder = new SettableHtmlUnitControlsFinder(
+          new HtmlPageIndex(tmpHtmlPage), null);
+      tmpFinder.addIdentifier(HtmlUnitInputTextIdentifier.class);
+      tmpFinder.setStopOnPerfectMatch(true);
+
+      tmpEntriesSorted.addAll(tmpFinder.find(new WPath(new SecretString("myId250"), config)).getEntriesSorted());
+    });
+
+    assertEquals(1, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='myId250')] found by: BY_ID deviation: 0 distance: 0 start: 0"
+        + " hierarchy: 0>1>3>4>255 index: 255", tmpEntriesSorted.get(0).toString());
+  }
+
+  @Test
+  public void manyElementsStopOnPerfectMatchDuplicateId() throws IOException, InvalidInputException {
+    final StringBuilder tmpHtmlCode = new StringBuilder("<html><body><form action='test'>");
+    for (int i = 0; i < 500; i++) {
+      tmpHtmlCode.append("<input id='myId").append(i).append("' type='text'>");
+    }
+    tmpHtmlCode.append("<input id='myId250' type='text'>");
+    tmpHtmlCode.append("</form></body></html>");
+
+    final List<Entry> tmpEntriesSorted = new ArrayList<>();
+    PageUtil.consumeHtmlPage(tmpHtmlCode.toString(), tmpHtmlPage -> {
+      final SettableHtmlUnitControlsFinder tmpFinder = new SettableHtmlUnitControlsFinder(
+          new HtmlPageIndex(tmpHtmlPage), null);
+      tmpFinder.addIdentifier(HtmlUnitInputTextIdentifier.class);
+      tmpFinder.setStopOnPerfectMatch(true);
+
+      // both elements are looked up by id
+      tmpEntriesSorted.addAll(tmpFinder.find(new WPath(new SecretString("myId250"), config)).getEntriesSorted());
+    });
+
+    assertEquals(2, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='myId250')] found by: BY_ID deviation: 0 distance: 0 start: 0"
+        + " hierarchy: 0>1>3>4>255 index: 255", tmpEntriesSorted.get(0).toString());
+    assertEquals("[HtmlTextInput (id='myId250')] found by: BY_ID deviation: 0 distance: 0 start: 0"
+        + " hierarchy: 0>1>3>4>505 index: 505", tmpEntriesSorted.get(1).toString());
+  }
+
+  @Test
+  public void manyElementsStopOnPerfectMatchWildcard() throws IOException, InvalidInputException {
+    final StringBuilder tmpHtmlCode = new StringBuilder("<html><body><form action='test'>");
+    for (int i = 0; i < 500; i++) {
+      tmpHtmlCode.append("<input id='myId").append(i).append("' type='text'>");
+    }
+    tmpHtmlCode.append("</form></body></html>");
+
+    final List<Entry> tmpEntriesSorted = new ArrayList<>();
+    PageUtil.consumeHtmlPage(tmpHtmlCode.toString(), tmpHtmlPage -> {
+      final SettableHtmlUnitControlsFinder tmpFinder = new SettableHtmlUnitControlsFinder(
+          new HtmlPageIndex(tmpHtmlPage), null);
+      tmpFinder.addIdentifier(HtmlUnitInputTextIdentifier.class);
+      tmpFinder.setStopOnPerfectMatch(true);
+
+      // every matching id is a match without deviation; all elements have to be checked
+      tmpEntriesSorted.addAll(tmpFinder.find(new WPath(new SecretString("myId25*"), config)).getEntriesSorted());
+    });
+
+    // myId25 and myId250 - myId259
+    assertEquals(11, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='myId25')] found by: BY_ID deviation: 0 distance: 0 start: 0"
+        + " hierarchy: 0>1>3>4>30 index: 30", tmpEntriesSorted.get(0).toString());
+  }
+
+  @Test
+  public void stopOnPerfectMatchPathDistance() throws IOException, InvalidInputException {
+    // @formatter:off
+    final String tmpHtmlCode = "<html><body>"
+        + "<form action='test'>"
+        + "Name foo bar <input id='x1' type='text'>"
+        + " Name <input id='x2' type='text'>"
+        + "</form>"
+        + "</body></html>";
+    // @formatter:on
+
+    final List<Entry> tmpEntriesSorted = new ArrayList<>();
+    final List<Entry> tmpAllEntriesSorted = new ArrayList<>();
+    PageUtil.consumeHtmlPage(tmpHtmlCode, tmpHtmlPage -> {
+      final SettableHtmlUnitControlsFinder tmpFinder = new SettableHtmlUnitControlsFinder(
+          new HtmlPageIndex(tmpHtmlPage), null);
+      tmpFinder.addIdentifier(HtmlUnitInputTextIdentifier.class);
+
+      // the distance to the path node decides, not the document order
+      final WPath tmpWPath = new WPath(new SecretString("Name > x*"), config);
+      tmpEntriesSorted.addAll(tmpFinder.findBest(tmpWPath).getEntriesSorted());
+      tmpAllEntriesSorted.addAll(tmpFinder.find(tmpWPath).getEntriesSorted());
+    });
+
+    assertEquals(2, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='x2')] found by: BY_ID deviation: 0 distance: 0 start: 17"
+        + " hierarchy: 0>1>3>4>8 index: 8", tmpEntriesSorted.get(0).toString());
+    assertEquals(tmpAllEntriesSorted.toString(), tmpEntriesSorted.toString());
+  }
+
+  @Test
+  public void manyElementsFindBest() throws IOException, InvalidInputException {
+    final StringBuilder tmpHtmlCode = new StringBuilder("<html><body><form action='test'>");
+    for (int i = 0; i < 500; i++) {
+      tmpHtmlCode.append("<input id='myId").append(i).append("' type='text'>");
+    }
+    tmpHtmlCode.append("</form></body></html>");
+
+    final List<Entry> tmpEntriesSorted = new ArrayList<>();
+    final List<Entry> tmpAllEntriesSorted = new ArrayList<>();
+    PageUtil.consumeHtmlPage(tmpHtmlCode.toString(), tmpHtmlPage -> {
+      final SettableHtmlUnitControlsFinder tmpFinder = new SettableHtmlUnitControlsFinder(
+          new HtmlPageIndex(tmpHtmlPage), null);
+      tmpFinder.addIdentifier(HtmlUnitInputTextIdentifier.class);
+
+      // the perfect match is looked up by id; the other elements are not checked
+      final WPath tmpWPath = new WPath(new SecretString("myId25"), config);
+      tmpEntriesSorted.addAll(tmpFinder.findBest(tmpWPath).getEntriesSorted());
+      tmpAllEntriesSorted.addAll(tmpFinder.find(tmpWPath).getEntriesSorted());
+    });
+
+    assertEquals(1, tmpEntriesSorted.size());
+    assertEquals("[HtmlTextInput (id='myId25')] found by: BY_ID deviation: 0 distance: 0 start: 0"
+        + " hierarchy: 0>1>3>4>30 index: 30", tmpEntriesSorted.get(0).toString());
+    assertEquals(tmpEntriesSorted.get(0).toString(), tmpAllEntriesSorted.get(0).toString());
+  }
+
   @SafeVarargs
   private final List<Entry> find(final String aHtmlCode, final String aWPath,
       final Class<? extends AbstractHtmlUnitControlIdentifier>... aKnownIdentifiers)
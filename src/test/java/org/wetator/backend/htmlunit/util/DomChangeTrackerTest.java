@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.backend.htmlunit.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.StringWebResponse;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomNode;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlInlineFrame;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.html.HtmlTextInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link DomChangeTracker} and the change detection and caching of the {@link HtmlPageIndex}.
+ *
+ * @author rbri
+ */
+public class DomChangeTrackerTest {
+  protected WebClient webClient;
+
+  /**
+   * Creates a WebClient.
+   */
+  @Before
+  public void createWebClient() {
+    webClient = new WebClient(BrowserVersion.FIREFOX_ESR);
+  }
+
+  /**
+   * Closes the WebClient.
+   */
+  @After
+  public void closeWebClient() {
+    webClient.close();
+  }
+
+  @Test
+  public void getFor() throws IOException {
+    final String tmpHtmlCode = "<html><body><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    assertSame(tmpTracker, DomChangeTracker.getFor(tmpHtmlPage));
+  }
+
+  @Test
+  public void modificationCount() throws IOException {
+    final String tmpHtmlCode = "<html><body><p id='p'>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    final long tmpCount = tmpTracker.getModificationCount();
+
+    tmpHtmlPage.getElementById("p").setAttribute("class", "test");
+    assertNotEquals(tmpCount, tmpTracker.getModificationCount());
+  }
+
+  @Test
+  public void isDisplayed() throws IOException {
+    // @formatter:off
+    final String tmpHtmlCode = "<html><head>"
+        + "<style>.none { display: none } .hidden { visibility: hidden }</style>"
+        + "</head><body>"
+        + "<div id='d1'><p id='p1'>visible</p></div>"
+        + "<div id='d2' class='none'><p id='p2'>none</p><p id='p3' style='display: block'>block</p></div>"
+        + "<div id='d3' class='hidden'><p id='p4'>hidden</p><p id='p5' style='visibility: visible'>visible</p></div>"
+        + "<div id='d4' hidden><p id='p6'>hidden attribute</p></div>"
+        + "<div id='d5' style='visibility: collapse'><span><p id='p7'>collapse</p></span></div>"
+        + "<input type='hidden' id='i1'>"
+        + "</body></html>";
+    // @formatter:on
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    for (final DomNode tmpNode : tmpHtmlPage.getDescendants()) {
+      assertEquals(tmpNode.toString(), tmpNode.isDisplayed(), tmpTracker.isDisplayed(tmpNode));
+    }
+
+    assertTrue(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p1")));
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p3")));
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p4")));
+    assertTrue(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p5")));
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p6")));
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("p7")));
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("i1")));
+  }
+
+  @Test
+  public void isDisplayed_ancestorChanged() throws IOException {
+    final String tmpHtmlCode = "<html><body><div id='div'><p><span id='span'>Text</span></p></div></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    assertTrue(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("span")));
+
+    tmpHtmlPage.getElementById("div").setAttribute("style", "visibility: hidden");
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("span")));
+
+    tmpHtmlPage.getElementById("div").setAttribute("style", "display: none");
+    assertFalse(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("span")));
+
+    tmpHtmlPage.getElementById("div").removeAttribute("style");
+    assertTrue(tmpTracker.isDisplayed(tmpHtmlPage.getElementById("span")));
+  }
+
+  @Test
+  public void upToDate() throws IOException {
+    final String tmpHtmlCode = "<html><body><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = new HtmlPageIndex(tmpHtmlPage);
+    assertTrue(tmpIndex.isUpToDate());
+  }
+
+  @Test
+  public void upToDate_nodeAdded() throws IOException {
+    final String tmpHtmlCode = "<html><body><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = new HtmlPageIndex(tmpHtmlPage);
+    final DomElement tmpParagraph = tmpHtmlPage.createElement("p");
+    tmpParagraph.appendChild(tmpHtmlPage.createTextNode("Added"));
+    tmpHtmlPage.getBody().appendChild(tmpParagraph);
+
+    assertFalse(tmpIndex.isUpToDate());
+    assertEquals("Paragraph Added", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void upToDate_valueChanged() throws IOException {
+    final String tmpHtmlCode = "<html><body><input type='text' id='input' value='Value'></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = new HtmlPageIndex(tmpHtmlPage);
+    assertEquals("Value", tmpIndex.getText());
+
+    ((HtmlTextInput) tmpHtmlPage.getElementById("input")).setValue("Changed");
+
+    assertFalse(tmpIndex.isUpToDate());
+    assertEquals("Changed", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void getFor_reused() throws IOException {
+    final String tmpHtmlCode = "<html><body><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    assertSame(tmpIndex, HtmlPageIndex.getFor(tmpHtmlPage));
+  }
+
+  @Test
+  public void getFor_changed() throws IOException {
+    final String tmpHtmlCode = "<html><body><p id='p'>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    tmpHtmlPage.getElementById("p").appendChild(tmpHtmlPage.createTextNode(" Added"));
+
+    final HtmlPageIndex tmpNewIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    assertNotSame(tmpIndex, tmpNewIndex);
+    assertEquals("Paragraph Added", tmpNewIndex.getText());
+    assertSame(tmpNewIndex, HtmlPageIndex.getFor(tmpHtmlPage));
+  }
+
+  @Test
+  public void getFor_changedBeforeFirstAccess() throws IOException {
+    final String tmpHtmlCode = "<html><body><p id='p'>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    // the page is indexed on first access
+    final HtmlPageIndex tmpIndex = new HtmlPageIndex(tmpHtmlPage);
+    tmpHtmlPage.getElementById("p").appendChild(tmpHtmlPage.createTextNode(" Added"));
+    assertFalse(tmpIndex.isUpToDate());
+
+    assertEquals("Paragraph Added", tmpIndex.getText());
+    assertTrue(tmpIndex.isUpToDate());
+  }
+
+  @Test
+  public void getFor_frameChanged() throws IOException {
+    final String tmpHtmlCode = "<html><body><iframe id='frame' src='about:blank'></iframe></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    assertEquals("", tmpIndex.getText());
+
+    final HtmlInlineFrame tmpFrame = (HtmlInlineFrame) tmpHtmlPage.getElementById("frame");
+    final StringWebResponse tmpResponse = new StringWebResponse("<html><body><p>Frame</p></body></html>",
+        new URL("http://www.wetator.org/frame.html"));
+    webClient.loadWebResponseInto(tmpResponse, tmpFrame.getEnclosedWindow());
+
+    assertFalse(tmpIndex.isUpToDate());
+    assertEquals("Frame", HtmlPageIndex.getFor(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void attributeChanged_subtreeInvalidated() throws IOException {
+    final String tmpHtmlCode = "<html><body><div id='div'><p>Paragraph</p></div><p>Other</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    assertEquals("Paragraph Other", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    tmpHtmlPage.getElementById("div").setAttribute("style", "display: none");
+    assertEquals("Other", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    tmpHtmlPage.getElementById("div").removeAttribute("style");
+    assertEquals("Paragraph Other", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void attributeChanged_siblingInvalidated() throws IOException {
+    final String tmpHtmlCode = "<html><head><style>.hide + p { display: none; }</style></head>"
+        + "<body><div id='div'>Div</div><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    assertEquals("Div Paragraph", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    tmpHtmlPage.getElementById("div").setAttribute("class", "hide");
+    assertEquals("Div", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void nodesAdded_workBounded() throws IOException {
+    final String tmpHtmlCode = "<html><body><table><tbody id='body'><tr><td>Row</td></tr></tbody></table>"
+        + "</body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    assertEquals("Row", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    final DomElement tmpBody = tmpHtmlPage.getElementById("body");
+    final int tmpRows = 500;
+    for (int i = 0; i < tmpRows; i++) {
+      final DomElement tmpCell = tmpHtmlPage.createElement("td");
+      tmpCell.appendChild(tmpHtmlPage.createTextNode("Row" + i));
+      final DomElement tmpRow = tmpHtmlPage.createElement("tr");
+      tmpRow.appendChild(tmpCell);
+      tmpBody.appendChild(tmpRow);
+    }
+    // nothing is walked as long as nobody asks
+    assertEquals(0, tmpTracker.getInvalidationWork());
+
+    final String tmpText = new HtmlPageIndex(tmpHtmlPage).getText();
+    assertTrue(tmpText, tmpText.endsWith("Row498 Row499"));
+
+    // every row (tr, td, text) is visited once for the invalidation and the style sheet check;
+    // invalidating the tbody for every added row would visit about 3 * 500 * 500 / 2 nodes
+    assertTrue(String.valueOf(tmpTracker.getInvalidationWork()), tmpTracker.getInvalidationWork() < 10 * tmpRows);
+  }
+
+  @Test
+  public void nodesAdded_readBetween() throws IOException {
+    final String tmpHtmlCode = "<html><head><style>.hide p { display: none; }</style></head>"
+        + "<body><div id='div'><p>Paragraph</p></div></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final DomChangeTracker tmpTracker = DomChangeTracker.getFor(tmpHtmlPage);
+    final DomElement tmpDiv = tmpHtmlPage.getElementById("div");
+    assertEquals("Paragraph", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    final DomElement tmpParagraph = tmpHtmlPage.createElement("p");
+    tmpParagraph.appendChild(tmpHtmlPage.createTextNode("Added"));
+    tmpDiv.appendChild(tmpParagraph);
+    assertTrue(tmpTracker.isDisplayed(tmpParagraph));
+
+    tmpDiv.setAttribute("class", "hide");
+    tmpDiv.appendChild(tmpHtmlPage.createTextNode("Text"));
+    assertFalse(tmpTracker.isDisplayed(tmpParagraph));
+    assertEquals("Text", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void styleAdded_allInvalidated() throws IOException {
+    final String tmpHtmlCode = "<html><head></head><body><p>Paragraph</p><div>Div</div></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    assertEquals("Paragraph Div", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    final DomElement tmpStyle = tmpHtmlPage.createElement("style");
+    tmpStyle.appendChild(tmpHtmlPage.createTextNode("p { display: none; }"));
+    tmpHtmlPage.getHead().appendChild(tmpStyle);
+    assertEquals("Div", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void mouseOver_allInvalidated() throws IOException {
+    final String tmpHtmlCode = "<html><head><style>#div:hover + p { display: none; }</style></head>"
+        + "<body><div id='div'>Div</div><p>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpIndex = new HtmlPageIndex(tmpHtmlPage);
+    assertEquals("Div Paragraph", tmpIndex.getText());
+
+    ((HtmlElement) tmpHtmlPage.getElementById("div")).mouseOver();
+    assertFalse(tmpIndex.isUpToDate());
+    assertEquals("Div", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+
+  @Test
+  public void textTransform() throws IOException {
+    final String tmpHtmlCode = "<html><body><p id='p'>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    assertEquals("Paragraph", new HtmlPageIndex(tmpHtmlPage).getText());
+
+    tmpHtmlPage.getElementById("p").setAttribute("style", "text-transform: uppercase");
+    assertEquals("PARAGRAPH", new HtmlPageIndex(tmpHtmlPage).getText());
+  }
+}
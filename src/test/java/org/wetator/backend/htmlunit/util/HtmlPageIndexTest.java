@@ -21,12 +21,17 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.htmlunit.BrowserVersion;
 import org.htmlunit.ElementNotFoundException;
 import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlAnchor;
 import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlLabel;
 import org.htmlunit.html.HtmlPage;
+import org.htmlunit.html.HtmlSelect;
+import org.htmlunit.html.HtmlTextInput;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -84,6 +89,65 @@ public class HtmlPageIndexTest {
     assertEquals("Heading1", tmpResult.getHtmlElementById("myH1").getTextContent());
   }
 
+  @Test
+  public void getAllVisibleHtmlElements_types() throws IOException {
+    final String tmpHtmlCode = "<html><body>"
+        + "<input type='text' id='text'><input type='text' id='hidden' style='display: none'>"
+        + "<label id='label' for='text'>Label</label><select id='select'></select>"
+        + "</body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
+    assertEquals("[HtmlTextInput[<input type=\"text\" id=\"text\">], HtmlLabel[<label id=\"label\" for=\"text\">]]",
+        tmpResult.getAllVisibleHtmlElements(Arrays.asList(HtmlTextInput.class, HtmlLabel.class)).toString());
+    assertEquals(1, tmpResult.getAllVisibleHtmlElements(Arrays.asList(HtmlSelect.class)).size());
+    assertEquals(0, tmpResult.getAllVisibleHtmlElements(Arrays.asList(HtmlAnchor.class)).size());
+  }
+
+  @Test
+  public void getAllVisibleHtmlElements_typesDocumentOrder() throws IOException {
+    final String tmpHtmlCode = "<html><body>"
+        + "<input type='text' id='text1'><label id='label1' for='text2'>Label</label>"
+        + "<input type='text' id='text2'><label id='label2' for='text1'>Label</label>"
+        + "</body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
+    final StringBuilder tmpIds = new StringBuilder();
+    for (final HtmlElement tmpHtmlElement : tmpResult
+        .getAllVisibleHtmlElements(Arrays.asList(HtmlLabel.class, HtmlTextInput.class))) {
+      tmpIds.append(tmpHtmlElement.getId()).append(' ');
+    }
+    assertEquals("text1 label1 text2 label2 ", tmpIds.toString());
+  }
+
+  @Test
+  public void getVisibleHtmlElementsByAttribute() throws IOException {
+    final String tmpHtmlCode = "<html><body>"
+        + "<input type='text' id='myId' name='myName'><input type='text' name='myName' placeholder='Place'>"
+        + "<input type='text' id='hidden' name='myName' style='display: none'>"
+        + "<div data-testid='test' aria-label='aria'>div</div>"
+        + "</body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
+    assertEquals(1, tmpResult.getVisibleHtmlElementsByAttribute("id", "myId").size());
+    assertEquals(0, tmpResult.getVisibleHtmlElementsByAttribute("id", "hidden").size());
+    assertEquals(2, tmpResult.getVisibleHtmlElementsByAttribute("name", "myName").size());
+    assertEquals(1, tmpResult.getVisibleHtmlElementsByAttribute("placeholder", "Place").size());
+    assertEquals(1, tmpResult.getVisibleHtmlElementsByAttribute("data-testid", "test").size());
+    assertEquals(1, tmpResult.getVisibleHtmlElementsByAttribute("aria-label", "aria").size());
+    assertEquals(0, tmpResult.getVisibleHtmlElementsByAttribute("id", "unknown").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getVisibleHtmlElementsByAttribute_notIndexed() throws IOException {
+    final String tmpHtmlCode = "<html><body><p title='title'>Paragraph</p></body></html>";
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+
+    new HtmlPageIndex(tmpHtmlPage).getVisibleHtmlElementsByAttribute("title", "title");
+  }
+
   private void getText(final String anExpected, final String anHtmlCode) throws IOException {
     getText(anExpected, anExpected, anHtmlCode);
   }
@@ -1596,7 +1660,7 @@ public class HtmlPageIndexTest {
     PageUtil.consumeHtmlPage(anHtmlCode, tmpHtmlPage -> {
       final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
 
-      assertEquals(anExpected, tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementById("myID")));
+      assertEquals(anExpected, tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementById("myID")).toString());
     });
   }
 
@@ -1610,9 +1674,9 @@ public class HtmlPageIndexTest {
     final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
     final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
 
-    assertEquals("0>1", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("html").get(0)));
-    assertEquals("0>1>2", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("head").get(0)));
-    assertEquals("0>1>3", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("body").get(0)));
+    assertEquals("0>1", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("html").get(0)).toString());
+    assertEquals("0>1>2", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("head").get(0)).toString());
+    assertEquals("0>1>3", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("body").get(0)).toString());
   }
 
   @Test
@@ -1625,9 +1689,9 @@ public class HtmlPageIndexTest {
     final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
     final HtmlPageIndex tmpResult = new HtmlPageIndex(tmpHtmlPage);
 
-    assertEquals("0>1", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("html").get(0)));
-    assertEquals("0>1>2", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("head").get(0)));
-    assertEquals("0>1>3", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("body").get(0)));
+    assertEquals("0>1", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("html").get(0)).toString());
+    assertEquals("0>1>2", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("head").get(0)).toString());
+    assertEquals("0>1>3", tmpResult.getHierarchy((HtmlElement) tmpHtmlPage.getElementsByTagName("body").get(0)).toString());
   }
 
   @Test
@@ -2236,6 +2300,21 @@ public class HtmlPageIndexTest {
     assertTrue(tmpHtmlPageIndex.hasMouseActionListener(MouseAction.CLICK, tmpHtmlPage.getHtmlElementById("myId")));
   }
 
+  @Test
+  public void hasMouseActionListener_byAddEventListenerAfterIndexing() throws Exception {
+    final String tmpHtmlCode = "<html><body><span id='myId'>some text</span></body></html>";
+
+    final HtmlPage tmpHtmlPage = webClient.loadHtmlCodeIntoCurrentWindow(tmpHtmlCode);
+    HtmlPageIndex tmpHtmlPageIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    assertFalse(tmpHtmlPageIndex.hasMouseActionListener(MouseAction.CLICK, tmpHtmlPage.getHtmlElementById("myId")));
+
+    // does not change the dom; the index is reused but the listeners have to be collected again
+    tmpHtmlPage.executeJavaScript(
+        "document.getElementById('myId').addEventListener('click', function() { alert('clicked'); });");
+    tmpHtmlPageIndex = HtmlPageIndex.getFor(tmpHtmlPage);
+    assertTrue(tmpHtmlPageIndex.hasMouseActionListener(MouseAction.CLICK, tmpHtmlPage.getHtmlElementById("myId")));
+  }
+
   @Test
   public void hasMouseActionListener_byJSOnEvent() throws Exception {
     // @formatter:off
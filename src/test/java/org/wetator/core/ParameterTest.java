@@ -23,6 +23,8 @@ import static org.mockito.Mockito.when;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.wetator.backend.WPath;
+import org.wetator.core.searchpattern.ContentPattern;
 import org.wetator.util.SecretString;
 
 /**
@@ -213,4 +215,45 @@ public class ParameterTest {
     Assert.assertEquals(",", tmpParameter.getParts().get(1).getValue(context).getValue());
     Assert.assertEquals(",", tmpParameter.getFirstPart().getValue(context).getValue());
   }
+
+  @Test
+  public void wPathReused() throws Exception {
+    final WetatorConfiguration tmpConfiguration = mock(WetatorConfiguration.class);
+    when(tmpConfiguration.getWPathSeparator()).thenReturn(">");
+    when(context.getConfiguration()).thenReturn(tmpConfiguration);
+
+    final Parameter tmpParameter = new Parameter("A > B");
+    final WPath tmpWPath = tmpParameter.getWPath(context);
+    Assert.assertEquals("A", tmpWPath.getPathNodes().get(0).getValue());
+    Assert.assertEquals("B", tmpWPath.getLastNode().getValue());
+
+    Assert.assertSame(tmpWPath, tmpParameter.getWPath(context));
+  }
+
+  @Test
+  public void contentPatternReused() throws Exception {
+    final Parameter tmpParameter = new Parameter("A, ~B");
+    final ContentPattern tmpPattern = tmpParameter.getContentPattern(context);
+    Assert.assertEquals("A, ~B", tmpPattern.toString());
+
+    Assert.assertSame(tmpPattern, tmpParameter.getContentPattern(context));
+  }
+
+  @Test
+  public void contentPatternVariables() throws Exception {
+    when(context.replaceVariables("A, ${b}")).thenReturn(new SecretString("A, B"), new SecretString("A, B"),
+        new SecretString("A, C"));
+
+    final Parameter tmpParameter = new Parameter("A, ${b}");
+    final ContentPattern tmpPattern = tmpParameter.getContentPattern(context);
+    Assert.assertEquals("A, B", tmpPattern.toString());
+
+    // same value
+    Assert.assertSame(tmpPattern, tmpParameter.getContentPattern(context));
+
+    // the value of the variable has changed
+    final ContentPattern tmpChangedPattern = tmpParameter.getContentPattern(context);
+    Assert.assertNotSame(tmpPattern, tmpChangedPattern);
+    Assert.assertEquals("A, C", tmpChangedPattern.toString());
+  }
 }
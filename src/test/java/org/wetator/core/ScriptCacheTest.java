@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wetator.exception.InvalidInputException;
+
+/**
+ * Tests for the {@link ScriptCache}.
+ *
+ * @author rbri
+ */
+public class ScriptCacheTest {
+  private static final File SCRIPT_DIR = new File("target/scriptCache");
+
+  private List<File> readFiles;
+
+  @Before
+  public void setUp() throws IOException {
+    FileUtils.deleteDirectory(SCRIPT_DIR);
+    readFiles = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(SCRIPT_DIR);
+  }
+
+  @Test
+  public void getCommands() throws IOException, InvalidInputException {
+    final File tmpFile = createFile("module.wet", "content");
+    final ScriptCache tmpCache = new ScriptCache(10);
+
+    final List<Command> tmpCommands = tmpCache.getCommands(tmpFile, this::read);
+    assertEquals(1, tmpCommands.size());
+    assertSame(tmpCommands, tmpCache.getCommands(tmpFile, this::read));
+    // same file with a different path
+    assertSame(tmpCommands, tmpCache.getCommands(new File(SCRIPT_DIR, "../scriptCache/module.wet"), this::read));
+    assertEquals(1, readFiles.size());
+
+    assertEquals("ScriptCache statistics:\n" + "      Entries:   1 (max 10)\n" + "      Hits:      2\n"
+        + "      Misses:    1\n" + "      Evictions: 0", tmpCache.getStatistics());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getCommandsUnmodifiable() throws IOException, InvalidInputException {
+    final File tmpFile = createFile("module.wet", "content");
+    new ScriptCache(10).getCommands(tmpFile, this::read).clear();
+  }
+
+  @Test
+  public void getCommandsFileChanged() throws IOException, InvalidInputException {
+    final File tmpFile = createFile("module.wet", "content");
+    final ScriptCache tmpCache = new ScriptCache(10);
+
+    final List<Command> tmpCommands = tmpCache.getCommands(tmpFile, this::read);
+    assertTrue(tmpFile.setLastModified(tmpFile.lastModified() - 10000));
+    assertNotSame(tmpCommands, tmpCache.getCommands(tmpFile, this::read));
+    assertEquals(2, readFiles.size());
+  }
+
+  @Test
+  public void evict() throws IOException, InvalidInputException {
+    final File tmpFile1 = createFile("module1.wet", "content");
+    final File tmpFile2 = createFile("module2.wet", "content");
+    final File tmpFile3 = createFile("module3.wet", "content");
+    final ScriptCache tmpCache = new ScriptCache(2);
+
+    tmpCache.getCommands(tmpFile1, this::read);
+    tmpCache.getCommands(tmpFile2, this::read);
+    // use the first one again
+    tmpCache.getCommands(tmpFile1, this::read);
+    tmpCache.getCommands(tmpFile3, this::read);
+    assertEquals(2, tmpCache.size());
+
+    // file 2 was the least recently used one
+    tmpCache.getCommands(tmpFile1, this::read);
+    tmpCache.getCommands(tmpFile2, this::read);
+    assertEquals(4, readFiles.size());
+    assertTrue(tmpCache.getStatistics().endsWith("Evictions: 2"));
+  }
+
+  @Test
+  public void ensureCapacity() throws IOException, InvalidInputException {
+    final ScriptCache tmpCache = new ScriptCache(2);
+    // e.g. all files are pre-parsed
+    tmpCache.ensureCapacity(3);
+    tmpCache.ensureCapacity(1);
+
+    final List<File> tmpFiles = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      tmpFiles.add(createFile("module" + i + ".wet", "content"));
+      tmpCache.getCommands(tmpFiles.get(i), this::read);
+    }
+    for (final File tmpFile : tmpFiles) {
+      tmpCache.getCommands(tmpFile, this::read);
+    }
+    assertEquals(3, readFiles.size());
+    assertTrue(tmpCache.getStatistics().contains("Entries:   3 (max 3)"));
+  }
+
+  @Test
+  public void ensureCapacityDisabled() throws IOException, InvalidInputException {
+    final File tmpFile = createFile("module.wet", "content");
+    final ScriptCache tmpCache = new ScriptCache(0);
+    tmpCache.ensureCapacity(3);
+
+    tmpCache.getCommands(tmpFile, this::read);
+    tmpCache.getCommands(tmpFile, this::read);
+    assertEquals(2, readFiles.size());
+  }
+
+  @Test
+  public void disabled() throws IOException, InvalidInputException {
+    final File tmpFile = createFile("module.wet", "content");
+    final ScriptCache tmpCache = new ScriptCache(0);
+
+    tmpCache.getCommands(tmpFile, this::read);
+    tmpCache.getCommands(tmpFile, this::read);
+    assertEquals(2, readFiles.size());
+    assertEquals(0, tmpCache.size());
+  }
+
+  private List<Command> read(final File aFile) {
+    readFiles.add(aFile);
+    return new ArrayList<>(Collections.singletonList(new Command("comment", true)));
+  }
+
+  private static File createFile(final String aName, final String aContent) throws IOException {
+    final File tmpFile = new File(SCRIPT_DIR, aName);
+    FileUtils.writeStringToFile(tmpFile, aContent, StandardCharsets.UTF_8);
+    return tmpFile;
+  }
+}
@@ -16,25 +16,33 @@
 
 package org.wetator.core;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InOrder;
 import org.wetator.backend.IBrowser;
 import org.wetator.backend.IBrowser.BrowserType;
+import org.wetator.exception.InvalidInputException;
 import org.wetator.exception.ResourceException;
 
 /**
@@ -319,6 +327,210 @@ public class WetatorEngineExecuteTestsTest {
     verify(engine, never()).informListenersError(isA(Throwable.class));
   }
 
+  /**
+   * Test for the engine.<br>
+   * <br>
+   * Assertion: In parallel mode the listeners should be informed in the order of the test cases even if the
+   * second test case finishes first.
+   */
+  @Test
+  public void parallel() {
+    // setup
+    final IBrowser tmpBrowser2 = mock(IBrowser.class);
+    final WetatorEngine tmpEngine = spy(new WetatorEngine());
+    when(configuration.getParallelism()).thenReturn(2);
+    doReturn(configuration).when(tmpEngine).getConfiguration();
+    doReturn(browser).doReturn(tmpBrowser2).when(tmpEngine).createBrowser();
+    doNothing().when(tmpEngine).addDefaultProgressListeners();
+    doReturn(Arrays.asList(testCase1, testCase2)).when(tmpEngine).getTestCases();
+
+    final WetatorContext tmpContext1 = mock(WetatorContext.class);
+    final WetatorContext tmpContext2 = mock(WetatorContext.class);
+    doReturn(tmpContext1).when(tmpEngine).createWetatorContext(eq(testCase1), isA(BrowserType.class));
+    doReturn(tmpContext2).when(tmpEngine).createWetatorContext(eq(testCase2), isA(BrowserType.class));
+    doAnswer(anInvocation -> {
+      Thread.sleep(200);
+      tmpEngine.informListenersInfo("slow");
+      return Boolean.TRUE;
+    }).when(tmpContext1).execute();
+    doAnswer(anInvocation -> {
+      tmpEngine.informListenersInfo("fast");
+      return Boolean.TRUE;
+    }).when(tmpContext2).execute();
+
+    final IProgressListener tmpListener = mock(IProgressListener.class);
+    tmpEngine.addProgressListener(tmpListener);
+
+    // run
+    tmpEngine.executeTests();
+
+    // assert
+    final InOrder tmpInOrder = inOrder(tmpListener);
+    tmpInOrder.verify(tmpListener).start(tmpEngine);
+    tmpInOrder.verify(tmpListener).testCaseStart(testCase1);
+    tmpInOrder.verify(tmpListener).testRunStart(browserType1.getLabel());
+    tmpInOrder.verify(tmpListener).info("slow");
+    tmpInOrder.verify(tmpListener).testRunEnd();
+    tmpInOrder.verify(tmpListener).testRunStart(browserType2.getLabel());
+    tmpInOrder.verify(tmpListener).info("slow");
+    tmpInOrder.verify(tmpListener).testRunEnd();
+    tmpInOrder.verify(tmpListener).testCaseEnd();
+    tmpInOrder.verify(tmpListener).testCaseStart(testCase2);
+    tmpInOrder.verify(tmpListener).testRunStart(browserType1.getLabel());
+    tmpInOrder.verify(tmpListener).info("fast");
+    tmpInOrder.verify(tmpListener).testRunEnd();
+    tmpInOrder.verify(tmpListener).testRunStart(browserType2.getLabel());
+    tmpInOrder.verify(tmpListener).info("fast");
+    tmpInOrder.verify(tmpListener).testRunEnd();
+    tmpInOrder.verify(tmpListener).testCaseEnd();
+    tmpInOrder.verify(tmpListener).end(tmpEngine);
+
+    verify(tmpListener, never()).error(isA(Throwable.class));
+    verify(browser, times(2)).startNewSession(isA(BrowserType.class));
+    verify(tmpBrowser2, times(2)).startNewSession(isA(BrowserType.class));
+    verify(tmpBrowser2).close();
+  }
+
+  /**
+   * Test for the engine.<br>
+   * <br>
+   * Assertion: In parallel mode the events raised by callbacks of a browser on other threads should be passed to
+   * the listeners within the test case using this browser; the listeners should see the time the events happened.
+   */
+  @Test
+  public void parallelBrowserCallbacks() {
+    // setup
+    final IBrowser tmpBrowser2 = mock(IBrowser.class);
+    final WetatorEngine tmpEngine = spy(new WetatorEngine());
+    when(configuration.getParallelism()).thenReturn(2);
+    when(configuration.getBrowserTypes()).thenReturn(Collections.singletonList(browserType1));
+    doReturn(configuration).when(tmpEngine).getConfiguration();
+    doReturn(browser).doReturn(tmpBrowser2).when(tmpEngine).createBrowser();
+    doNothing().when(tmpEngine).addDefaultProgressListeners();
+    doReturn(Arrays.asList(testCase1, testCase2)).when(tmpEngine).getTestCases();
+
+    final WetatorContext tmpContext1 = mock(WetatorContext.class);
+    final WetatorContext tmpContext2 = mock(WetatorContext.class);
+    doReturn(tmpContext1).when(tmpEngine).createWetatorContext(eq(testCase1), isA(BrowserType.class));
+    doReturn(tmpContext2).when(tmpEngine).createWetatorContext(eq(testCase2), isA(BrowserType.class));
+    doAnswer(anInvocation -> {
+      // e.g. a javascript callback
+      final IBrowser tmpBrowser = tmpEngine.getBrowser();
+      final Thread tmpThread = new Thread(
+          () -> tmpEngine.runInContextOf(tmpBrowser, () -> tmpEngine.informListenersInfo("background")));
+      tmpThread.start();
+      tmpThread.join();
+      Thread.sleep(200);
+      return Boolean.TRUE;
+    }).when(tmpContext1).execute();
+    doReturn(Boolean.TRUE).when(tmpContext2).execute();
+
+    final long[] tmpTimes = new long[2];
+    final IProgressListener tmpListener = mock(IProgressListener.class);
+    doAnswer(anInvocation -> tmpTimes[0] = tmpEngine.getEventTime()).when(tmpListener).testCaseStart(testCase1);
+    doAnswer(anInvocation -> tmpTimes[1] = tmpEngine.getEventTime()).doNothing().when(tmpListener)
+        .testCaseEnd();
+    tmpEngine.addProgressListener(tmpListener);
+
+    // run
+    tmpEngine.executeTests();
+
+    // assert
+    final InOrder tmpInOrder = inOrder(tmpListener);
+    tmpInOrder.verify(tmpListener).testCaseStart(testCase1);
+    tmpInOrder.verify(tmpListener).info("background");
+    tmpInOrder.verify(tmpListener).testCaseEnd();
+    tmpInOrder.verify(tmpListener).testCaseStart(testCase2);
+    tmpInOrder.verify(tmpListener).testCaseEnd();
+
+    verify(tmpListener).info("background");
+    assertTrue("duration " + (tmpTimes[1] - tmpTimes[0]), tmpTimes[1] - tmpTimes[0] >= 200);
+  }
+
+  /**
+   * Test for the engine.<br>
+   * <br>
+   * Assertion: In parallel mode the listeners should see the values the variables had when the command was started,
+   * even if a variable is reassigned before the recorded events are passed to the listeners.
+   */
+  @Test
+  public void parallelVariableReassigned() {
+    // setup
+    final IBrowser tmpBrowser2 = mock(IBrowser.class);
+    final WetatorEngine tmpEngine = spy(new WetatorEngine());
+    when(configuration.getParallelism()).thenReturn(2);
+    when(configuration.getBrowserTypes()).thenReturn(Collections.singletonList(browserType1));
+    when(configuration.getVariables()).thenReturn(Collections.singletonList(new Variable("x", "first")));
+    doReturn(configuration).when(tmpEngine).getConfiguration();
+    doReturn(browser).doReturn(tmpBrowser2).when(tmpEngine).createBrowser();
+    doNothing().when(tmpEngine).addDefaultProgressListeners();
+    doReturn(Arrays.asList(testCase1, testCase2)).when(tmpEngine).getTestCases();
+
+    final Command tmpCommand = new Command("describe", false);
+    tmpCommand.setFirstParameter(new Parameter("${x}"));
+    final WetatorContext tmpContext1 = spy(
+        new WetatorContext(tmpEngine, testCase1.getName(), testCase1.getFile(), browserType1));
+    final WetatorContext tmpContext2 = mock(WetatorContext.class);
+    doReturn(tmpContext1).when(tmpEngine).createWetatorContext(eq(testCase1), isA(BrowserType.class));
+    doReturn(tmpContext2).when(tmpEngine).createWetatorContext(eq(testCase2), isA(BrowserType.class));
+    doAnswer(anInvocation -> {
+      tmpEngine.informListenersExecuteCommandStart(tmpContext1, tmpCommand);
+      // the test overwrites the variable from the configuration
+      tmpContext1.addVariable(new Variable("x", "second"));
+      return Boolean.TRUE;
+    }).when(tmpContext1).execute();
+    doReturn(Boolean.TRUE).when(tmpContext2).execute();
+
+    final String[] tmpValue = new String[1];
+    final IProgressListener tmpListener = mock(IProgressListener.class);
+    doAnswer(anInvocation -> tmpValue[0] = tmpCommand.getFirstParameter()
+        .getValue(anInvocation.getArgument(0, WetatorContext.class)).toString()).when(tmpListener)
+            .executeCommandStart(isA(WetatorContext.class), eq(tmpCommand));
+    tmpEngine.addProgressListener(tmpListener);
+
+    // run
+    tmpEngine.executeTests();
+
+    // assert
+    assertEquals("first", tmpValue[0]);
+    assertEquals("second", tmpContext1.replaceVariables("${x}").toString());
+  }
+
+  /**
+   * Test for the engine.<br>
+   * <br>
+   * Assertion: If pre-parsing is enabled, all test files and the modules used by them should be read before the
+   * first test is executed and invalid files should be reported up front.
+   */
+  @Test
+  public void preParse() throws InvalidInputException {
+    // setup
+    final File tmpModuleFile = new File("src/test/resources/legacyXML.xml").getAbsoluteFile();
+    final Command tmpUseModule = new Command("use-module", false);
+    tmpUseModule.setFirstParameter(new Parameter(tmpModuleFile.getPath()));
+    final InvalidInputException tmpException = new InvalidInputException("invalid");
+
+    when(configuration.isPreParseEnabled()).thenReturn(true);
+    when(engine.readCommandsFromFile(testCase1.getFile())).thenReturn(Collections.singletonList(tmpUseModule));
+    doThrow(tmpException).when(engine).readCommandsFromFile(testCase2.getFile());
+    when(engine.readCommandsFromFile(tmpModuleFile)).thenReturn(Collections.emptyList());
+    doReturn(Boolean.TRUE).when(context).execute();
+
+    // run
+    engine.executeTests();
+
+    // assert
+    final InOrder tmpInOrder = inOrder(engine, context, browser, configuration);
+    tmpInOrder.verify(engine).informListenersStart();
+    tmpInOrder.verify(engine).informListenersError(tmpException);
+    tmpInOrder.verify(engine).informListenersTestCaseStart(testCase1);
+    assertTestRun(tmpInOrder, testCase1, browserType1);
+
+    verify(engine).readCommandsFromFile(testCase1.getFile());
+    verify(engine).readCommandsFromFile(testCase2.getFile());
+    verify(engine).readCommandsFromFile(tmpModuleFile);
+  }
+
   private void assertTestRun(final InOrder anInOrder, final TestCase aTestCase, final BrowserType aBrowserType) {
     anInOrder.verify(engine).informListenersTestRunStart(aBrowserType.getLabel());
     anInOrder.verify(browser).startNewSession(aBrowserType);
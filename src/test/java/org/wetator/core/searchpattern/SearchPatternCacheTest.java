@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.core.searchpattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.wetator.core.searchpattern.SearchPattern.SearchPatternCache;
+
+/**
+ * Tests for the {@link SearchPatternCache}.
+ *
+ * @author rbri
+ */
+public class SearchPatternCacheTest {
+
+  @Test
+  public void getPut() {
+    final SearchPatternCache tmpCache = new SearchPatternCache(10, 1000);
+    assertNull(tmpCache.get("a"));
+
+    final SearchPattern tmpPattern = new TextOnlySearchPattern("a", "a");
+    assertSame(tmpPattern, tmpCache.put("a", tmpPattern));
+    assertSame(tmpPattern, tmpCache.get("a"));
+
+    // the first one wins
+    assertSame(tmpPattern, tmpCache.put("a", new TextOnlySearchPattern("a", "a")));
+    assertSame(tmpPattern, tmpCache.get("a"));
+
+    assertEquals("SearchPatternCache statistics:\n" + "      Entries:   1\n" + "      Weight:    1 (max 1000)\n"
+        + "      Hits:      2\n" + "      Misses:    1\n" + "      Evictions: 0", tmpCache.getStatistics());
+  }
+
+  @Test
+  public void evict() throws InterruptedException {
+    final SearchPatternCache tmpCache = new SearchPatternCache(10, 8);
+
+    for (int i = 0; i < 8; i++) {
+      // make sure the access times differ
+      Thread.sleep(1);
+      tmpCache.put("p" + i, new TextOnlySearchPattern("p" + i, "p" + i));
+    }
+    assertEquals(8, tmpCache.size());
+
+    // use the first one again
+    Thread.sleep(1);
+    assertNotNull(tmpCache.get("p0"));
+
+    // exceeds the limit; evicts down to 3/4
+    tmpCache.put("p8", new TextOnlySearchPattern("p8", "p8"));
+    assertEquals(6, tmpCache.size());
+    assertNotNull(tmpCache.get("p0"));
+    assertNotNull(tmpCache.get("p8"));
+    assertNull(tmpCache.get("p1"));
+    assertNull(tmpCache.get("p2"));
+    assertNull(tmpCache.get("p3"));
+    assertTrue(tmpCache.getStatistics().endsWith("Evictions: 3"));
+  }
+
+  @Test
+  public void evictByWeight() {
+    final SearchPatternCache tmpCache = new SearchPatternCache(10, 20);
+
+    final SearchPattern tmpPattern = SearchPattern.compile("a*b?c*d");
+    assertTrue(tmpPattern.getWeight() > 20);
+
+    // a single pattern heavier than the limit is evicted immediately
+    assertSame(tmpPattern, tmpCache.put("a*b?c*d", tmpPattern));
+    assertEquals(0, tmpCache.size());
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.wetator.core.searchpattern;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Test;
 import org.wetator.util.FindSpot;
@@ -299,4 +300,18 @@ public class SearchPatternFirstOccurrenceInTest {
     tmpPattern = SearchPattern.compile("W*t");
     Assert.assertEquals(new FindSpot(2, 5), tmpPattern.firstOccurenceIn(tmpString, 2));
   }
+
+  @Test
+  public void longText() {
+    final String tmpString = StringUtils.repeat("lorem ipsum dolor ", 10000) + "Wetator";
+
+    SearchPattern tmpPattern = SearchPattern.compile("*Wetator");
+    Assert.assertEquals(new FindSpot(180000, 180007), tmpPattern.firstOccurenceIn(tmpString));
+    tmpPattern = SearchPattern.compile("dolor*Wetator");
+    Assert.assertEquals(new FindSpot(12, 180007), tmpPattern.firstOccurenceIn(tmpString));
+    tmpPattern = SearchPattern.compile("ipsum*dolor");
+    Assert.assertEquals(new FindSpot(6, 17), tmpPattern.firstOccurenceIn(tmpString));
+    tmpPattern = SearchPattern.compile("*Wetator?");
+    Assert.assertEquals(FindSpot.NOT_FOUND, tmpPattern.firstOccurenceIn(tmpString));
+  }
 }
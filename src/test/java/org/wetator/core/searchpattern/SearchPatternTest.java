@@ -22,6 +22,10 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
+import org.wetator.util.FindSpot;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.RegExp;
 
 /**
  * @author rbri
@@ -1004,4 +1008,32 @@ public class SearchPatternTest {
     tmpPattern = SearchPattern.compile("a*b?c d");
     assertEquals("SearchPattern 'a*b?c d' [regexp: 'a.*b.c d']", tmpPattern.toString());
   }
+
+  @Test
+  public void exponentialDeterminization() {
+    // the deterministic automaton for '.*x.{14}y' has more than 2^14 states
+    final long tmpStart = System.currentTimeMillis();
+
+    final SearchPattern tmpPattern = SearchPattern.compile("x??????????????y");
+    final String tmpString = "ab x12345678901234y cd x12345678901234y";
+
+    assertEquals(new FindSpot(3, 19), tmpPattern.firstOccurenceIn(tmpString));
+    assertEquals(new FindSpot(23, 39), tmpPattern.lastOccurenceIn(tmpString));
+    assertTrue(tmpPattern.matchesAtEnd(tmpString));
+    assertFalse(tmpPattern.matchesAtEnd(tmpString + "z"));
+    assertEquals(23, tmpPattern.noOfCharsBeforeLastShortestOccurenceIn(tmpString));
+    assertEquals(0, tmpPattern.noOfCharsAfterLastShortestOccurenceIn(tmpString));
+
+    final long tmpDuration = System.currentTimeMillis() - tmpStart;
+    assertTrue("took " + tmpDuration + "ms", tmpDuration < 5000);
+  }
+
+  @Test
+  public void determinizeTooLarge() {
+    final Automaton tmpAutomaton = Automaton.makeAnyString().concatenate(new RegExp("x.{14}y").toAutomaton());
+    assertEquals(RegExpSearchPattern.TOO_LARGE, RegExpSearchPattern.determinize(tmpAutomaton));
+
+    final Automaton tmpSmall = Automaton.makeAnyString().concatenate(new RegExp("x.{4}y").toAutomaton());
+    assertNotEquals(RegExpSearchPattern.TOO_LARGE, RegExpSearchPattern.determinize(tmpSmall));
+  }
 }
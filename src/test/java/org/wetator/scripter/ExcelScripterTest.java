@@ -17,13 +17,24 @@
 package org.wetator.scripter;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Assert;
 import org.junit.Test;
 import org.wetator.core.Command;
 import org.wetator.core.IScripter;
+import org.wetator.core.Parameter;
 import org.wetator.exception.InvalidInputException;
 
 /**
@@ -601,4 +612,130 @@ public class ExcelScripterTest {
         tmpCommand.getFirstParameter().getValue());
     Assert.assertNull(tmpCommand.getSecondParameter());
   }
+
+  @Test
+  public void xlsxScriptStreamingDe() throws InvalidInputException {
+    assertStreamingSameCommands("de");
+  }
+
+  @Test
+  public void xlsxScriptStreamingEn() throws InvalidInputException {
+    assertStreamingSameCommands("en");
+  }
+
+  @Test
+  public void xlsxScriptStreamingCellTypes() throws InvalidInputException, IOException {
+    final File tmpFile = new File("target/excelStreaming.xlsx");
+    try (XSSFWorkbook tmpWorkbook = new XSSFWorkbook()) {
+      final Sheet tmpSheet = tmpWorkbook.createSheet("test");
+      final CellStyle tmpDateStyle = tmpWorkbook.createCellStyle();
+      tmpDateStyle.setDataFormat(tmpWorkbook.createDataFormat().getFormat("dd.mm.yyyy"));
+      final CellStyle tmpNumberStyle = tmpWorkbook.createCellStyle();
+      tmpNumberStyle.setDataFormat(tmpWorkbook.createDataFormat().getFormat("#,##0.00"));
+
+      Row tmpRow = tmpSheet.createRow(0);
+      tmpRow.createCell(1).setCellValue("set");
+      Cell tmpCell = tmpRow.createCell(2);
+      tmpCell.setCellValue(new GregorianCalendar(2024, Calendar.FEBRUARY, 29).getTime());
+      tmpCell.setCellStyle(tmpDateStyle);
+      tmpCell = tmpRow.createCell(3);
+      tmpCell.setCellValue(1234.5);
+      tmpCell.setCellStyle(tmpNumberStyle);
+      tmpRow.createCell(4).setCellValue(true);
+
+      tmpRow = tmpSheet.createRow(1);
+      tmpRow.createCell(1).setCellValue("assert-content");
+      tmpRow.createCell(2).setCellFormula("1+2");
+      tmpRow.createCell(3).setCellFormula("CONCATENATE(\"a\",\"b\")");
+      tmpCell = tmpRow.createCell(4);
+      tmpCell.setCellFormula("C1+1");
+      tmpCell.setCellStyle(tmpDateStyle);
+      tmpWorkbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+      // known difference: the streaming mode uses the result stored in the file, even if it is outdated
+      tmpRow = tmpSheet.createRow(2);
+      tmpRow.createCell(1).setCellValue("assert-content");
+      tmpCell = tmpRow.createCell(2);
+      tmpCell.setCellFormula("2*3");
+      tmpCell.setCellValue(5);
+
+      try (OutputStream tmpOut = Files.newOutputStream(tmpFile.toPath())) {
+        tmpWorkbook.write(tmpOut);
+      }
+    }
+
+    final Properties tmpProps = new Properties();
+    tmpProps.put("wetator.scripter.excel.locale", "de");
+    final ExcelScripter tmpExcelScripter = new ExcelScripter();
+    tmpExcelScripter.initialize(tmpProps);
+    tmpExcelScripter.script(tmpFile);
+    final List<Command> tmpExpected = tmpExcelScripter.getCommands();
+
+    tmpProps.put("wetator.scripter.excel.streaming", "true");
+    final ExcelScripter tmpStreamingScripter = new ExcelScripter();
+    tmpStreamingScripter.initialize(tmpProps);
+    tmpStreamingScripter.script(tmpFile);
+    final List<Command> tmpCommands = tmpStreamingScripter.getCommands();
+
+    Assert.assertEquals(3, tmpExpected.size());
+    Assert.assertEquals(3, tmpCommands.size());
+
+    // dates, numbers, booleans and formulas with up to date results are the same
+    for (int i = 0; i < 2; i++) {
+      final Command tmpExpectedCommand = tmpExpected.get(i);
+      final Command tmpCommand = tmpCommands.get(i);
+      Assert.assertEquals(tmpExpectedCommand.getName(), tmpCommand.getName());
+      Assert.assertEquals(getValue(tmpExpectedCommand.getFirstParameter()), getValue(tmpCommand.getFirstParameter()));
+      Assert.assertEquals(getValue(tmpExpectedCommand.getSecondParameter()),
+          getValue(tmpCommand.getSecondParameter()));
+      Assert.assertEquals(getValue(tmpExpectedCommand.getThirdParameter()), getValue(tmpCommand.getThirdParameter()));
+    }
+    Assert.assertEquals("29.02.2024", getValue(tmpCommands.get(0).getFirstParameter()));
+    Assert.assertEquals("1.234,50", getValue(tmpCommands.get(0).getSecondParameter()));
+    Assert.assertEquals("TRUE", getValue(tmpCommands.get(0).getThirdParameter()));
+    Assert.assertEquals("3", getValue(tmpCommands.get(1).getFirstParameter()));
+    Assert.assertEquals("ab", getValue(tmpCommands.get(1).getSecondParameter()));
+    Assert.assertEquals("01.03.2024", getValue(tmpCommands.get(1).getThirdParameter()));
+
+    // the outdated result
+    Assert.assertEquals("6", getValue(tmpExpected.get(2).getFirstParameter()));
+    Assert.assertEquals("5", getValue(tmpCommands.get(2).getFirstParameter()));
+  }
+
+  private void assertStreamingSameCommands(final String aLocale) throws InvalidInputException {
+    final File tmpFile = new File("src/test/resources/excel.xlsx");
+
+    final Properties tmpProps = new Properties();
+    tmpProps.put("wetator.scripter.excel.locale", aLocale);
+    final ExcelScripter tmpExcelScripter = new ExcelScripter();
+    tmpExcelScripter.initialize(tmpProps);
+    tmpExcelScripter.script(tmpFile);
+    final List<Command> tmpExpected = tmpExcelScripter.getCommands();
+
+    tmpProps.put("wetator.scripter.excel.streaming", "true");
+    final ExcelScripter tmpStreamingScripter = new ExcelScripter();
+    tmpStreamingScripter.initialize(tmpProps);
+    tmpStreamingScripter.script(tmpFile);
+    final List<Command> tmpCommands = tmpStreamingScripter.getCommands();
+
+    Assert.assertEquals(tmpExpected.size(), tmpCommands.size());
+    for (int i = 0; i < tmpExpected.size(); i++) {
+      final Command tmpExpectedCommand = tmpExpected.get(i);
+      final Command tmpCommand = tmpCommands.get(i);
+      Assert.assertEquals(tmpExpectedCommand.getName(), tmpCommand.getName());
+      Assert.assertEquals(tmpExpectedCommand.isComment(), tmpCommand.isComment());
+      Assert.assertEquals(tmpExpectedCommand.getLineNo(), tmpCommand.getLineNo());
+      Assert.assertEquals(getValue(tmpExpectedCommand.getFirstParameter()), getValue(tmpCommand.getFirstParameter()));
+      Assert.assertEquals(getValue(tmpExpectedCommand.getSecondParameter()),
+          getValue(tmpCommand.getSecondParameter()));
+      Assert.assertEquals(getValue(tmpExpectedCommand.getThirdParameter()), getValue(tmpCommand.getThirdParameter()));
+    }
+  }
+
+  private static String getValue(final Parameter aParameter) {
+    if (null == aParameter) {
+      return null;
+    }
+    return aParameter.getValue();
+  }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2026 wetator.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wetator.scripter.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wetator.scripter.ParseException;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests for the {@link ModelCache}.
+ *
+ * @author rbri
+ */
+public class ModelCacheTest {
+  private static final File SCHEMA_DIR = new File("target/modelCache");
+
+  @Before
+  public void setUp() throws IOException {
+    ModelCache.clear();
+    FileUtils.deleteDirectory(SCHEMA_DIR);
+    FileUtils.copyFileToDirectory(new File("src/test/resources/junit-test-command-set.xsd"), SCHEMA_DIR);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    ModelCache.clear();
+    FileUtils.deleteDirectory(SCHEMA_DIR);
+  }
+
+  @Test
+  public void sameSchemas() throws IOException, SAXException, ParseException {
+    final ModelBuilder tmpModel = ModelCache.getModel(createSchemas(), SCHEMA_DIR);
+    assertEquals(3, tmpModel.getCommandTypes().size());
+
+    assertSame(tmpModel, ModelCache.getModel(createSchemas(), SCHEMA_DIR));
+  }
+
+  @Test
+  public void differentSchemas() throws IOException, SAXException, ParseException {
+    final ModelBuilder tmpModel = ModelCache.getModel(createSchemas(), SCHEMA_DIR);
+
+    final List<XMLSchema> tmpSchemas = new ArrayList<>();
+    tmpSchemas.add(new XMLSchema("http://www.wetator.org/xsd/test-case", "test-case-1.0.0.xsd"));
+    final ModelBuilder tmpOther = ModelCache.getModel(tmpSchemas, SCHEMA_DIR);
+    assertNotSame(tmpModel, tmpOther);
+    assertEquals(0, tmpOther.getCommandTypes().size());
+  }
+
+  @Test
+  public void schemaFileChanged() throws IOException, SAXException, ParseException {
+    final ModelBuilder tmpModel = ModelCache.getModel(createSchemas(), SCHEMA_DIR);
+
+    final File tmpSchemaFile = new File(SCHEMA_DIR, "junit-test-command-set.xsd");
+    assertTrue(tmpSchemaFile.setLastModified(tmpSchemaFile.lastModified() - 10000));
+
+    assertNotSame(tmpModel, ModelCache.getModel(createSchemas(), SCHEMA_DIR));
+  }
+
+  @Test
+  public void knownSchemasSharedAcrossDirectories() throws IOException, SAXException, ParseException {
+    final List<XMLSchema> tmpSchemas = new ArrayList<>();
+    tmpSchemas.add(new XMLSchema("http://www.wetator.org/xsd/test-case", "test-case-1.0.0.xsd"));
+    final ModelBuilder tmpModel = ModelCache.getModel(tmpSchemas, SCHEMA_DIR);
+
+    assertSame(tmpModel, ModelCache.getModel(tmpSchemas, new File("target")));
+    assertSame(tmpModel, ModelCache.getModel(tmpSchemas, null));
+    assertEquals(1, ModelCache.size());
+  }
+
+  @Test
+  public void includedSchemaFileChanged() throws IOException, SAXException, ParseException {
+    final File tmpIncludedFile = new File(SCHEMA_DIR, "included.xsd");
+    FileUtils.copyFile(new File(SCHEMA_DIR, "junit-test-command-set.xsd"), tmpIncludedFile);
+    FileUtils.writeStringToFile(new File(SCHEMA_DIR, "main.xsd"),
+        "<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'"
+            + " targetNamespace='http://www.wetator.org/xsd/junit-test-command-set'"
+            + " elementFormDefault='qualified'>\n" + "  <xs:include schemaLocation='included.xsd'/>\n"
+            + "</xs:schema>\n",
+        "UTF-8");
+
+    final List<XMLSchema> tmpSchemas = new ArrayList<>();
+    tmpSchemas.add(new XMLSchema("http://www.wetator.org/xsd/test-case", "test-case-1.0.0.xsd"));
+    tmpSchemas.add(new XMLSchema("http://www.wetator.org/xsd/junit-test-command-set", "main.xsd"));
+    final ModelBuilder tmpModel = ModelCache.getModel(tmpSchemas, SCHEMA_DIR);
+    assertEquals(3, tmpModel.getCommandTypes().size());
+    assertSame(tmpModel, ModelCache.getModel(tmpSchemas, SCHEMA_DIR));
+
+    assertTrue(tmpIncludedFile.setLastModified(tmpIncludedFile.lastModified() - 10000));
+
+    assertNotSame(tmpModel, ModelCache.getModel(tmpSchemas, SCHEMA_DIR));
+  }
+
+  @Test
+  public void bounded() throws IOException, SAXException, ParseException {
+    final ModelBuilder tmpModel = ModelCache.getModel(createSchemas(), SCHEMA_DIR);
+
+    for (int i = 0; i < ModelCache.MAX_ENTRIES; i++) {
+      final File tmpDir = new File(SCHEMA_DIR, "dir" + i);
+      FileUtils.copyFileToDirectory(new File(SCHEMA_DIR, "junit-test-command-set.xsd"), tmpDir);
+      ModelCache.getModel(createSchemas(), tmpDir);
+    }
+    assertEquals(ModelCache.MAX_ENTRIES, ModelCache.size());
+
+    // the first one was evicted
+    assertNotSame(tmpModel, ModelCache.getModel(createSchemas(), SCHEMA_DIR));
+  }
+
+  private List<XMLSchema> createSchemas() {
+    final List<XMLSchema> tmpSchemas = new ArrayList<>();
+    tmpSchemas.add(new XMLSchema("http://www.wetator.org/xsd/test-case", "test-case-1.0.0.xsd"));
+    tmpSchemas.add(
+        new XMLSchema("http://www.wetator.org/xsd/junit-test-command-set", "junit-test-command-set.xsd"));
+    return tmpSchemas;
+  }
+}
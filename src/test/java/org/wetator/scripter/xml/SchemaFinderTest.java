@@ -19,7 +19,10 @@ package org.wetator.scripter.xml;
 import java.io.StringReader;
 import java.util.List;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -100,4 +103,22 @@ public class SchemaFinderTest {
     Assert.assertEquals("b", tmpSchema.getPrefix());
     Assert.assertEquals("schema-b.xsd", tmpSchema.getLocation());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void streamReader() throws XMLStreamException {
+    final XMLStreamReader tmpReader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(
+        "<content " //
+            + "xmlns='http://www.wetator.org/xsd/default' " //
+            + "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' " //
+            + "xsi:schemaLocation='http://www.wetator.org/xsd/default default.xsd'><child/></content>"));
+    final List<XMLSchema> tmpSchemas = new SchemaFinder(tmpReader).getSchemas();
+    Assert.assertEquals(1, tmpSchemas.size());
+    Assert.assertEquals("default.xsd", tmpSchemas.get(0).getLocation());
+
+    // the reader stays at the root element
+    Assert.assertTrue(tmpReader.isStartElement());
+    Assert.assertEquals("content", tmpReader.getLocalName());
+    Assert.assertEquals(XMLStreamConstants.START_ELEMENT, tmpReader.next());
+    Assert.assertEquals("child", tmpReader.getLocalName());
+  }
+}
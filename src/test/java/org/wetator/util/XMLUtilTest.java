@@ -16,6 +16,9 @@
 
 package org.wetator.util;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import org.junit.Test;
 
 /**
@@ -150,4 +153,37 @@ public class XMLUtilTest {
     final XMLUtil tmpXMLUtil = new XMLUtil();
     org.junit.Assert.assertEquals("", tmpXMLUtil.normalizeAttributeValue(null));
   }
+
+  @Test
+  public void writeBodyValue() throws IOException {
+    final String[] tmpInputs = { "abc", "<>&", "ab>de<", "ab'de\"", "\u0000a\u0009\u0010b\r\n",
+      "\uD7FF\uD800\uDFFF\uE000\uFFFD\uFFFE", "\u00e4\u00f6\u00fc", "", };
+
+    final XMLUtil tmpXMLUtil = new XMLUtil();
+    for (final String tmpInput : tmpInputs) {
+      final StringWriter tmpWriter = new StringWriter();
+      XMLUtil.writeBodyValue(tmpWriter, tmpInput);
+      org.junit.Assert.assertEquals(tmpXMLUtil.normalizeBodyValue(tmpInput), tmpWriter.toString());
+    }
+  }
+
+  @Test
+  public void writeAttributeValue() throws IOException {
+    final String[] tmpInputs = { "abc", "<>&", "ab>de<", "ab'de\"", "\u0000a\u0009\u0010b\r\n",
+      "\uD7FF\uD800\uDFFF\uE000\uFFFD\uFFFE", "\u00e4\u00f6\u00fc", "", };
+
+    final XMLUtil tmpXMLUtil = new XMLUtil();
+    for (final String tmpInput : tmpInputs) {
+      final StringWriter tmpWriter = new StringWriter();
+      XMLUtil.writeAttributeValue(tmpWriter, tmpInput);
+      org.junit.Assert.assertEquals(tmpXMLUtil.normalizeAttributeValue(tmpInput), tmpWriter.toString());
+    }
+  }
+
+  @Test
+  public void writeAttributeValue_Null() throws IOException {
+    final StringWriter tmpWriter = new StringWriter();
+    XMLUtil.writeAttributeValue(tmpWriter, null);
+    org.junit.Assert.assertEquals("", tmpWriter.toString());
+  }
 }